@@ -0,0 +1,83 @@
+package io.github.wolfraam.chessgame.benchmark;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.PositionCodec;
+import io.github.wolfraam.chessgame.move.Move;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks FEN parsing and writing, binary position encoding and playing moves on the board, over the positions of
+ * the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class BoardBenchmark {
+
+    private final List<Board> boards = new ArrayList<>();
+    private final List<byte[]> encodedPositions = new ArrayList<>();
+    private final List<Move> moves = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (final ChessGame chessGame : PositionCorpus.createPositions()) {
+            boards.add(Board.fromFen(chessGame.getFen()));
+            encodedPositions.add(PositionCodec.encode(boards.get(boards.size() - 1)));
+            moves.add(chessGame.getLegalMoves().iterator().next());
+        }
+    }
+
+    @Benchmark
+    public void decodePosition(final Blackhole blackhole) {
+        for (final byte[] encodedPosition : encodedPositions) {
+            blackhole.consume(PositionCodec.decode(encodedPosition));
+        }
+    }
+
+    @Benchmark
+    public void encodePosition(final Blackhole blackhole) {
+        for (final Board board : boards) {
+            blackhole.consume(PositionCodec.encode(board));
+        }
+    }
+
+    @Benchmark
+    public void fromFen(final Blackhole blackhole) {
+        for (final String fen : PositionCorpus.FENS) {
+            blackhole.consume(Board.fromFen(fen));
+        }
+    }
+
+    @Benchmark
+    public void getFen(final Blackhole blackhole) {
+        for (final Board board : boards) {
+            blackhole.consume(board.getFen());
+        }
+    }
+
+    @Benchmark
+    public void makeAndUnmakeMove(final Blackhole blackhole) {
+        for (int i = 0; i < boards.size(); i++) {
+            final Board board = boards.get(i);
+            blackhole.consume(board.makeMove(moves.get(i)));
+            board.unmakeMove();
+        }
+    }
+}
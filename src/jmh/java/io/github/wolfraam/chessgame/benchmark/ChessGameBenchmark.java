@@ -0,0 +1,169 @@
+package io.github.wolfraam.chessgame.benchmark;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveList;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.opening.ChessOpeningHelper;
+import io.github.wolfraam.chessgame.pgn.PGNExporter;
+import io.github.wolfraam.chessgame.pgn.PGNImporter;
+import io.github.wolfraam.chessgame.pgn.PGNTag;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the move generation, the game result, playing moves, the chess opening, the binary form of games and the
+ * PGN import, over the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class ChessGameBenchmark {
+
+    private final ChessOpeningHelper chessOpeningHelper = new ChessOpeningHelper();
+    private final List<byte[]> gameBytes = new ArrayList<>();
+    private List<ChessGame> games;
+    private final List<Move> moves = new ArrayList<>();
+    private final MoveList moveList = new MoveList();
+    private byte[] pgnBytes;
+    private final PGNImporter pgnImporter = new PGNImporter();
+    private List<ChessGame> positions;
+    // The UCI notation of the moves
+    private final List<String> ucis = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        games = PositionCorpus.createGames();
+        positions = PositionCorpus.createPositions();
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final PGNExporter pgnExporter = new PGNExporter(byteArrayOutputStream);
+        for (final ChessGame chessGame : games) {
+            gameBytes.add(chessGame.toBytes());
+            final ChessGame pgnGame = chessGame.clone();
+            pgnGame.getPGNData().setPGNTag(PGNTag.EVENT, "Benchmark");
+            pgnGame.getPGNData().setPGNTag(PGNTag.RESULT, "*");
+            pgnExporter.write(pgnGame);
+        }
+        pgnBytes = byteArrayOutputStream.toByteArray();
+        for (final ChessGame chessGame : positions) {
+            moves.add(chessGame.getLegalMoves().iterator().next());
+            ucis.add(chessGame.getNotation(NotationType.UCI, moves.get(moves.size() - 1)));
+        }
+    }
+
+    @Benchmark
+    public void countLegalMoves(final Blackhole blackhole) {
+        for (final ChessGame chessGame : positions) {
+            blackhole.consume(chessGame.countLegalMoves());
+        }
+    }
+
+    @Benchmark
+    public void fromBytes(final Blackhole blackhole) {
+        for (final byte[] bytes : gameBytes) {
+            blackhole.consume(ChessGame.fromBytes(bytes));
+        }
+    }
+
+    @Benchmark
+    public void getChessOpening(final Blackhole blackhole) {
+        for (final ChessGame chessGame : games) {
+            blackhole.consume(chessOpeningHelper.getChessOpening(chessGame));
+        }
+    }
+
+    @Benchmark
+    public void getGameResult(final Blackhole blackhole) {
+        for (final ChessGame chessGame : positions) {
+            blackhole.consume(chessGame.getGameResult());
+        }
+    }
+
+    @Benchmark
+    public void getLegalMoves(final Blackhole blackhole) {
+        for (final ChessGame chessGame : positions) {
+            blackhole.consume(chessGame.getLegalMoves());
+        }
+    }
+
+    @Benchmark
+    public void getLegalMovesIntoMoveList(final Blackhole blackhole) {
+        for (final ChessGame chessGame : positions) {
+            moveList.clear();
+            chessGame.getLegalMoves(moveList);
+            blackhole.consume(moveList.size());
+        }
+    }
+
+    @Benchmark
+    public void importPgn(final Blackhole blackhole) {
+        pgnImporter.setOnGame(blackhole::consume);
+        pgnImporter.setOnTags(null);
+        pgnImporter.run(ByteBuffer.wrap(pgnBytes));
+    }
+
+    @Benchmark
+    public void importPgnTags(final Blackhole blackhole) {
+        pgnImporter.setOnGame(null);
+        pgnImporter.setOnTags(blackhole::consume);
+        pgnImporter.run(ByteBuffer.wrap(pgnBytes));
+    }
+
+    @Benchmark
+    public void isLegalMove(final Blackhole blackhole) {
+        for (int i = 0; i < positions.size(); i++) {
+            blackhole.consume(positions.get(i).isLegalMove(moves.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void playAndUndoMove(final Blackhole blackhole) {
+        for (int i = 0; i < positions.size(); i++) {
+            final ChessGame chessGame = positions.get(i);
+            blackhole.consume(chessGame.playMove(moves.get(i)));
+            chessGame.undoMove();
+        }
+    }
+
+    @Benchmark
+    public void playMoves(final Blackhole blackhole) {
+        for (final String game : PositionCorpus.GAMES) {
+            final ChessGame chessGame = new ChessGame();
+            chessGame.playMoves(NotationType.SAN, game);
+            blackhole.consume(chessGame);
+        }
+    }
+
+    @Benchmark
+    public void toBytes(final Blackhole blackhole) {
+        for (final ChessGame chessGame : games) {
+            blackhole.consume(chessGame.toBytes());
+        }
+    }
+
+    @Benchmark
+    public void tryPlayUciAndUndoMove(final Blackhole blackhole) {
+        for (int i = 0; i < positions.size(); i++) {
+            final ChessGame chessGame = positions.get(i);
+            blackhole.consume(chessGame.tryPlayUci(ucis.get(i)));
+            chessGame.undoMove();
+        }
+    }
+}
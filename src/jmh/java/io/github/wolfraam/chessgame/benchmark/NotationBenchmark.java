@@ -0,0 +1,94 @@
+package io.github.wolfraam.chessgame.benchmark;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.notation.LanguageSettings;
+import io.github.wolfraam.chessgame.notation.MoveDescription;
+import io.github.wolfraam.chessgame.notation.NotationHelper;
+import io.github.wolfraam.chessgame.notation.NotationMapping;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.notation.san.SanParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks writing the notation of all legal moves of the corpus positions, describing them once for all notation
+ * types, and parsing their SAN.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class NotationBenchmark {
+
+    private final List<Board> boards = new ArrayList<>();
+    private final NotationHelper notationHelper = new NotationHelper();
+    private final NotationMapping notationMapping = LanguageSettings.getNotationMapping("en");
+    @Param({"SAN", "FAN", "LAN", "UCI"})
+    private NotationType notationType;
+    // The legal moves of each board
+    private final List<List<Move>> moves = new ArrayList<>();
+    private final SanParser sanParser = new SanParser();
+    // The SAN of the legal moves of each board
+    private final List<List<String>> sans = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (final ChessGame chessGame : PositionCorpus.createPositions()) {
+            final List<Move> legalMoves = new ArrayList<>(chessGame.getLegalMoves());
+            final List<String> legalMoveSans = new ArrayList<>();
+            for (final Move move : legalMoves) {
+                legalMoveSans.add(chessGame.getNotation(NotationType.SAN, move));
+            }
+            boards.add(Board.fromFen(chessGame.getFen()));
+            moves.add(legalMoves);
+            sans.add(legalMoveSans);
+        }
+    }
+
+    @Benchmark
+    public void convertSanToMove(final Blackhole blackhole) {
+        for (int i = 0; i < boards.size(); i++) {
+            for (final String san : sans.get(i)) {
+                blackhole.consume(sanParser.convertToMove(boards.get(i), notationMapping, san));
+            }
+        }
+    }
+
+    @Benchmark
+    public void describeMoveInAllNotations(final Blackhole blackhole) {
+        for (int i = 0; i < boards.size(); i++) {
+            for (final Move move : moves.get(i)) {
+                final MoveDescription moveDescription = notationHelper.describeMove(boards.get(i), move);
+                for (final NotationType type : NotationType.values()) {
+                    blackhole.consume(moveDescription.getNotation(type, notationMapping));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void getMoveNotation(final Blackhole blackhole) {
+        for (int i = 0; i < boards.size(); i++) {
+            for (final Move move : moves.get(i)) {
+                blackhole.consume(notationHelper.getMoveNotation(notationMapping, boards.get(i), notationType, move));
+            }
+        }
+    }
+}
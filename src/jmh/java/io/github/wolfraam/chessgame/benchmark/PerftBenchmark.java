@@ -0,0 +1,49 @@
+package io.github.wolfraam.chessgame.benchmark;
+
+import io.github.wolfraam.chessgame.perft.Perft;
+import io.github.wolfraam.chessgame.perft.PerftPosition;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a single threaded perft without hash table on the reference positions. The nodes per second are the
+ * node count of the position at the depth divided by the time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class PerftBenchmark {
+
+    @Param({"4"})
+    private int depth;
+    private Perft perft;
+    @Param({"INITIAL", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5", "POSITION_6"})
+    private PerftPosition perftPosition;
+
+    @Setup
+    public void setUp() {
+        perft = new Perft(perftPosition.fen);
+    }
+
+    @Benchmark
+    public long perft() {
+        final long nodeCount = perft.perft(depth);
+        if (nodeCount != perftPosition.getNodeCount(depth)) {
+            throw new IllegalStateException("Expected " + perftPosition.getNodeCount(depth) + " nodes, got " + nodeCount);
+        }
+        return nodeCount;
+    }
+}
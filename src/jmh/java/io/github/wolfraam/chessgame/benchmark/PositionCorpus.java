@@ -0,0 +1,64 @@
+package io.github.wolfraam.chessgame.benchmark;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.perft.PerftPosition;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fixed positions and games on which the benchmarks run, so the results of different versions can be compared.
+ */
+public final class PositionCorpus {
+
+    /**
+     * Openings, middle games and endings, with castles, en passant, promotions and checks.
+     */
+    public static final List<String> FENS = List.of(
+            PerftPosition.INITIAL.fen,
+            PerftPosition.KIWIPETE.fen,
+            PerftPosition.POSITION_3.fen,
+            PerftPosition.POSITION_4.fen,
+            PerftPosition.POSITION_5.fen,
+            PerftPosition.POSITION_6.fen,
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "r1bqkb1r/pppp1ppp/2n2n2/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 30",
+            "8/8/4k3/8/2R5/4K3/4P3/8 w - - 0 60",
+            "8/5P2/8/8/8/2k5/8/4K3 w - - 0 70"
+    );
+
+    /**
+     * Opening lines in SAN.
+     */
+    public static final List<String> GAMES = List.of(
+            "e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O",
+            "d4 Nf6 c4 e6 Nc3 Bb4 e3 O-O Bd3 d5 Nf3 c5 O-O Nc6",
+            "e4 c5 Nf3 d6 d4 cxd4 Nxd4 Nf6 Nc3 a6 Be3 e5 Nb3 Be6",
+            "c4 e5 Nc3 Nf6 g3 d5 cxd5 Nxd5 Bg2 Nb6 Nf3 Nc6 O-O Be7",
+            "d4 d5 c4 c6 Nf3 Nf6 Nc3 dxc4 a4 Bf5 e3 e6 Bxc4 Bb4"
+    );
+
+    private PositionCorpus() {
+    }
+
+    public static List<ChessGame> createGames() {
+        final List<ChessGame> chessGames = new ArrayList<>();
+        for (final String game : GAMES) {
+            final ChessGame chessGame = new ChessGame();
+            chessGame.playMoves(NotationType.SAN, game);
+            chessGames.add(chessGame);
+        }
+        return chessGames;
+    }
+
+    public static List<ChessGame> createPositions() {
+        final List<ChessGame> chessGames = new ArrayList<>();
+        for (final String fen : FENS) {
+            chessGames.add(new ChessGame(fen));
+        }
+        return chessGames;
+    }
+}
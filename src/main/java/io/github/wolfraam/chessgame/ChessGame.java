@@ -4,14 +4,20 @@ import io.github.wolfraam.chessgame.board.Board;
 import io.github.wolfraam.chessgame.board.Piece;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.compact.GameCodec;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
 import io.github.wolfraam.chessgame.move.KingState;
 import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveConsumer;
 import io.github.wolfraam.chessgame.move.MoveHelper;
+import io.github.wolfraam.chessgame.move.MoveStatus;
 import io.github.wolfraam.chessgame.notation.LanguageSettings;
+import io.github.wolfraam.chessgame.notation.MoveDescription;
+import io.github.wolfraam.chessgame.notation.NotationCache;
 import io.github.wolfraam.chessgame.notation.NotationHelper;
 import io.github.wolfraam.chessgame.notation.NotationMapping;
 import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.notation.uci.UciParser;
 import io.github.wolfraam.chessgame.opening.ChessOpening;
 import io.github.wolfraam.chessgame.opening.ChessOpeningHelper;
 import io.github.wolfraam.chessgame.pgn.PGNData;
@@ -19,7 +25,18 @@ import io.github.wolfraam.chessgame.pgn.PGNTag;
 import io.github.wolfraam.chessgame.result.ChessGameResult;
 import io.github.wolfraam.chessgame.result.ChessGameResultType;
 import io.github.wolfraam.chessgame.result.DrawType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,15 +45,40 @@ import java.util.StringTokenizer;
 
 /**
  * A Chess Game.
+ * <p>
+ * A chess game is serialized in the compact form of {@link #toBytes()}: the initial position, the moves and the PGN
+ * data. The board is rebuilt by playing the moves again when the game is deserialized.
  */
 public class ChessGame implements Serializable, Cloneable {
 
     private static final String DEFAULT_LANGUAGE_CODE = "en";
     private static final NotationMapping DEFAULT_NOTATION_MAPPING = LanguageSettings.getNotationMapping(DEFAULT_LANGUAGE_CODE);
     public static final String STANDARD_INITIAL_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final UciParser UCI_PARSER = new UciParser();
+
+    /**
+     * @return the chess game of the bytes of {@link #toBytes()}. The moves are played without checking whether they are
+     * legal.
+     * @throws IllegalArgumentException when the bytes are not a chess game
+     */
+    public static ChessGame fromBytes(final byte[] bytes) {
+        try {
+            final DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(bytes));
+            final ChessGame chessGame = GameCodec.read(dataInputStream);
+            if (dataInputStream.available() != 0) {
+                throw new IOException(dataInputStream.available() + " bytes after the chess game");
+            }
+            return chessGame;
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Invalid chess game bytes", e);
+        }
+    }
+
     private final Board board;
     private final MoveHelper moveHelper;
-    private final List<Move> moves = new LinkedList<>();
+    private final List<Move> moves = new ArrayList<>();
+    private transient NotationCache notationCache;
+    private transient NotationHelper notationHelper;
     private final PGNData pgnData = new PGNData();
 
     /**
@@ -70,9 +112,29 @@ public class ChessGame implements Serializable, Cloneable {
         final ChessGame chessGame = new ChessGame(board.clone());
         chessGame.moves.addAll(moves);
         chessGame.pgnData.copyFrom(pgnData);
+        if (notationCache != null) {
+            chessGame.notationCache = notationCache.clone();
+        }
         return chessGame;
     }
 
+    /**
+     * @return the number of legal moves for the current position, the moves themselves are not created.
+     */
+    public int countLegalMoves() {
+        return moveHelper.countLegalMoves();
+    }
+
+    /**
+     * @return the description of the legal move in the current position. The capture, the disambiguation and the
+     * check or mate after the move are computed once, after which the notation in every notation type and language is
+     * rendered by the description without analysing the position again.
+     * @throws IllegalMoveException if the move is illegal
+     */
+    public MoveDescription describeMove(final Move move) {
+        return getNotationHelper().describeMove(board, move);
+    }
+
     /**
      * @return an ascii representation of the board
      */
@@ -91,10 +153,9 @@ public class ChessGame implements Serializable, Cloneable {
      * @return a list of all captured pieces in the order in which they were captured.
      */
     public List<Piece> getCapturedPieces() {
-        final List<Piece> capturedPieces = new LinkedList<>();
-        final ChessGame replayChessGame = new ChessGame(getInitialFen());
-        for (final Move move : moves) {
-            final Piece capturedPiece = replayChessGame.playMove(move);
+        final List<Piece> capturedPieces = new ArrayList<>();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            final Piece capturedPiece = board.getCapturedPiece(ply);
             if (capturedPiece != null) {
                 capturedPieces.add(capturedPiece);
             }
@@ -109,6 +170,21 @@ public class ChessGame implements Serializable, Cloneable {
         return new ChessOpeningHelper().getChessOpening(this);
     }
 
+    /**
+     * @return a cursor which can be moved to any ply of the played moves, with the default snapshot interval.
+     */
+    public GameCursor getCursor() {
+        return new GameCursor(this);
+    }
+
+    /**
+     * @return a cursor which can be moved to any ply of the played moves. It keeps a snapshot of the position every
+     * snapshotInterval plies.
+     */
+    public GameCursor getCursor(final int snapshotInterval) {
+        return new GameCursor(this, snapshotInterval);
+    }
+
     /**
      * @return the current board in FEN notation (Forsyth-Edwards Notation)
      */
@@ -189,6 +265,14 @@ public class ChessGame implements Serializable, Cloneable {
         return moveHelper.getLegalMoves();
     }
 
+    /**
+     * Passes all legal moves for the current position to the consumer, without creating a set. Pass a reusable
+     * MoveList to collect the moves without garbage.
+     */
+    public void getLegalMoves(final MoveConsumer moveConsumer) {
+        moveHelper.getLegalMoves(moveConsumer);
+    }
+
     /**
      * @return all legal moves for the piece on the square.
      */
@@ -210,7 +294,7 @@ public class ChessGame implements Serializable, Cloneable {
      */
     public Move getMove(final NotationType notationType, final String languageCode, final String move) throws IllegalMoveException {
         final NotationMapping notationMapping = getNotationMapping(languageCode);
-        return new NotationHelper().getMove(notationMapping, board, notationType, move);
+        return getNotationHelper().getMove(notationMapping, board, notationType, move);
     }
 
     /**
@@ -232,7 +316,7 @@ public class ChessGame implements Serializable, Cloneable {
      */
     public String getNotation(final NotationType notationType, final String languageCode, final Move move) {
         final NotationMapping notationMapping = getNotationMapping(languageCode);
-        return new NotationHelper().getMoveNotation(notationMapping, board, notationType, move);
+        return getNotationHelper().getMoveNotation(notationMapping, board, notationType, move);
     }
 
     /**
@@ -243,18 +327,33 @@ public class ChessGame implements Serializable, Cloneable {
     }
 
     /**
-     * @return all played moves of this game in the given notationType and language
+     * @return all played moves of this game in the given notationType and language. The notations are cached per ply,
+     * so only the notations which were not requested before are computed.
      */
     public List<String> getNotationList(final NotationType notationType, final String languageCode) {
-        final List<String> list = new LinkedList<>();
         final NotationMapping notationMapping = getNotationMapping(languageCode);
-        final ChessGame replayChessGame = new ChessGame(getInitialFen());
-        final NotationHelper notationHelper = new NotationHelper();
-        for (final Move move : moves) {
-            list.add(notationHelper.getMoveNotation(notationMapping, replayChessGame.board, notationType, move));
-            replayChessGame.playMove(move);
+        final NotationCache notationCache = getNotationCache();
+        final String[] notations = new String[moves.size()];
+        int firstMissingPly = moves.size();
+        for (int ply = moves.size() - 1; ply >= 0; ply--) {
+            notations[ply] = notationCache.get(notationType, notationMapping, ply);
+            if (notations[ply] == null) {
+                firstMissingPly = ply;
+            }
         }
-        return list;
+        if (firstMissingPly < moves.size()) {
+            final NotationHelper notationHelper = getNotationHelper();
+            // Takes back the moves on a copy of the board, each notation needs the position before its move
+            final Board undoBoard = board.clone();
+            for (int ply = moves.size() - 1; ply >= firstMissingPly; ply--) {
+                undoBoard.unmakeMove();
+                if (notations[ply] == null) {
+                    notations[ply] = notationHelper.getMoveNotation(notationMapping, undoBoard, notationType, moves.get(ply));
+                    notationCache.put(notationType, notationMapping, ply, notations[ply]);
+                }
+            }
+        }
+        return new ArrayList<>(Arrays.asList(notations));
     }
 
     /**
@@ -278,6 +377,14 @@ public class ChessGame implements Serializable, Cloneable {
         return board.getPiece(square);
     }
 
+    /**
+     * @return the 64-bit Zobrist hash of the current position. Positions with the same pieces, side to move, castling
+     * rights and en passant target have the same hash.
+     */
+    public long getPositionHash() {
+        return board.getHashKey();
+    }
+
     /**
      * The current score. Returns a positive integer when white has captured more, negative when black has captured more
      * and 0 when black and white have captured the same. pawn = 1, knight = 3, bishop = 3, rook = 5, queen = 9
@@ -348,15 +455,9 @@ public class ChessGame implements Serializable, Cloneable {
      * @return a new chess game which a subset of the moves of this game.
      */
     public ChessGame getSubset(final int moveCount) {
-        final ChessGame chessGame = new ChessGame(getInitialFen());
-        int i = 0;
-        for (final Move move : getMoves()) {
-            if (i >= moveCount) {
-                break;
-            }
-            chessGame.playMove(move);
-            i++;
-        }
+        final ChessGame chessGame = new ChessGame(board.clone());
+        chessGame.moves.addAll(moves);
+        chessGame.undoMoves(moves.size() - Math.min(Math.max(moveCount, 0), moves.size()));
         return chessGame;
     }
 
@@ -378,7 +479,7 @@ public class ChessGame implements Serializable, Cloneable {
      * @return plays the move. Does NOT check whether the move is legal.
      */
     public Piece playMove(final Move move) {
-        final Piece capturedPiece = board.playMove(move.from, move.to, move.promotion, true);
+        final Piece capturedPiece = board.makeMove(move);
         moves.add(move);
         return capturedPiece;
     }
@@ -392,13 +493,45 @@ public class ChessGame implements Serializable, Cloneable {
         playMove(notationType, DEFAULT_LANGUAGE_CODE, move);
     }
 
+    /**
+     * Plays the move given in the notation type of the length at the offset of the char sequence, so that a token of a
+     * larger text, like a PGN file, needs no string of its own. The notation of the move is not cached, it is computed
+     * when it is requested.
+     *
+     * @throws IllegalMoveException if the notation is not correct
+     */
+    public void playMove(final NotationType notationType, final CharSequence charSequence, final int offset, final int length) throws IllegalMoveException {
+        final Move move = getNotationHelper().getMove(DEFAULT_NOTATION_MAPPING, board, notationType, charSequence, offset, length);
+        if (notationType == NotationType.UCI && !moveHelper.isLegalMove(move)) {
+            throw new IllegalMoveException("Move " + move + " is illegal");
+        }
+        playMove(move);
+    }
+
     /**
      * Plays the move given in the language and notation type.
      *
      * @throws IllegalMoveException if the notation is not correct
      */
     public void playMove(final NotationType notationType, final String languageCode, final String move) throws IllegalMoveException {
-        playMove(getMove(notationType, languageCode, move));
+        final NotationMapping notationMapping = getNotationMapping(languageCode);
+        final NotationHelper notationHelper = getNotationHelper();
+        final Move parsedMove = notationHelper.getMove(notationMapping, board, notationType, move);
+        if (notationType != NotationType.SAN) {
+            if (notationType == NotationType.UCI && !moveHelper.isLegalMove(parsedMove)) {
+                throw new IllegalMoveException("Move " + parsedMove + " is illegal");
+            }
+            playMove(parsedMove);
+            return;
+        }
+        // The SAN is cached while the move is played, the parser has already validated the move
+        final StringBuilder stringBuilder = new StringBuilder(move.length() + 1);
+        notationHelper.appendSanNotation(notationMapping, board, parsedMove, stringBuilder);
+        playMove(parsedMove);
+        notationHelper.appendKingState(moveHelper.getKingState(board.getSideToMove(), true), stringBuilder);
+        // The token is kept when it is the canonical notation, which is usually the case for imported games
+        getNotationCache().put(NotationType.SAN, notationMapping, moves.size() - 1,
+                move.contentEquals(stringBuilder) ? move : stringBuilder.toString());
     }
 
     /**
@@ -441,6 +574,101 @@ public class ChessGame implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Plays the move in UCI notation when it is legal, for engines and servers which receive many moves. The notation
+     * is parsed and checked for legality without creating objects and without throwing exceptions.
+     *
+     * @return PLAYED, or the reason why the move was not played
+     */
+    public MoveStatus tryPlayUci(final CharSequence uci) {
+        return tryPlayUci(uci, 0, uci.length());
+    }
+
+    /**
+     * Plays the move in UCI notation of the length at the offset of the char sequence when it is legal, see
+     * {@link #tryPlayUci(CharSequence)}.
+     *
+     * @return PLAYED, or the reason why the move was not played
+     */
+    public MoveStatus tryPlayUci(final CharSequence charSequence, final int offset, final int length) {
+        final int encoding = UCI_PARSER.parse(charSequence, offset, length);
+        if (encoding == UciParser.NO_MOVE) {
+            return MoveStatus.INVALID_NOTATION;
+        }
+        final Move move = Move.decode(encoding);
+        if (!moveHelper.isLegalMove(move)) {
+            return MoveStatus.ILLEGAL_MOVE;
+        }
+        playMove(move);
+        return MoveStatus.PLAYED;
+    }
+
+    /**
+     * Takes back the last played move.
+     *
+     * @return the move which was taken back
+     * @throws IllegalStateException when no moves have been played
+     */
+    public Move undoMove() {
+        if (moves.isEmpty()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        board.unmakeMove();
+        if (notationCache != null) {
+            notationCache.truncate(moves.size() - 1);
+        }
+        return moves.remove(moves.size() - 1);
+    }
+
+    /**
+     * Takes back the last played moves.
+     *
+     * @throws IllegalArgumentException when the count is negative or more than the number of played moves
+     */
+    public void undoMoves(final int count) {
+        if (count < 0 || moves.size() < count) {
+            throw new IllegalArgumentException("Can't undo " + count + " of " + moves.size() + " moves");
+        }
+        for (int i = 0; i < count; i++) {
+            undoMove();
+        }
+    }
+
+    /**
+     * @return the initial position, the moves and the PGN data of the game in a compact binary form, typically
+     * about 2 bytes per move plus the tag values. See {@link GameCodec} for the layout.
+     */
+    public byte[] toBytes() {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(16 + 2 * moves.size());
+        try {
+            GameCodec.write(this, new DataOutputStream(byteArrayOutputStream));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Appends the current board in FEN notation to the appendable.
+     */
+    public void writeFen(final Appendable appendable) throws IOException {
+        board.writeFen(appendable);
+    }
+
+    private NotationCache getNotationCache() {
+        if (notationCache == null) {
+            notationCache = new NotationCache();
+        }
+        return notationCache;
+    }
+
+    private NotationHelper getNotationHelper() {
+        if (notationHelper == null) {
+            notationHelper = new NotationHelper();
+        }
+        return notationHelper;
+    }
+
     private NotationMapping getNotationMapping(final String languageCode) {
         if (languageCode.equals(DEFAULT_LANGUAGE_CODE)) {
             return DEFAULT_NOTATION_MAPPING;
@@ -460,4 +688,39 @@ public class ChessGame implements Serializable, Cloneable {
         }
         return list;
     }
+
+    private Object writeReplace() {
+        return new SerializedChessGame(toBytes());
+    }
+
+    /**
+     * The serialized form of a chess game, the bytes of {@link #toBytes()}.
+     */
+    private static class SerializedChessGame implements Externalizable {
+        private static final long serialVersionUID = 1L;
+        private byte[] bytes;
+
+        public SerializedChessGame() {
+        }
+
+        SerializedChessGame(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void readExternal(final ObjectInput objectInput) throws IOException {
+            bytes = new byte[objectInput.readInt()];
+            objectInput.readFully(bytes);
+        }
+
+        @Override
+        public void writeExternal(final ObjectOutput objectOutput) throws IOException {
+            objectOutput.writeInt(bytes.length);
+            objectOutput.write(bytes);
+        }
+
+        private Object readResolve() {
+            return fromBytes(bytes);
+        }
+    }
 }
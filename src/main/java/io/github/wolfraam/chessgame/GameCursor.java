@@ -0,0 +1,181 @@
+package io.github.wolfraam.chessgame;
+
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.Move;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A cursor which can be moved to any ply of a chess game, for example to scrub through a game in a viewer.
+ * <p>
+ * The cursor keeps a compact snapshot of the position every snapshot interval plies, of
+ * {@value Board#SNAPSHOT_SIZE} longs. A seek restores the nearest snapshot before the ply into the board of the cursor
+ * and plays only the moves after it, or steps from the current ply when that is cheaper. A smaller interval uses more
+ * memory and gives faster seeks. The cursor works on the moves the game had when the cursor was
+ * created and starts at the last ply.
+ */
+public class GameCursor {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+    // The ply of the snapshot the board was restored from, the moves before it can't be taken back
+    private int basePly;
+    private final Board board;
+    private final int[] moves;
+    private int ply;
+    private final int snapshotInterval;
+    // The snapshots of the positions, see Board.writeSnapshot
+    private final long[] snapshots;
+
+    /**
+     * Constructs a cursor with the default snapshot interval.
+     */
+    public GameCursor(final ChessGame chessGame) {
+        this(chessGame, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Constructs a cursor which keeps a snapshot of the position every snapshotInterval plies.
+     */
+    public GameCursor(final ChessGame chessGame, final int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("The snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.snapshotInterval = snapshotInterval;
+        final List<Move> gameMoves = chessGame.getMoves();
+        moves = new int[gameMoves.size()];
+        snapshots = new long[(moves.length / snapshotInterval + 1) * Board.SNAPSHOT_SIZE];
+        board = Board.fromFen(chessGame.getInitialFen());
+        for (int i = 0; i < moves.length; i++) {
+            if (i % snapshotInterval == 0) {
+                board.writeSnapshot(snapshots, i / snapshotInterval * Board.SNAPSHOT_SIZE);
+            }
+            moves[i] = gameMoves.get(i).encoding;
+            board.makeMove(gameMoves.get(i));
+        }
+        if (moves.length % snapshotInterval == 0) {
+            board.writeSnapshot(snapshots, moves.length / snapshotInterval * Board.SNAPSHOT_SIZE);
+        }
+        ply = moves.length;
+    }
+
+    /**
+     * @return the position of the current ply in FEN notation
+     */
+    public String getFen() {
+        return board.getFen();
+    }
+
+    /**
+     * @return the move which was played to reach the current ply, or null at ply 0
+     */
+    public Move getMove() {
+        return ply == 0 ? null : Move.decode(moves[ply - 1]);
+    }
+
+    /**
+     * @return the piece on the square in the position of the current ply
+     */
+    public Piece getPiece(final Square square) {
+        return board.getPiece(square);
+    }
+
+    /**
+     * @return the current ply, 0 is the initial position of the game
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return the number of moves of the game, which is the last ply
+     */
+    public int getPlyCount() {
+        return moves.length;
+    }
+
+    /**
+     * @return the 64-bit Zobrist hash of the position of the current ply
+     */
+    public long getPositionHash() {
+        return board.getHashKey();
+    }
+
+    /**
+     * @return the side to move in the position of the current ply
+     */
+    public Side getSideToMove() {
+        return board.getSideToMove();
+    }
+
+    /**
+     * Moves to the next ply.
+     *
+     * @return false when the cursor is at the last ply
+     */
+    public boolean next() {
+        if (ply == moves.length) {
+            return false;
+        }
+        board.makeMove(Move.decode(moves[ply]));
+        ply++;
+        return true;
+    }
+
+    /**
+     * Moves to the previous ply.
+     *
+     * @return false when the cursor is at ply 0
+     */
+    public boolean previous() {
+        if (ply == 0) {
+            return false;
+        }
+        seek(ply - 1);
+        return true;
+    }
+
+    /**
+     * Moves to the ply.
+     *
+     * @throws IndexOutOfBoundsException when the ply is negative or after the last ply
+     */
+    public void seek(final int targetPly) {
+        if (targetPly < 0 || moves.length < targetPly) {
+            throw new IndexOutOfBoundsException("Ply " + targetPly + " is not between 0 and " + moves.length);
+        }
+        final int snapshotPly = targetPly / snapshotInterval * snapshotInterval;
+        if (targetPly < ply) {
+            if (basePly <= targetPly && ply - targetPly <= targetPly - snapshotPly) {
+                while (targetPly < ply) {
+                    board.unmakeMove();
+                    ply--;
+                }
+                return;
+            }
+            restore(snapshotPly);
+        } else if (ply < snapshotPly) {
+            restore(snapshotPly);
+        }
+        while (ply < targetPly) {
+            board.makeMove(Move.decode(moves[ply]));
+            ply++;
+        }
+    }
+
+    /**
+     * Appends the position of the current ply in FEN notation to the appendable.
+     */
+    public void writeFen(final Appendable appendable) throws IOException {
+        board.writeFen(appendable);
+    }
+
+    private void restore(final int snapshotPly) {
+        board.restoreSnapshot(snapshots, snapshotPly / snapshotInterval * Board.SNAPSHOT_SIZE);
+        basePly = snapshotPly;
+        ply = snapshotPly;
+    }
+}
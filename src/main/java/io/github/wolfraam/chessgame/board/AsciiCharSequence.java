@@ -0,0 +1,44 @@
+package io.github.wolfraam.chessgame.board;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A view of a range of ASCII bytes as a char sequence, without copying the bytes.
+ */
+class AsciiCharSequence implements CharSequence {
+    private final byte[] bytes;
+    private final int length;
+    private final int offset;
+
+    AsciiCharSequence(final byte[] bytes, final int offset, final int length) {
+        if (offset < 0 || length < 0 || bytes.length - length < offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for length " + bytes.length);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || length <= index) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return new AsciiCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.wolfraam.chessgame.board;
+
+import java.util.Set;
+
+/**
+ * Helper methods for bitboards. A bitboard is a long in which bit n is set when the square with ordinal n is part of
+ * the set.
+ */
+public class Bitboard {
+
+    public static final long EMPTY = 0L;
+
+    /**
+     * @return whether the square is part of the bitboard
+     */
+    public static boolean contains(final long bitboard, final Square square) {
+        return (bitboard & square.bitboard) != 0;
+    }
+
+    /**
+     * @return the bitboard of the squares on the file, 0 is the a-file
+     */
+    public static long file(final int x) {
+        return 0xFFL << (x * 8);
+    }
+
+    /**
+     * @return the square with the lowest index in the bitboard, or null if the bitboard is empty
+     */
+    public static Square first(final long bitboard) {
+        if (bitboard == EMPTY) {
+            return null;
+        }
+        return Square.fromIndex(Long.numberOfTrailingZeros(bitboard));
+    }
+
+    /**
+     * @return the bitboard of the squares on the rank, 0 is the first rank
+     */
+    public static long rank(final int y) {
+        return 0x0101010101010101L << y;
+    }
+
+    /**
+     * @return a read only set view of the squares of the bitboard
+     */
+    public static Set<Square> toSet(final long bitboard) {
+        return new SquareSet(() -> bitboard);
+    }
+
+    private Bitboard() {
+    }
+}
@@ -1,10 +1,11 @@
 package io.github.wolfraam.chessgame.board;
 
+import io.github.wolfraam.chessgame.move.Move;
 import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -13,58 +14,109 @@ import java.util.function.Supplier;
  */
 public class Board implements Serializable, Cloneable {
 
+    // Long enough for any FEN with counters below 10^9
+    /**
+     * The number of longs of a snapshot of the position: the bitboards of the pieces, the hash key, the side to move
+     * with the castling rights and the en passant target, and the clocks.
+     */
+    public static final int SNAPSHOT_SIZE = 15;
+
+    private static final int FEN_BUFFER_SIZE = 128;
+    private static final int INITIAL_UNDO_CAPACITY = 16;
+    private static final int UNDO_EN_PASSANT_FLAG = 1 << 15;
+    private static final Piece[] PIECES = Piece.values();
+    // The castling bits which remain after a move from or to the square
+    private static final int[] SQUARE_2_REMAINING_CASTLING_BITS = new int[64];
+
+    static {
+        Arrays.fill(SQUARE_2_REMAINING_CASTLING_BITS, ~0);
+        for (final CastleMoveType castleMoveType : CastleMoveType.values()) {
+            SQUARE_2_REMAINING_CASTLING_BITS[castleMoveType.kingFrom.ordinal()] &= ~castlingBit(castleMoveType);
+            SQUARE_2_REMAINING_CASTLING_BITS[castleMoveType.rookFrom.ordinal()] &= ~castlingBit(castleMoveType);
+        }
+    }
+
+    /**
+     * Parses the FEN of the position from the ASCII bytes in the range.
+     */
+    public static Board fromFen(final byte[] bytes, final int offset, final int length) {
+        return fromFen(new AsciiCharSequence(bytes, offset, length));
+    }
+
+    /**
+     * Parses the FEN of the position, see {@link #fromFen(CharSequence)}.
+     */
     public static Board fromFen(final String fen) {
+        return fromFen((CharSequence) fen);
+    }
+
+    /**
+     * Parses the FEN of the position in a single pass, without creating intermediate strings.
+     */
+    public static Board fromFen(final CharSequence fen) {
         final Board board = new Board(new BoardData());
-        final String[] fenParts = fen.split(" ");
-        if (fenParts.length != 6) {
-            throw new IllegalArgumentException("Invalid fen");
-        }
+        final int length = fen.length();
 
+        int index = 0;
         int squareIndex = 0;
-        for (final char c : fenParts[0].toCharArray()) {
-            if (c != '/') {
-                if (Character.isDigit(c)) {
-                    squareIndex += Integer.parseInt(String.valueOf(c));
-                } else {
-                    final Square square = Square.FEN_SQUARE_LIST.get(squareIndex);
-                    board.boardData.putPieceOnSquare(square, Piece.fromFenNotation(c));
-                    squareIndex++;
+        for (; index < length && fen.charAt(index) != ' '; index++) {
+            final char c = fen.charAt(index);
+            if ('0' <= c && c <= '9') {
+                squareIndex += c - '0';
+            } else if (c != '/') {
+                if (64 <= squareIndex) {
+                    throw invalidFen();
                 }
+                board.boardData.putPieceOnSquare(Square.FEN_SQUARE_LIST.get(squareIndex), Piece.fromFenNotation(c));
+                squareIndex++;
             }
         }
+        // A pawn can't stand on the first or the last rank
+        if (((board.getBitboard(Piece.WHITE_PAWN) | board.getBitboard(Piece.BLACK_PAWN)) & (Bitboard.rank(0) | Bitboard.rank(7))) != Bitboard.EMPTY) {
+            throw invalidFen();
+        }
 
-        board.sideToMove = "w".equals(fenParts[1]) ? Side.WHITE : Side.BLACK;
+        index = skipSeparator(fen, index);
+        final int sideEnd = getFieldEnd(fen, index);
+        board.sideToMove = sideEnd == index + 1 && fen.charAt(index) == 'w' ? Side.WHITE : Side.BLACK;
 
-        if (fenParts[2].contains("k")
-                && board.boardData.getPiece(Square.E8) == Piece.BLACK_KING
-                && board.boardData.getPiece(Square.H8) == Piece.BLACK_ROOK) {
-            board.allowedCastleMoveTypes.add(CastleMoveType.BLACK_KING_SIDE);
-        }
-        if (fenParts[2].contains("q")
-                && board.boardData.getPiece(Square.E8) == Piece.BLACK_KING
-                && board.boardData.getPiece(Square.A8) == Piece.BLACK_ROOK) {
-            board.allowedCastleMoveTypes.add(CastleMoveType.BLACK_QUEEN_SIDE);
-        }
-        if (fenParts[2].contains("K")
-                && board.boardData.getPiece(Square.E1) == Piece.WHITE_KING
-                && board.boardData.getPiece(Square.H1) == Piece.WHITE_ROOK) {
-            board.allowedCastleMoveTypes.add(CastleMoveType.WHITE_KING_SIDE);
-        }
-        if (fenParts[2].contains("Q")
-                && board.boardData.getPiece(Square.E1) == Piece.WHITE_KING
-                && board.boardData.getPiece(Square.A1) == Piece.WHITE_ROOK) {
-            board.allowedCastleMoveTypes.add(CastleMoveType.WHITE_QUEEN_SIDE);
+        index = skipSeparator(fen, sideEnd);
+        for (; index < length && fen.charAt(index) != ' '; index++) {
+            switch (fen.charAt(index)) {
+                case 'k' -> board.addCastlingBit(CastleMoveType.BLACK_KING_SIDE);
+                case 'q' -> board.addCastlingBit(CastleMoveType.BLACK_QUEEN_SIDE);
+                case 'K' -> board.addCastlingBit(CastleMoveType.WHITE_KING_SIDE);
+                case 'Q' -> board.addCastlingBit(CastleMoveType.WHITE_QUEEN_SIDE);
+                default -> {
+                }
+            }
         }
 
-        if (!fenParts[3].equals("-")) {
-            board.enPassantTarget = Square.fromName(fenParts[3]);
+        index = skipSeparator(fen, index);
+        final int enPassantEnd = getFieldEnd(fen, index);
+        if (enPassantEnd == index + 2) {
+            final int x = fen.charAt(index) - 'a';
+            final int y = fen.charAt(index + 1) - '1';
+            if (0 <= x && x < 8 && 0 <= y && y < 8) {
+                board.enPassantTarget = Square.fromCoordinates(x, y);
+            }
         }
 
-        board.halfMoveCount = Integer.parseInt(fenParts[4]);
-        board.fullMoveCount = Integer.parseInt(fenParts[5]);
-        board.initialFen = board.getFen();
+        index = skipSeparator(fen, enPassantEnd);
+        final int halfMoveCountEnd = getFieldEnd(fen, index);
+        board.halfMoveCount = parseNumber(fen, index, halfMoveCountEnd);
+
+        index = skipSeparator(fen, halfMoveCountEnd);
+        final int fullMoveCountEnd = getFieldEnd(fen, index);
+        board.fullMoveCount = parseNumber(fen, index, fullMoveCountEnd);
+
+        for (index = fullMoveCountEnd; index < length; index++) {
+            if (fen.charAt(index) != ' ') {
+                throw invalidFen();
+            }
+        }
 
-        board.updateHistory();
+        board.hashKey = board.computeHashKey();
         return board;
     }
 
@@ -108,46 +160,132 @@ public class Board implements Serializable, Cloneable {
         board.boardData.putPieceOnSquare(Square.H7, Piece.BLACK_PAWN);
 
         board.sideToMove = Side.WHITE;
-        board.allowedCastleMoveTypes.addAll(EnumSet.allOf(CastleMoveType.class));
+        for (final CastleMoveType castleMoveType : CastleMoveType.values()) {
+            board.castlingBits |= castlingBit(castleMoveType);
+        }
 
         board.halfMoveCount = 0;
         board.fullMoveCount = 1;
-        board.initialFen = board.getFen();
+        board.hashKey = board.computeHashKey();
 
-        board.updateHistory();
+        return board;
+    }
 
+    /**
+     * Creates a board from the fields of a decoded position, see {@link PositionCodec}. Castling rights without the
+     * king and the rook on their squares are dropped, like when parsing a FEN.
+     */
+    static Board fromPosition(final BoardData boardData, final Side sideToMove, final int castlingBits, final Square enPassantTarget,
+                              final int halfMoveCount, final int fullMoveCount) {
+        final Board board = new Board(boardData);
+        board.sideToMove = sideToMove;
+        for (final CastleMoveType castleMoveType : CastleMoveType.values()) {
+            if ((castlingBits & castlingBit(castleMoveType)) != 0) {
+                board.addCastlingBit(castleMoveType);
+            }
+        }
+        board.enPassantTarget = enPassantTarget;
+        board.halfMoveCount = halfMoveCount;
+        board.fullMoveCount = fullMoveCount;
+        board.hashKey = board.computeHashKey();
         return board;
     }
 
-    private final EnumSet<CastleMoveType> allowedCastleMoveTypes = EnumSet.noneOf(CastleMoveType.class);
+    private static int castlingBit(final CastleMoveType castleMoveType) {
+        return 1 << castleMoveType.ordinal();
+    }
+
+    private static int getFieldEnd(final CharSequence fen, final int start) {
+        int index = start;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static IllegalArgumentException invalidFen() {
+        return new IllegalArgumentException("Invalid fen");
+    }
+
+    private static int parseNumber(final CharSequence fen, final int start, final int end) {
+        if (start == end || 9 < end - start) {
+            throw invalidFen();
+        }
+        int number = 0;
+        for (int index = start; index < end; index++) {
+            final char c = fen.charAt(index);
+            if (c < '0' || '9' < c) {
+                throw invalidFen();
+            }
+            number = number * 10 + c - '0';
+        }
+        return number;
+    }
+
+    private static int skipSeparator(final CharSequence fen, final int index) {
+        if (fen.length() <= index || fen.charAt(index) != ' ') {
+            throw invalidFen();
+        }
+        return index + 1;
+    }
+
     private final BoardData boardData;
+    // A bit for each allowed CastleMoveType, by ordinal
+    private int castlingBits;
     private Square enPassantTarget;
-    private final Map<String, Integer> fen2Repetitions = new HashMap<>();
+    // The FEN of the current position, cleared by every move
+    private transient String fen;
+    private transient char[] fenBuffer;
     private int fullMoveCount;
     private int halfMoveCount;
+    private long hashKey;
+    // Set when the first move is made, before that the current FEN is the initial FEN
     private String initialFen;
     private Side sideToMove;
 
+    // The undo stack, with an entry for every move made: the move, the captured piece, the castling bits,
+    // the en passant target, the half move count and the hash key before the move.
+    private int[] undoHalfMoveCounts = new int[INITIAL_UNDO_CAPACITY];
+    private long[] undoHashKeys = new long[INITIAL_UNDO_CAPACITY];
+    private int[] undoMoves = new int[INITIAL_UNDO_CAPACITY];
+    private int undoSize;
+    private int[] undoStates = new int[INITIAL_UNDO_CAPACITY];
+
     private Board(final BoardData boardData) {
         this.boardData = boardData;
     }
 
     public boolean canCastle(final CastleMoveType castleMoveType) {
-        return allowedCastleMoveTypes.contains(castleMoveType);
+        return (castlingBits & castlingBit(castleMoveType)) != 0;
     }
 
     @Override
     @SuppressWarnings("all")
     public Board clone() {
+        final Board board = clonePosition();
+        board.initialFen = initialFen;
+        board.undoHalfMoveCounts = undoHalfMoveCounts.clone();
+        board.undoHashKeys = undoHashKeys.clone();
+        board.undoMoves = undoMoves.clone();
+        board.undoSize = undoSize;
+        board.undoStates = undoStates.clone();
+
+        return board;
+    }
+
+    /**
+     * Clones the position without the moves which led to it. The clone can't take back moves and does not detect
+     * repetitions of the earlier positions, it is a cheap snapshot.
+     */
+    public Board clonePosition() {
         final Board board = new Board(boardData.clone());
-        board.allowedCastleMoveTypes.addAll(allowedCastleMoveTypes);
+        board.castlingBits = castlingBits;
         board.enPassantTarget = enPassantTarget;
+        board.fen = fen;
         board.fullMoveCount = fullMoveCount;
         board.halfMoveCount = halfMoveCount;
-        board.initialFen = initialFen;
-        board.fen2Repetitions.putAll(fen2Repetitions);
+        board.hashKey = hashKey;
         board.sideToMove = sideToMove;
-
         return board;
     }
 
@@ -167,37 +305,106 @@ public class Board implements Serializable, Cloneable {
         return stringBuilder.toString();
     }
 
+    /**
+     * @return the bitboard of the squares occupied by the piece
+     */
+    public long getBitboard(final Piece piece) {
+        return boardData.getBitboard(piece);
+    }
+
+    /**
+     * @return the piece captured by the move made at the ply, counted from the first move made on this board, or null
+     */
+    public Piece getCapturedPiece(final int ply) {
+        if (ply < 0 || undoSize <= ply) {
+            throw new IndexOutOfBoundsException("Ply " + ply + " out of bounds for " + undoSize + " moves");
+        }
+        final int capturedPieceIndex = undoStates[ply] & 0xF;
+        return capturedPieceIndex == 0 ? null : PIECES[capturedPieceIndex - 1];
+    }
+
+    /**
+     * @return the castling rights, bit n is set when the castle move type with ordinal n is allowed
+     */
+    int getCastlingBits() {
+        return castlingBits;
+    }
+
+    /**
+     * @return the square behind a pawn which has just made a double move, or null
+     */
+    public Square getEnPassantTarget() {
+        return enPassantTarget;
+    }
+
+    /**
+     * @return the FEN of the position. It is cached until the next move.
+     */
     public String getFen() {
-        return getFen(true);
+        if (fen == null) {
+            final char[] buffer = getFenBuffer();
+            fen = new String(buffer, 0, writeFen(buffer));
+        }
+        return fen;
     }
 
     public String getFenSmall() {
-        final StringBuilder stringBuilder = new StringBuilder();
+        final char[] buffer = getFenBuffer();
+        int length = 0;
         int blankCount = 0;
         for (final Square square : Square.FEN_SQUARE_LIST) {
             final Piece piece = boardData.getPiece(square);
             if (piece != null) {
                 if (blankCount != 0) {
-                    stringBuilder.append(blankCount);
+                    length = writeNumber(buffer, length, blankCount);
                     blankCount = 0;
                 }
-                stringBuilder.append(piece.fenCharacter);
+                buffer[length++] = piece.fenCharacter;
             } else {
                 blankCount++;
             }
         }
         if (sideToMove == Side.WHITE) {
-            stringBuilder.append('w');
+            buffer[length++] = 'w';
         }
-        return stringBuilder.toString();
+        return new String(buffer, 0, length);
     }
 
     public int getFullMoveCount() {
         return fullMoveCount;
     }
 
+    /**
+     * @return the number of half moves since the last capture or pawn move, used by the fifty move rule
+     */
+    public int getHalfMoveCount() {
+        return halfMoveCount;
+    }
+
+    /**
+     * @return the Zobrist hash of the position: the pieces, the side to move, the castling rights and the en passant
+     * target. It is updated incrementally with every move.
+     */
+    public long getHashKey() {
+        return hashKey;
+    }
+
     public String getInitialFen() {
-        return initialFen;
+        return initialFen == null ? getFen() : initialFen;
+    }
+
+    /**
+     * @return the bitboard of all occupied squares
+     */
+    public long getOccupancy() {
+        return boardData.getOccupancy();
+    }
+
+    /**
+     * @return the bitboard of the squares occupied by the pieces of the side
+     */
+    public long getOccupancy(final Side side) {
+        return boardData.getOccupancy(side);
     }
 
     public Set<Square> getOccupiedSquares() {
@@ -221,17 +428,17 @@ public class Board implements Serializable, Cloneable {
     }
 
     public boolean isDrawInsufficientMaterial() {
-        if (getSquares(Piece.BLACK_PAWN).isEmpty() &&
-                getSquares(Piece.WHITE_PAWN).isEmpty() &&
-                getSquares(Piece.BLACK_ROOK).isEmpty() &&
-                getSquares(Piece.WHITE_ROOK).isEmpty() &&
-                getSquares(Piece.BLACK_QUEEN).isEmpty() &&
-                getSquares(Piece.WHITE_QUEEN).isEmpty()) {
-            final Set<Square> blackBishopSquares = getSquares(Piece.BLACK_BISHOP);
-            final Set<Square> whiteBishopSquares = getSquares(Piece.WHITE_BISHOP);
-
-            final int blackBishopsAndKnights = blackBishopSquares.size() + getSquares(Piece.BLACK_KNIGHT).size();
-            final int whiteBishopsAndKnights = whiteBishopSquares.size() + getSquares(Piece.WHITE_KNIGHT).size();
+        if ((getBitboard(Piece.BLACK_PAWN) |
+                getBitboard(Piece.WHITE_PAWN) |
+                getBitboard(Piece.BLACK_ROOK) |
+                getBitboard(Piece.WHITE_ROOK) |
+                getBitboard(Piece.BLACK_QUEEN) |
+                getBitboard(Piece.WHITE_QUEEN)) == Bitboard.EMPTY) {
+            final long blackBishopBitboard = getBitboard(Piece.BLACK_BISHOP);
+            final long whiteBishopBitboard = getBitboard(Piece.WHITE_BISHOP);
+
+            final int blackBishopsAndKnights = Long.bitCount(blackBishopBitboard | getBitboard(Piece.BLACK_KNIGHT));
+            final int whiteBishopsAndKnights = Long.bitCount(whiteBishopBitboard | getBitboard(Piece.WHITE_KNIGHT));
 
             if (blackBishopsAndKnights < 2 && whiteBishopsAndKnights < 2) {
                 if (blackBishopsAndKnights == 0 || whiteBishopsAndKnights == 0) {
@@ -240,13 +447,13 @@ public class Board implements Serializable, Cloneable {
                     // king against king and knight
                     return true;
                 } else {
-                    final int blackBishops = blackBishopSquares.size();
-                    final int whiteBishops = whiteBishopSquares.size();
+                    final int blackBishops = Long.bitCount(blackBishopBitboard);
+                    final int whiteBishops = Long.bitCount(whiteBishopBitboard);
 
                     // king and bishop against king and bishop, with both bishops on squares of the same color
                     if (blackBishops == 1 && whiteBishops == 1) {
-                        return blackBishopSquares.iterator().next().squareColor ==
-                                whiteBishopSquares.iterator().next().squareColor;
+                        return Bitboard.first(blackBishopBitboard).squareColor ==
+                                Bitboard.first(whiteBishopBitboard).squareColor;
                     }
                 }
             }
@@ -255,7 +462,15 @@ public class Board implements Serializable, Cloneable {
     }
 
     public boolean isDrawThreefoldRepetition() {
-        return 2 < fen2Repetitions.getOrDefault(getFen(false), 0);
+        // Positions before the last pawn move or capture can't be repeated, so only the positions since then are scanned.
+        int repetitions = 1;
+        final int firstIndex = Math.max(0, undoSize - halfMoveCount);
+        for (int i = undoSize - 2; i >= firstIndex; i -= 2) {
+            if (undoHashKeys[i] == hashKey) {
+                repetitions++;
+            }
+        }
+        return 2 < repetitions;
     }
 
     public boolean isEnPassant(final Square from, final Square to) {
@@ -270,54 +485,62 @@ public class Board implements Serializable, Cloneable {
         return false;
     }
 
-    public Piece playMove(final Square from, final Square to, final PieceType promotion, final boolean updateHistory) {
+    /**
+     * Makes the move and pushes an entry on the undo stack, so the move can be taken back with {@link #unmakeMove()}.
+     * Does NOT check whether the move is legal.
+     *
+     * @return the captured piece or null
+     */
+    public Piece makeMove(final Move move) {
+        if (initialFen == null) {
+            initialFen = getFen();
+        }
+        fen = null;
+        final Square from = move.from;
+        final Square to = move.to;
         final boolean isEnPassant = isEnPassant(from, to);
-
         final Piece piece = boardData.getPiece(from);
-        boardData.removePieceFromSquare(from);
-        Piece capturedPiece = boardData.getPiece(to);
-
+        final Piece capturedPiece;
+        pushUndo(move, isEnPassant);
         if (isEnPassant) {
             final Square capturedPawnSquare = Square.fromCoordinates(to.x, from.y);
             capturedPiece = boardData.getPiece(capturedPawnSquare);
-            boardData.removePieceFromSquare(capturedPawnSquare);
-        } else if (capturedPiece != null) {
-            boardData.removePieceFromSquare(to);
+            removePiece(capturedPawnSquare);
+        } else {
+            capturedPiece = boardData.getPiece(to);
+            if (capturedPiece != null) {
+                removePiece(to);
+            }
         }
 
-        if (promotion != null) {
-            boardData.putPieceOnSquare(to, Piece.fromPieceTypeAndSide(promotion, piece.side));
+        removePiece(from);
+        if (move.promotion != null) {
+            putPiece(to, Piece.fromPieceTypeAndSide(move.promotion, piece.side));
         } else {
-            boardData.putPieceOnSquare(to, piece);
+            putPiece(to, piece);
         }
 
         final CastleMoveType castleMoveType = CastleMoveType.determine(from, to, piece);
         if (castleMoveType != null) {
-            final Piece rookPiece = boardData.getPiece(castleMoveType.rookFrom);
-            boardData.removePieceFromSquare(castleMoveType.rookFrom);
-            boardData.putPieceOnSquare(castleMoveType.rookTo, rookPiece);
+            removePiece(castleMoveType.rookFrom);
+            putPiece(castleMoveType.rookTo, castleMoveType.rookPiece);
         }
 
+        hashKey ^= ZobristKeys.enPassant(enPassantTarget);
         if (piece.pieceType == PieceType.PAWN && Math.abs(from.y - to.y) == 2) {
             enPassantTarget = Square.fromCoordinates(to.x, to.y + (sideToMove == Side.WHITE ? -1 : 1));
         } else {
             enPassantTarget = null;
         }
+        hashKey ^= ZobristKeys.enPassant(enPassantTarget);
 
-        if ((piece == Piece.WHITE_ROOK && from == Square.A1) || (capturedPiece == Piece.WHITE_ROOK && to == Square.A1) || piece == Piece.WHITE_KING) {
-            allowedCastleMoveTypes.remove(CastleMoveType.WHITE_QUEEN_SIDE);
-        }
-        if ((piece == Piece.WHITE_ROOK && from == Square.H1) || (capturedPiece == Piece.WHITE_ROOK && to == Square.H1) || piece == Piece.WHITE_KING) {
-            allowedCastleMoveTypes.remove(CastleMoveType.WHITE_KING_SIDE);
-        }
-        if ((piece == Piece.BLACK_ROOK && from == Square.A8) || (capturedPiece == Piece.BLACK_ROOK && to == Square.A8) || piece == Piece.BLACK_KING) {
-            allowedCastleMoveTypes.remove(CastleMoveType.BLACK_QUEEN_SIDE);
-        }
-        if ((piece == Piece.BLACK_ROOK && from == Square.H8) || (capturedPiece == Piece.BLACK_ROOK && to == Square.H8) || piece == Piece.BLACK_KING) {
-            allowedCastleMoveTypes.remove(CastleMoveType.BLACK_KING_SIDE);
-        }
+        hashKey ^= ZobristKeys.castling(castlingBits);
+        castlingBits &= SQUARE_2_REMAINING_CASTLING_BITS[from.ordinal()] & SQUARE_2_REMAINING_CASTLING_BITS[to.ordinal()];
+        hashKey ^= ZobristKeys.castling(castlingBits);
 
+        hashKey ^= ZobristKeys.side(sideToMove);
         sideToMove = sideToMove.flip();
+        hashKey ^= ZobristKeys.side(sideToMove);
         if (sideToMove == Side.WHITE) {
             fullMoveCount++;
         }
@@ -327,137 +550,274 @@ public class Board implements Serializable, Cloneable {
             halfMoveCount++;
         }
 
-        if (updateHistory) {
-            if (piece.pieceType == PieceType.PAWN) {
-                fen2Repetitions.clear();
-            }
-            updateHistory();
-        }
-
         return capturedPiece;
     }
 
+    /**
+     * Makes the move, see {@link #makeMove(Move)}. The move is always recorded for the repetition history.
+     *
+     * @return the captured piece or null
+     * @deprecated use {@link #makeMove(Move)}, which can be taken back with {@link #unmakeMove()}
+     */
+    @Deprecated
+    public Piece playMove(final Square from, final Square to, final PieceType promotion, final boolean updateHistory) {
+        return makeMove(Move.of(from, to, promotion));
+    }
+
+    /**
+     * Makes the move, calls the supplier and takes back the move.
+     */
     public <T> T playMoveAndRollBack(final Square from, final Square to, final PieceType promotion, final Supplier<T> supplier) {
+        makeMove(Move.of(from, to, promotion));
+        final T returnValue = supplier.get();
+        unmakeMove();
+        return returnValue;
+    }
 
-        // Store data
-        final EnumSet<CastleMoveType> currentAllowedCastleMoveTypes = allowedCastleMoveTypes.clone();
+    /**
+     * Restores the position of a snapshot which was written by {@link #writeSnapshot}, without allocating. The undo
+     * stack is cleared, so the moves before the snapshot can't be taken back. The initial FEN is kept.
+     */
+    public void restoreSnapshot(final long[] snapshot, final int offset) {
+        if (initialFen == null) {
+            initialFen = getFen();
+        }
+        boardData.setBitboards(snapshot, offset);
+        hashKey = snapshot[offset + PIECES.length];
+        final long state = snapshot[offset + PIECES.length + 1];
+        castlingBits = (int) state & 0xF;
+        sideToMove = (state & 0x10) == 0 ? Side.WHITE : Side.BLACK;
+        final int enPassantIndex = (int) (state >>> 8) & 0xFF;
+        enPassantTarget = enPassantIndex == 0 ? null : Square.fromIndex(enPassantIndex - 1);
+        final long clocks = snapshot[offset + PIECES.length + 2];
+        halfMoveCount = (int) (clocks >>> 32);
+        fullMoveCount = (int) clocks;
+        fen = null;
+        undoSize = 0;
+    }
 
-        final Square currentEnPassantTarget = enPassantTarget;
-        final int currentFullMoveCount = fullMoveCount;
-        final int currenHalfMoveCount = halfMoveCount;
+    public boolean squareIsEmpty(final Square square) {
+        return boardData.getPiece(square) == null;
+    }
 
-        // Play Move
-        final boolean isEnPassant = isEnPassant(from, to);
-        final Piece piece = boardData.getPiece(from);
-        final Piece capturedPiece = playMove(from, to, promotion, false);
+    /**
+     * Takes back the last move made with {@link #makeMove(Move)}.
+     *
+     * @throws IllegalStateException when there is no move to take back
+     */
+    public void unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        undoSize--;
+        fen = null;
+        final int moveEncoding = undoMoves[undoSize];
+        final int state = undoStates[undoSize];
+
+        final Square from = Move.getFrom(moveEncoding);
+        final Square to = Move.getTo(moveEncoding);
+        final boolean isPromotion = Move.getPromotion(moveEncoding) != null;
+        final int capturedPieceIndex = state & 0xF;
+        final Piece capturedPiece = capturedPieceIndex == 0 ? null : PIECES[capturedPieceIndex - 1];
+        final int enPassantIndex = (state >>> 8) & 0x7F;
 
-        // Call supplier
-        final T returnValue = supplier.get();
+        sideToMove = sideToMove.flip();
+        if (sideToMove == Side.BLACK) {
+            fullMoveCount--;
+        }
 
-        // Roll Back
+        final Piece piece = isPromotion ? Piece.fromPieceTypeAndSide(PieceType.PAWN, sideToMove) : boardData.getPiece(to);
         boardData.removePieceFromSquare(to);
         boardData.putPieceOnSquare(from, piece);
-
-        if (isEnPassant) {
-            final Square capturedPawnSquare = Square.fromCoordinates(to.x, from.y);
-            boardData.putPieceOnSquare(capturedPawnSquare, capturedPiece);
-        } else {
-            if (capturedPiece != null) {
+        if (capturedPiece != null) {
+            if ((state & UNDO_EN_PASSANT_FLAG) != 0) {
+                boardData.putPieceOnSquare(Square.fromCoordinates(to.x, from.y), capturedPiece);
+            } else {
                 boardData.putPieceOnSquare(to, capturedPiece);
             }
         }
 
         final CastleMoveType castleMoveType = CastleMoveType.determine(from, to, piece);
         if (castleMoveType != null) {
-            final Piece rookPiece = boardData.getPiece(castleMoveType.rookTo);
             boardData.removePieceFromSquare(castleMoveType.rookTo);
-            boardData.putPieceOnSquare(castleMoveType.rookFrom, rookPiece);
+            boardData.putPieceOnSquare(castleMoveType.rookFrom, castleMoveType.rookPiece);
         }
 
-        sideToMove = sideToMove.flip();
+        castlingBits = (state >>> 4) & 0xF;
+        enPassantTarget = enPassantIndex == 0 ? null : Square.fromIndex(enPassantIndex - 1);
+        halfMoveCount = undoHalfMoveCounts[undoSize];
+        hashKey = undoHashKeys[undoSize];
+    }
 
-        allowedCastleMoveTypes.clear();
-        allowedCastleMoveTypes.addAll(currentAllowedCastleMoveTypes);
-        enPassantTarget = currentEnPassantTarget;
-        fullMoveCount = currentFullMoveCount;
-        halfMoveCount = currenHalfMoveCount;
+    /**
+     * Appends the FEN of the position to the appendable, without creating a string when the FEN is not cached.
+     */
+    public void writeFen(final Appendable appendable) throws IOException {
+        if (fen != null) {
+            appendable.append(fen);
+        } else {
+            final char[] buffer = getFenBuffer();
+            final int length = writeFen(buffer);
+            for (int i = 0; i < length; i++) {
+                appendable.append(buffer[i]);
+            }
+        }
+    }
 
-        return returnValue;
+    /**
+     * Puts the FEN of the position in the byte buffer, as ASCII.
+     */
+    public void writeFen(final ByteBuffer byteBuffer) {
+        if (fen != null) {
+            for (int i = 0; i < fen.length(); i++) {
+                byteBuffer.put((byte) fen.charAt(i));
+            }
+        } else {
+            final char[] buffer = getFenBuffer();
+            final int length = writeFen(buffer);
+            for (int i = 0; i < length; i++) {
+                byteBuffer.put((byte) buffer[i]);
+            }
+        }
     }
 
-    public boolean squareIsEmpty(final Square square) {
-        return boardData.getPiece(square) == null;
+    /**
+     * Writes a snapshot of the position of {@value #SNAPSHOT_SIZE} longs at the offset of the array, which can be
+     * restored by {@link #restoreSnapshot}.
+     */
+    public void writeSnapshot(final long[] snapshot, final int offset) {
+        for (final Piece piece : PIECES) {
+            snapshot[offset + piece.ordinal()] = boardData.getBitboard(piece);
+        }
+        snapshot[offset + PIECES.length] = hashKey;
+        snapshot[offset + PIECES.length + 1] = castlingBits | (sideToMove == Side.BLACK ? 0x10 : 0)
+                | (enPassantTarget == null ? 0 : enPassantTarget.ordinal() + 1) << 8;
+        snapshot[offset + PIECES.length + 2] = (long) halfMoveCount << 32 | fullMoveCount & 0xFFFFFFFFL;
     }
 
-    private String getFen(final boolean includeCounters) {
-        final StringBuilder stringBuilder = new StringBuilder();
+    private void addCastlingBit(final CastleMoveType castleMoveType) {
+        if (boardData.getPiece(castleMoveType.kingFrom) == Piece.fromPieceTypeAndSide(PieceType.KING, castleMoveType.side)
+                && boardData.getPiece(castleMoveType.rookFrom) == castleMoveType.rookPiece) {
+            castlingBits |= castlingBit(castleMoveType);
+        }
+    }
+
+    private long computeHashKey() {
+        long key = ZobristKeys.side(sideToMove) ^ ZobristKeys.castling(castlingBits) ^ ZobristKeys.enPassant(enPassantTarget);
+        for (final Square square : getOccupiedSquares()) {
+            key ^= ZobristKeys.piece(getPiece(square), square);
+        }
+        return key;
+    }
+
+    private char[] getFenBuffer() {
+        if (fenBuffer == null) {
+            fenBuffer = new char[FEN_BUFFER_SIZE];
+        }
+        return fenBuffer;
+    }
+
+    private void pushUndo(final Move move, final boolean isEnPassant) {
+        if (undoSize == undoMoves.length) {
+            final int capacity = undoMoves.length * 2;
+            undoHalfMoveCounts = Arrays.copyOf(undoHalfMoveCounts, capacity);
+            undoHashKeys = Arrays.copyOf(undoHashKeys, capacity);
+            undoMoves = Arrays.copyOf(undoMoves, capacity);
+            undoStates = Arrays.copyOf(undoStates, capacity);
+        }
+        final Piece capturedPiece = isEnPassant
+                ? boardData.getPiece(Square.fromCoordinates(move.to.x, move.from.y))
+                : boardData.getPiece(move.to);
+        undoMoves[undoSize] = move.encoding;
+        undoStates[undoSize] = (capturedPiece == null ? 0 : capturedPiece.ordinal() + 1)
+                | castlingBits << 4
+                | (enPassantTarget == null ? 0 : enPassantTarget.ordinal() + 1) << 8
+                | (isEnPassant ? UNDO_EN_PASSANT_FLAG : 0);
+        undoHalfMoveCounts[undoSize] = halfMoveCount;
+        undoHashKeys[undoSize] = hashKey;
+        undoSize++;
+    }
+
+    private void putPiece(final Square square, final Piece piece) {
+        hashKey ^= ZobristKeys.piece(piece, square);
+        boardData.putPieceOnSquare(square, piece);
+    }
+
+    private void removePiece(final Square square) {
+        hashKey ^= ZobristKeys.piece(boardData.getPiece(square), square);
+        boardData.removePieceFromSquare(square);
+    }
+
+    // Returns the length of the FEN written in the buffer
+    private int writeFen(final char[] buffer) {
+        int length = 0;
         int blankCount = 0;
         for (final Square square : Square.FEN_SQUARE_LIST) {
             final Piece piece = boardData.getPiece(square);
             if (piece != null) {
                 if (blankCount != 0) {
-                    stringBuilder.append(blankCount);
+                    buffer[length++] = (char) ('0' + blankCount);
                     blankCount = 0;
                 }
-                stringBuilder.append(piece.fenCharacter);
+                buffer[length++] = piece.fenCharacter;
             } else {
                 blankCount++;
             }
             if (square.x == 7) {
                 if (blankCount != 0) {
-                    stringBuilder.append(blankCount);
+                    buffer[length++] = (char) ('0' + blankCount);
                     blankCount = 0;
                 }
                 if (square.y != 0) {
-                    stringBuilder.append('/');
+                    buffer[length++] = '/';
                 }
             }
         }
-        stringBuilder.append(' ');
-        if (sideToMove == Side.BLACK) {
-            stringBuilder.append('b');
-        } else if (sideToMove == Side.WHITE) {
-            stringBuilder.append('w');
-        }
+        buffer[length++] = ' ';
+        buffer[length++] = sideToMove == Side.WHITE ? 'w' : 'b';
 
-        stringBuilder.append(' ');
-        if (allowedCastleMoveTypes.contains(CastleMoveType.WHITE_KING_SIDE)) {
-            stringBuilder.append('K');
+        buffer[length++] = ' ';
+        if (canCastle(CastleMoveType.WHITE_KING_SIDE)) {
+            buffer[length++] = 'K';
         }
-        if (allowedCastleMoveTypes.contains(CastleMoveType.WHITE_QUEEN_SIDE)) {
-            stringBuilder.append('Q');
+        if (canCastle(CastleMoveType.WHITE_QUEEN_SIDE)) {
+            buffer[length++] = 'Q';
         }
-        if (allowedCastleMoveTypes.contains(CastleMoveType.BLACK_KING_SIDE)) {
-            stringBuilder.append('k');
+        if (canCastle(CastleMoveType.BLACK_KING_SIDE)) {
+            buffer[length++] = 'k';
         }
-        if (allowedCastleMoveTypes.contains(CastleMoveType.BLACK_QUEEN_SIDE)) {
-            stringBuilder.append('q');
+        if (canCastle(CastleMoveType.BLACK_QUEEN_SIDE)) {
+            buffer[length++] = 'q';
         }
-        if (allowedCastleMoveTypes.isEmpty()) {
-            stringBuilder.append('-');
+        if (castlingBits == 0) {
+            buffer[length++] = '-';
         }
 
-        stringBuilder.append(' ');
-
+        buffer[length++] = ' ';
         if (enPassantTarget == null) {
-            stringBuilder.append('-');
+            buffer[length++] = '-';
         } else {
-            stringBuilder.append(enPassantTarget.name);
+            buffer[length++] = (char) ('a' + enPassantTarget.x);
+            buffer[length++] = (char) ('1' + enPassantTarget.y);
         }
 
-        if (includeCounters) {
-            stringBuilder.append(' ');
-            stringBuilder.append(halfMoveCount);
-
-            stringBuilder.append(' ');
-            stringBuilder.append(fullMoveCount);
-        }
-
-        return stringBuilder.toString();
+        buffer[length++] = ' ';
+        length = writeNumber(buffer, length, halfMoveCount);
+        buffer[length++] = ' ';
+        return writeNumber(buffer, length, fullMoveCount);
     }
 
-    private void updateHistory() {
-        final String fen = getFen(false);
-        fen2Repetitions.compute(fen, (s, integer) -> integer == null ? 1 : integer + 1);
+    // Returns the length after the number is written in the buffer at the offset
+    private int writeNumber(final char[] buffer, final int offset, final int number) {
+        int digits = 1;
+        for (int remaining = number / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        int remaining = number;
+        for (int i = offset + digits - 1; offset <= i; i--) {
+            buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return offset + digits;
     }
 }
@@ -1,57 +1,112 @@
 package io.github.wolfraam.chessgame.board;
 
 import java.io.Serializable;
-import java.util.EnumMap;
-import java.util.EnumSet;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
 
 /**
- * Chess board data, uses two maps for increased performance.
+ * Chess board data, uses a bitboard per piece and an array indexed by square for increased performance.
  */
 public class BoardData implements Serializable, Cloneable {
 
-    private final EnumMap<Piece, EnumSet<Square>> piece2Squares = new EnumMap<>(Piece.class);
-    private final EnumMap<Square, Piece> square2Piece = new EnumMap<>(Square.class);
+    private static final Piece[] PIECES = Piece.values();
+
+    private long blackOccupancy;
+    private final long[] piece2Bitboard = new long[PIECES.length];
+    private final Piece[] square2Piece = new Piece[64];
+    private long whiteOccupancy;
 
     @Override
     @SuppressWarnings("all")
     public BoardData clone() {
         final BoardData boardData = new BoardData();
-        for (final Map.Entry<Square, Piece> entry : square2Piece.entrySet()) {
-            boardData.putPieceOnSquare(entry.getKey(), entry.getValue());
-        }
+        System.arraycopy(piece2Bitboard, 0, boardData.piece2Bitboard, 0, piece2Bitboard.length);
+        System.arraycopy(square2Piece, 0, boardData.square2Piece, 0, square2Piece.length);
+        boardData.whiteOccupancy = whiteOccupancy;
+        boardData.blackOccupancy = blackOccupancy;
         return boardData;
     }
 
+    /**
+     * @return the bitboard of the squares occupied by the piece
+     */
+    public long getBitboard(final Piece piece) {
+        return piece2Bitboard[piece.ordinal()];
+    }
+
+    /**
+     * @return the bitboard of all occupied squares
+     */
+    public long getOccupancy() {
+        return whiteOccupancy | blackOccupancy;
+    }
+
+    /**
+     * @return the bitboard of the squares occupied by the pieces of the side
+     */
+    public long getOccupancy(final Side side) {
+        return side == Side.WHITE ? whiteOccupancy : blackOccupancy;
+    }
+
     public Set<Square> getOccupiedSquares() {
-        return square2Piece.keySet();
+        return new SquareSet(this::getOccupancy);
     }
 
     public Piece getPiece(final Square square) {
-        return square2Piece.get(square);
+        return square2Piece[square.ordinal()];
     }
 
     public Set<Square> getSquares(final Piece piece) {
-        return piece2Squares.computeIfAbsent(piece, k -> EnumSet.noneOf(Square.class));
+        return new SquareSet(() -> piece2Bitboard[piece.ordinal()]);
     }
 
     public void putPieceOnSquare(final Square square, final Piece piece) {
-        final Piece previousPiece;
-        if (piece != null) {
-            previousPiece = square2Piece.put(square, piece);
-        } else {
-            previousPiece = square2Piece.remove(square);
-        }
+        final Piece previousPiece = square2Piece[square.ordinal()];
         if (previousPiece != null) {
-            getSquares(previousPiece).remove(square);
+            removeFromBitboards(square, previousPiece);
         }
+        square2Piece[square.ordinal()] = piece;
         if (piece != null) {
-            getSquares(piece).add(square);
+            piece2Bitboard[piece.ordinal()] |= square.bitboard;
+            if (piece.side == Side.WHITE) {
+                whiteOccupancy |= square.bitboard;
+            } else {
+                blackOccupancy |= square.bitboard;
+            }
         }
     }
 
     public void removePieceFromSquare(final Square square) {
         putPieceOnSquare(square, null);
     }
+
+    /**
+     * Replaces the pieces by the bitboards of the pieces at the offset of the array, by piece ordinal.
+     */
+    void setBitboards(final long[] bitboards, final int offset) {
+        Arrays.fill(square2Piece, null);
+        whiteOccupancy = 0;
+        blackOccupancy = 0;
+        for (final Piece piece : PIECES) {
+            final long bitboard = bitboards[offset + piece.ordinal()];
+            piece2Bitboard[piece.ordinal()] = bitboard;
+            if (piece.side == Side.WHITE) {
+                whiteOccupancy |= bitboard;
+            } else {
+                blackOccupancy |= bitboard;
+            }
+            for (long remaining = bitboard; remaining != Bitboard.EMPTY; remaining &= remaining - 1) {
+                square2Piece[Long.numberOfTrailingZeros(remaining)] = piece;
+            }
+        }
+    }
+
+    private void removeFromBitboards(final Square square, final Piece piece) {
+        piece2Bitboard[piece.ordinal()] &= ~square.bitboard;
+        if (piece.side == Side.WHITE) {
+            whiteOccupancy &= ~square.bitboard;
+        } else {
+            blackOccupancy &= ~square.bitboard;
+        }
+    }
 }
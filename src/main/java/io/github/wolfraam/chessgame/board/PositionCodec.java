@@ -0,0 +1,168 @@
+package io.github.wolfraam.chessgame.board;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes a position in {@value #SIZE} bytes, for use as the key or the value of caches and position stores.
+ * <p>
+ * The layout, independent of the byte order of the buffer:
+ * <ul>
+ * <li>bytes 0-7: the occupied squares as a big-endian bitboard</li>
+ * <li>bytes 8-23: a 4-bit code per occupied square, in the order of the square ordinals and the high nibble first. The
+ * code is the ordinal of the piece, unused nibbles are 0.</li>
+ * <li>byte 24: bit 4 is set when black is to move, bits 0-3 are the castling rights by castle move type ordinal</li>
+ * <li>byte 25: the ordinal of the en passant target plus 1, or 0</li>
+ * <li>bytes 26-27: the half move count as a big-endian unsigned short</li>
+ * <li>bytes 28-31: the full move count as a big-endian int</li>
+ * </ul>
+ * Equal positions with equal clocks have equal bytes, so encoded positions can be compared and hashed without
+ * decoding them. Comparing is lexicographic over the unsigned bytes.
+ */
+public class PositionCodec {
+
+    public static final int SIZE = 32;
+
+    private static final int BLACK_TO_MOVE = 1 << 4;
+    private static final int MAX_HALF_MOVE_COUNT = 0xFFFF;
+    private static final int MAX_PIECE_COUNT = 32;
+    private static final Piece[] PIECES = Piece.values();
+
+    /**
+     * Compares the encoded positions at the positions of the buffers, the positions of the buffers are not changed.
+     */
+    public static int compare(final ByteBuffer buffer1, final ByteBuffer buffer2) {
+        for (int offset = 0; offset < SIZE; offset += Long.BYTES) {
+            final int result = Long.compareUnsigned(getBigEndianLong(buffer1, buffer1.position() + offset),
+                    getBigEndianLong(buffer2, buffer2.position() + offset));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads an encoded position at the position of the buffer and advances the position by {@value #SIZE} bytes.
+     *
+     * @throws IllegalArgumentException when the bytes are not a valid encoded position
+     */
+    public static Board decode(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        final long occupancy = getBigEndianLong(buffer, start);
+        if (MAX_PIECE_COUNT < Long.bitCount(occupancy)) {
+            throw new IllegalArgumentException("More than " + MAX_PIECE_COUNT + " pieces");
+        }
+        final BoardData boardData = new BoardData();
+        long remaining = occupancy;
+        for (int pieceIndex = 0; remaining != Bitboard.EMPTY; pieceIndex++) {
+            final int code = buffer.get(start + 8 + pieceIndex / 2) >>> ((pieceIndex & 1) == 0 ? 4 : 0) & 0xF;
+            if (PIECES.length <= code) {
+                throw new IllegalArgumentException("Invalid piece code " + code);
+            }
+            boardData.putPieceOnSquare(Square.fromIndex(Long.numberOfTrailingZeros(remaining)), PIECES[code]);
+            remaining &= remaining - 1;
+        }
+
+        final int flags = buffer.get(start + 24) & 0xFF;
+        final int enPassantIndex = buffer.get(start + 25) & 0xFF;
+        if (64 < enPassantIndex) {
+            throw new IllegalArgumentException("Invalid en passant target " + enPassantIndex);
+        }
+        final int halfMoveCount = (buffer.get(start + 26) & 0xFF) << 8 | buffer.get(start + 27) & 0xFF;
+        final int fullMoveCount = (int) (getBigEndianLong(buffer, start + 24) & 0xFFFFFFFFL);
+        buffer.position(start + SIZE);
+        return Board.fromPosition(boardData,
+                (flags & BLACK_TO_MOVE) == 0 ? Side.WHITE : Side.BLACK,
+                flags & 0xF,
+                enPassantIndex == 0 ? null : Square.fromIndex(enPassantIndex - 1),
+                halfMoveCount,
+                fullMoveCount);
+    }
+
+    /**
+     * Decodes the position from the first {@value #SIZE} bytes of the array.
+     */
+    public static Board decode(final byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return the encoded position in a new array of {@value #SIZE} bytes
+     */
+    public static byte[] encode(final Board board) {
+        final byte[] bytes = new byte[SIZE];
+        encode(board, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Writes the encoded position at the position of the buffer and advances the position by {@value #SIZE} bytes.
+     *
+     * @throws IllegalArgumentException when the board has more than 32 pieces or a half move count above 65535
+     */
+    public static void encode(final Board board, final ByteBuffer buffer) {
+        final long occupancy = board.getOccupancy();
+        if (MAX_PIECE_COUNT < Long.bitCount(occupancy)) {
+            throw new IllegalArgumentException("Can't encode more than " + MAX_PIECE_COUNT + " pieces");
+        }
+        if (MAX_HALF_MOVE_COUNT < board.getHalfMoveCount()) {
+            throw new IllegalArgumentException("Can't encode half move count " + board.getHalfMoveCount());
+        }
+        final int start = buffer.position();
+        putBigEndianLong(buffer, start, occupancy);
+        long pieceCodes1 = 0;
+        long pieceCodes2 = 0;
+        long remaining = occupancy;
+        for (int pieceIndex = 0; remaining != Bitboard.EMPTY; pieceIndex++) {
+            final long code = board.getPiece(Square.fromIndex(Long.numberOfTrailingZeros(remaining))).ordinal();
+            remaining &= remaining - 1;
+            if (pieceIndex < 16) {
+                pieceCodes1 |= code << (60 - 4 * pieceIndex);
+            } else {
+                pieceCodes2 |= code << (60 - 4 * (pieceIndex - 16));
+            }
+        }
+        putBigEndianLong(buffer, start + 8, pieceCodes1);
+        putBigEndianLong(buffer, start + 16, pieceCodes2);
+
+        final Square enPassantTarget = board.getEnPassantTarget();
+        final long state = (long) ((board.getSideToMove() == Side.BLACK ? BLACK_TO_MOVE : 0) | board.getCastlingBits()) << 56
+                | (long) (enPassantTarget == null ? 0 : enPassantTarget.ordinal() + 1) << 48
+                | (long) board.getHalfMoveCount() << 32
+                | board.getFullMoveCount() & 0xFFFFFFFFL;
+        putBigEndianLong(buffer, start + 24, state);
+        buffer.position(start + SIZE);
+    }
+
+    /**
+     * @return a 64-bit hash of the encoded position at the position of the buffer, the position of the buffer is not
+     * changed
+     */
+    public static long hash(final ByteBuffer buffer) {
+        long hash = 0;
+        for (int offset = 0; offset < SIZE; offset += Long.BYTES) {
+            hash = mix(hash ^ getBigEndianLong(buffer, buffer.position() + offset));
+        }
+        return hash;
+    }
+
+    private static long getBigEndianLong(final ByteBuffer buffer, final int index) {
+        final long value = buffer.getLong(index);
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    // The finalizer of MurmurHash3
+    private static long mix(final long value) {
+        long mixed = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    private static void putBigEndianLong(final ByteBuffer buffer, final int index, final long value) {
+        buffer.putLong(index, buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    private PositionCodec() {
+    }
+}
@@ -77,19 +77,10 @@ public enum Square {
 
     public static final List<Square> FEN_SQUARE_LIST = new ArrayList<>(64);
     private static final Map<String, Square> NAME_2_SQUARE = new HashMap<>();
-    private static final List<List<Square>> SQUARE_LIST_LIST = new ArrayList<>(8);
+    private static final Square[] VALUES = values();
 
     static {
-        List<Square> currentList = null;
-        for (final Square square : values()) {
-            if (currentList == null) {
-                currentList = new ArrayList<>(8);
-            }
-            currentList.add(square);
-            if (currentList.size() == 8) {
-                SQUARE_LIST_LIST.add(currentList);
-                currentList = null;
-            }
+        for (final Square square : VALUES) {
             NAME_2_SQUARE.put(square.name, square);
         }
         for (int y = 7; y >= 0; y--) {
@@ -100,13 +91,34 @@ public enum Square {
     }
 
     public static Square fromCoordinates(final int x, final int y) {
-        return SQUARE_LIST_LIST.get(x).get(y);
+        return VALUES[x * 8 + y];
+    }
+
+    /**
+     * @return the square with the given bitboard index, which is the same as its ordinal.
+     */
+    public static Square fromIndex(final int index) {
+        return VALUES[index];
+    }
+
+    /**
+     * @return the square whose name is the two characters at the index of the char sequence, or null when they are not
+     * a square name. The coordinates are computed from the characters, nothing is allocated.
+     */
+    public static Square fromName(final CharSequence charSequence, final int index) {
+        final int x = charSequence.charAt(index) - 'a';
+        final int y = charSequence.charAt(index + 1) - '1';
+        if (x < 0 || 8 <= x || y < 0 || 8 <= y) {
+            return null;
+        }
+        return fromCoordinates(x, y);
     }
 
     public static Square fromName(final String name) {
         return NAME_2_SQUARE.get(name);
     }
 
+    public final long bitboard;
     public final String file;
     public final String name;
     public final String row;
@@ -120,6 +132,7 @@ public enum Square {
         this.y = y;
         file = name.substring(0, 1);
         row = name.substring(1);
+        bitboard = 1L << ordinal();
         squareColor = ((x + y) % 2 == 0) ? SquareColor.DARK : SquareColor.LIGHT;
     }
 }
\ No newline at end of file
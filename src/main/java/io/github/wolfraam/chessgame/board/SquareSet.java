@@ -0,0 +1,54 @@
+package io.github.wolfraam.chessgame.board;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * A read only set of squares which is backed by a bitboard.
+ */
+class SquareSet extends AbstractSet<Square> {
+    private final LongSupplier bitboardSupplier;
+
+    SquareSet(final LongSupplier bitboardSupplier) {
+        this.bitboardSupplier = bitboardSupplier;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Square && Bitboard.contains(bitboardSupplier.getAsLong(), (Square) o);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bitboardSupplier.getAsLong() == Bitboard.EMPTY;
+    }
+
+    @Override
+    public Iterator<Square> iterator() {
+        return new Iterator<>() {
+            private long remaining = bitboardSupplier.getAsLong();
+
+            @Override
+            public boolean hasNext() {
+                return remaining != Bitboard.EMPTY;
+            }
+
+            @Override
+            public Square next() {
+                if (remaining == Bitboard.EMPTY) {
+                    throw new NoSuchElementException();
+                }
+                final int index = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return Square.fromIndex(index);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return Long.bitCount(bitboardSupplier.getAsLong());
+    }
+}
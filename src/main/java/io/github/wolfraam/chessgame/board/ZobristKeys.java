@@ -0,0 +1,66 @@
+package io.github.wolfraam.chessgame.board;
+
+/**
+ * The random keys used to compute the Zobrist hash of a position. The keys are generated from a fixed seed, so a
+ * position has the same hash in every JVM.
+ */
+class ZobristKeys {
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long[][] PIECE_SQUARE = new long[Piece.values().length][64];
+    private static final long SIDE_BLACK;
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (final long[] squareKeys : PIECE_SQUARE) {
+            for (int i = 0; i < squareKeys.length; i++) {
+                seed = next(seed);
+                squareKeys[i] = mix(seed);
+            }
+        }
+        for (int i = 1; i < CASTLING.length; i++) {
+            seed = next(seed);
+            CASTLING[i] = mix(seed);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            seed = next(seed);
+            EN_PASSANT_FILE[i] = mix(seed);
+        }
+        seed = next(seed);
+        SIDE_BLACK = mix(seed);
+    }
+
+    /**
+     * @param castlingBits a bit for each allowed CastleMoveType, by ordinal
+     */
+    static long castling(final int castlingBits) {
+        return CASTLING[castlingBits];
+    }
+
+    static long enPassant(final Square enPassantTarget) {
+        return enPassantTarget == null ? 0L : EN_PASSANT_FILE[enPassantTarget.x];
+    }
+
+    static long piece(final Piece piece, final Square square) {
+        return PIECE_SQUARE[piece.ordinal()][square.ordinal()];
+    }
+
+    static long side(final Side side) {
+        return side == Side.BLACK ? SIDE_BLACK : 0L;
+    }
+
+    // SplitMix64
+    private static long mix(final long seed) {
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long next(final long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private ZobristKeys() {
+    }
+}
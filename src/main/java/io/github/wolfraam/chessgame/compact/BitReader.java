@@ -0,0 +1,81 @@
+package io.github.wolfraam.chessgame.compact;
+
+/**
+ * Reads the bits written by a {@link BitWriter}, the most significant bit of each byte first.
+ */
+public class BitReader {
+
+    private final byte[] bytes;
+    private final int endBitIndex;
+    private int bitIndex;
+
+    public BitReader(final byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the bits of length bytes, starting at the offset.
+     */
+    public BitReader(final byte[] bytes, final int offset, final int length) {
+        if (offset < 0 || length < 0 || bytes.length < offset + length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " out of bounds for length " + bytes.length);
+        }
+        this.bytes = bytes;
+        bitIndex = offset * 8;
+        endBitIndex = (offset + length) * 8;
+    }
+
+    /**
+     * @return the number of bits which have not been read, including the padding bits of the last byte
+     */
+    public int getRemainingBitCount() {
+        return endBitIndex - bitIndex;
+    }
+
+    public boolean readBit() {
+        if (bitIndex == endBitIndex) {
+            throw new IllegalStateException("No more bits to read");
+        }
+        final boolean bit = (bytes[bitIndex >>> 3] & (0x80 >>> (bitIndex & 7))) != 0;
+        bitIndex++;
+        return bit;
+    }
+
+    /**
+     * Reads count bits, the most significant bit first.
+     */
+    public int readBits(final int count) {
+        if (count < 0 || 32 < count) {
+            throw new IllegalArgumentException("Can't read " + count + " bits");
+        }
+        if (getRemainingBitCount() < count) {
+            throw new IllegalStateException("No more bits to read");
+        }
+        int value = 0;
+        int remaining = count;
+        while (remaining != 0) {
+            final int bitOffset = bitIndex & 7;
+            final int bitsFromByte = Math.min(8 - bitOffset, remaining);
+            final int byteValue = bytes[bitIndex >>> 3] & (0xFF >>> bitOffset);
+            value = (value << bitsFromByte) | (byteValue >>> (8 - bitOffset - bitsFromByte));
+            bitIndex += bitsFromByte;
+            remaining -= bitsFromByte;
+        }
+        return value;
+    }
+
+    /**
+     * Reads a value written by {@link BitWriter#writeExpGolomb(int, int)} with the same order k.
+     */
+    public int readExpGolomb(final int k) {
+        int leadingZeros = 0;
+        while (!readBit()) {
+            leadingZeros++;
+        }
+        if (31 - k < leadingZeros) {
+            throw new IllegalStateException("Exp-Golomb code too long");
+        }
+        final int bitLength = leadingZeros + k;
+        return (int) (((1L << bitLength) | (readBits(bitLength) & 0xFFFFFFFFL)) - (1L << k));
+    }
+}
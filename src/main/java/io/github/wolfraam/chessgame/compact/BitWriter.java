@@ -0,0 +1,91 @@
+package io.github.wolfraam.chessgame.compact;
+
+import java.util.Arrays;
+
+/**
+ * Writes a stream of bits into a growable byte array, the most significant bit of each byte first. The last byte is
+ * padded with zero bits.
+ */
+public class BitWriter {
+
+    // The pending bits, in the low bits of the buffer
+    private long buffer;
+    private int bufferBitCount;
+    private byte[] bytes;
+    private int byteCount;
+
+    public BitWriter() {
+        this(64);
+    }
+
+    public BitWriter(final int initialCapacity) {
+        bytes = new byte[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * @return the number of bits written
+     */
+    public long getBitCount() {
+        return byteCount * 8L + bufferBitCount;
+    }
+
+    /**
+     * Clears the written bits, so that the writer can be reused.
+     */
+    public void reset() {
+        buffer = 0;
+        bufferBitCount = 0;
+        byteCount = 0;
+    }
+
+    /**
+     * @return the written bits, padded to whole bytes
+     */
+    public byte[] toByteArray() {
+        final byte[] result = Arrays.copyOf(bytes, byteCount + (bufferBitCount == 0 ? 0 : 1));
+        if (bufferBitCount != 0) {
+            result[byteCount] = (byte) (buffer << (8 - bufferBitCount));
+        }
+        return result;
+    }
+
+    public void writeBit(final boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes the lowest count bits of the value, the most significant bit first.
+     */
+    public void writeBits(final int value, final int count) {
+        if (count < 0 || 32 < count) {
+            throw new IllegalArgumentException("Can't write " + count + " bits");
+        }
+        final long mask = count == 0 ? 0 : -1L >>> (64 - count);
+        buffer = (buffer << count) | (value & mask);
+        bufferBitCount += count;
+        while (8 <= bufferBitCount) {
+            bufferBitCount -= 8;
+            if (byteCount == bytes.length) {
+                bytes = Arrays.copyOf(bytes, byteCount * 2);
+            }
+            bytes[byteCount++] = (byte) (buffer >>> bufferBitCount);
+        }
+    }
+
+    /**
+     * Writes the non negative value as an Exp-Golomb code of order k. Small values get short codes: a value below
+     * 2^k takes k + 1 bits and every doubling of the value adds 2 bits.
+     */
+    public void writeExpGolomb(final int value, final int k) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Can't write negative value " + value);
+        }
+        final long shifted = value + (1L << k);
+        final int bitLength = 64 - Long.numberOfLeadingZeros(shifted);
+        if (32 < bitLength) {
+            throw new IllegalArgumentException("Can't write value " + value + " with order " + k);
+        }
+        writeBits(0, bitLength - 1 - k);
+        writeBits((int) shifted, bitLength);
+    }
+}
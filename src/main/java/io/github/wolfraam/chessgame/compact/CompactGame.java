@@ -0,0 +1,161 @@
+package io.github.wolfraam.chessgame.compact;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.pgn.PGNComment;
+import io.github.wolfraam.chessgame.pgn.PGNData;
+import io.github.wolfraam.chessgame.pgn.PGNTag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A chess game in a compact form, meant for keeping millions of games in memory.
+ * <p>
+ * The moves are stored as a short per move, see {@link Move#encoding}. The tag values and the initial position are
+ * stored as codes of a {@link TagDictionary} which is shared by the games, the standard initial position is not stored
+ * at all. The PGN comments are kept as well, a game without comments does not use memory for them. Positions are not
+ * stored: they are computed again by {@link #toChessGame()}.
+ */
+public class CompactGame {
+
+    private static final int NO_CODE = -1;
+    private static final PGNTag[] PGN_TAGS = PGNTag.values();
+
+    /**
+     * @return the compact form of the chess game, the tag values and the initial position are added to the dictionary
+     */
+    public static CompactGame fromChessGame(final ChessGame chessGame, final TagDictionary tagDictionary) {
+        final String initialFen = chessGame.getInitialFen();
+        final int initialFenCode = ChessGame.STANDARD_INITIAL_FEN.equals(initialFen) ? NO_CODE : tagDictionary.getCode(initialFen);
+
+        final List<Move> gameMoves = chessGame.getMoves();
+        final short[] moves = new short[gameMoves.size()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = (short) gameMoves.get(ply).encoding;
+        }
+
+        final PGNData pgnData = chessGame.getPGNData();
+        final Set<PGNTag> pgnTags = pgnData.getAvailablePGNTags();
+        final byte[] tags = new byte[pgnTags.size()];
+        final int[] tagValueCodes = new int[pgnTags.size()];
+        int index = 0;
+        for (final PGNTag pgnTag : pgnTags) {
+            tags[index] = (byte) pgnTag.ordinal();
+            tagValueCodes[index] = tagDictionary.getCode(pgnData.getPGNTagValue(pgnTag));
+            index++;
+        }
+
+        final List<Integer> commentKeyList = new ArrayList<>();
+        final List<PGNComment> commentList = new ArrayList<>();
+        for (int ply = 0; ply <= moves.length; ply++) {
+            for (final PGNComment pgnComment : pgnData.getPGNCommentsBefore(ply)) {
+                commentKeyList.add(ply << 1);
+                commentList.add(pgnComment);
+            }
+            for (final PGNComment pgnComment : pgnData.getPGNCommentsAfter(ply)) {
+                commentKeyList.add(ply << 1 | 1);
+                commentList.add(pgnComment);
+            }
+        }
+        int[] commentKeys = null;
+        PGNComment[] comments = null;
+        if (!commentList.isEmpty()) {
+            commentKeys = commentKeyList.stream().mapToInt(Integer::intValue).toArray();
+            comments = commentList.toArray(new PGNComment[0]);
+        }
+        return new CompactGame(tagDictionary, initialFenCode, moves, tags, tagValueCodes, commentKeys, comments);
+    }
+
+    // The ply of each comment, shifted left by one. The lowest bit is set for a comment after the move.
+    private final int[] commentKeys;
+    private final PGNComment[] comments;
+    private final int initialFenCode;
+    private final short[] moves;
+    private final TagDictionary tagDictionary;
+    private final int[] tagValueCodes;
+    // The ordinals of the PGN tags, in the same order as their value codes
+    private final byte[] tags;
+
+    private CompactGame(final TagDictionary tagDictionary, final int initialFenCode, final short[] moves, final byte[] tags,
+                        final int[] tagValueCodes, final int[] commentKeys, final PGNComment[] comments) {
+        this.tagDictionary = tagDictionary;
+        this.initialFenCode = initialFenCode;
+        this.moves = moves;
+        this.tags = tags;
+        this.tagValueCodes = tagValueCodes;
+        this.commentKeys = commentKeys;
+        this.comments = comments;
+    }
+
+    /**
+     * @return the fen of the board before move 1
+     */
+    public String getInitialFen() {
+        return initialFenCode == NO_CODE ? ChessGame.STANDARD_INITIAL_FEN : tagDictionary.getValue(initialFenCode);
+    }
+
+    /**
+     * @return the move of the ply, starting at 0
+     */
+    public Move getMove(final int ply) {
+        return Move.decode(moves[ply]);
+    }
+
+    /**
+     * @return the number of played moves
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * @return the value of the PGN tag, or null when the game does not have the tag
+     */
+    public String getPGNTagValue(final PGNTag pgnTag) {
+        final int code = getPGNTagValueCode(pgnTag);
+        return code == NO_CODE ? null : tagDictionary.getValue(code);
+    }
+
+    /**
+     * @return the dictionary code of the value of the PGN tag, or -1 when the game does not have the tag. Games with
+     * the same code have the same value, which makes grouping games cheap.
+     */
+    public int getPGNTagValueCode(final PGNTag pgnTag) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == pgnTag.ordinal()) {
+                return tagValueCodes[i];
+            }
+        }
+        return NO_CODE;
+    }
+
+    public TagDictionary getTagDictionary() {
+        return tagDictionary;
+    }
+
+    /**
+     * @return a chess game with the moves, tags and comments of this game. The moves are played without checking
+     * whether they are legal, they were legal in the game this game was created from.
+     */
+    public ChessGame toChessGame() {
+        final ChessGame chessGame = new ChessGame(getInitialFen());
+        for (final short move : moves) {
+            chessGame.playMove(Move.decode(move));
+        }
+        final PGNData pgnData = chessGame.getPGNData();
+        for (int i = 0; i < tags.length; i++) {
+            pgnData.setPGNTag(PGN_TAGS[tags[i]], tagDictionary.getValue(tagValueCodes[i]));
+        }
+        if (comments != null) {
+            for (int i = 0; i < comments.length; i++) {
+                if ((commentKeys[i] & 1) == 0) {
+                    pgnData.addPGNCommentBefore(commentKeys[i] >> 1, comments[i]);
+                } else {
+                    pgnData.addPGNCommentAfter(commentKeys[i] >> 1, comments[i]);
+                }
+            }
+        }
+        return chessGame;
+    }
+}
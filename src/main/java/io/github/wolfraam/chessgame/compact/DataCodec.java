@@ -0,0 +1,83 @@
+package io.github.wolfraam.chessgame.compact;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads and writes the numbers and strings of the binary forms of {@link GameCodec} and the PGN index. Numbers are
+ * unsigned variable length longs of 7 bits per byte, the low bits first. Strings are their UTF-8 byte count followed by
+ * the bytes, so unlike {@link DataOutput#writeUTF} they have no length limit.
+ */
+public class DataCodec {
+
+    /**
+     * @return a number which was written by {@link #writeVarLong} and fits in an int
+     * @throws IOException when the input ends early or the number does not fit in an int
+     */
+    public static int readCount(final DataInput dataInput) throws IOException {
+        final long value = readVarLong(dataInput);
+        if (Integer.MAX_VALUE < value) {
+            throw new IOException("Invalid count " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return a string which was written by {@link #writeString}
+     * @throws IOException when the input ends early
+     */
+    public static String readString(final DataInput dataInput) throws IOException {
+        final int length = readCount(dataInput);
+        // Read in parts, so an invalid length fails at the end of the input instead of allocating all of it
+        byte[] bytes = new byte[Math.min(length, 1 << 16)];
+        int count = 0;
+        while (count < length) {
+            if (count == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * count));
+            }
+            dataInput.readFully(bytes, count, bytes.length - count);
+            count = bytes.length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a number which was written by {@link #writeVarLong}
+     * @throws IOException when the input ends early or the number is longer than 63 bits
+     */
+    public static long readVarLong(final DataInput dataInput) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            final int b = dataInput.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid number");
+    }
+
+    public static void writeString(final DataOutput dataOutput, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(dataOutput, bytes.length);
+        dataOutput.write(bytes);
+    }
+
+    /**
+     * Writes the number, which must not be negative, in 1 byte per 7 bits.
+     */
+    public static void writeVarLong(final DataOutput dataOutput, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            dataOutput.writeByte((int) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        dataOutput.writeByte((int) remaining);
+    }
+
+    private DataCodec() {
+    }
+}
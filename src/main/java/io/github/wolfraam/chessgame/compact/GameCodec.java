@@ -0,0 +1,134 @@
+package io.github.wolfraam.chessgame.compact;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.pgn.PGNComment;
+import io.github.wolfraam.chessgame.pgn.PGNData;
+import io.github.wolfraam.chessgame.pgn.PGNTag;
+import io.github.wolfraam.chessgame.pgn.PGNVariation;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a chess game as its initial position, its moves, its PGN tags and its PGN comments, and reads it back by
+ * playing the moves again. This is the form {@link ChessGame#toBytes()} and Java serialization of a chess game use.
+ * <p>
+ * The layout is: a version byte, a flags byte, the initial fen when it is not the standard initial position, the move
+ * count and a short per move (see {@link Move#encoding}), the tag count and the ordinal and value of every tag, the
+ * comment count and the ply, the kind and the text of every comment or variation. Counts, plies and strings are
+ * written by {@link DataCodec}. Cached notations are not written, they are computed again when they are requested.
+ */
+public class GameCodec {
+
+    private static final int COMMENT_AFTER = 1;
+    private static final int CUSTOM_INITIAL_FEN = 1;
+    private static final PGNTag[] PGN_TAGS = PGNTag.values();
+    private static final int VARIATION = 2;
+    private static final int VERSION = 2;
+
+    /**
+     * Reads a chess game which was written by {@link #write}.
+     *
+     * @throws IOException when the input ends early, contains an illegal move or does not contain a chess game of a
+     * known version
+     */
+    public static ChessGame read(final DataInput dataInput) throws IOException {
+        final int version = dataInput.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unknown version " + version);
+        }
+        final int flags = dataInput.readUnsignedByte();
+        final ChessGame chessGame;
+        try {
+            chessGame = (flags & CUSTOM_INITIAL_FEN) == 0 ? new ChessGame() : new ChessGame(DataCodec.readString(dataInput));
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Invalid initial fen", e);
+        }
+
+        final int moveCount = DataCodec.readCount(dataInput);
+        for (int ply = 0; ply < moveCount; ply++) {
+            final int encoding = dataInput.readUnsignedShort();
+            final Move move = encoding < 1 << 15 ? Move.decode(encoding) : null;
+            if (move == null || !chessGame.isLegalMove(move)) {
+                throw new IOException("Invalid move " + encoding + " at ply " + ply);
+            }
+            chessGame.playMove(move);
+        }
+
+        final PGNData pgnData = chessGame.getPGNData();
+        final int tagCount = DataCodec.readCount(dataInput);
+        for (int i = 0; i < tagCount; i++) {
+            final int ordinal = dataInput.readUnsignedByte();
+            if (PGN_TAGS.length <= ordinal) {
+                throw new IOException("Invalid tag " + ordinal);
+            }
+            pgnData.setPGNTag(PGN_TAGS[ordinal], DataCodec.readString(dataInput));
+        }
+
+        final int commentCount = DataCodec.readCount(dataInput);
+        for (int i = 0; i < commentCount; i++) {
+            final int key = DataCodec.readCount(dataInput);
+            final String text = DataCodec.readString(dataInput);
+            final PGNComment pgnComment = (key & VARIATION) == 0 ? new PGNComment(text) : new PGNVariation(text);
+            if ((key & COMMENT_AFTER) == 0) {
+                pgnData.addPGNCommentBefore(key >>> 2, pgnComment);
+            } else {
+                pgnData.addPGNCommentAfter(key >>> 2, pgnComment);
+            }
+        }
+        return chessGame;
+    }
+
+    /**
+     * Writes the initial position, the moves, the PGN tags and the PGN comments of the chess game.
+     */
+    public static void write(final ChessGame chessGame, final DataOutput dataOutput) throws IOException {
+        final String initialFen = chessGame.getInitialFen();
+        final boolean customInitialFen = !ChessGame.STANDARD_INITIAL_FEN.equals(initialFen);
+        dataOutput.writeByte(VERSION);
+        dataOutput.writeByte(customInitialFen ? CUSTOM_INITIAL_FEN : 0);
+        if (customInitialFen) {
+            DataCodec.writeString(dataOutput, initialFen);
+        }
+
+        final List<Move> moves = chessGame.getMoves();
+        DataCodec.writeVarLong(dataOutput, moves.size());
+        for (final Move move : moves) {
+            dataOutput.writeShort(move.encoding);
+        }
+
+        final PGNData pgnData = chessGame.getPGNData();
+        final Set<PGNTag> pgnTags = pgnData.getAvailablePGNTags();
+        DataCodec.writeVarLong(dataOutput, pgnTags.size());
+        for (final PGNTag pgnTag : pgnTags) {
+            dataOutput.writeByte(pgnTag.ordinal());
+            DataCodec.writeString(dataOutput, pgnData.getPGNTagValue(pgnTag));
+        }
+
+        // The comments are counted first, most games have none
+        int commentCount = 0;
+        for (int ply = 0; ply <= moves.size(); ply++) {
+            commentCount += pgnData.getPGNCommentsBefore(ply).size() + pgnData.getPGNCommentsAfter(ply).size();
+        }
+        DataCodec.writeVarLong(dataOutput, commentCount);
+        for (int ply = 0; ply <= moves.size(); ply++) {
+            for (final PGNComment pgnComment : pgnData.getPGNCommentsBefore(ply)) {
+                writeComment(dataOutput, ply << 2, pgnComment);
+            }
+            for (final PGNComment pgnComment : pgnData.getPGNCommentsAfter(ply)) {
+                writeComment(dataOutput, ply << 2 | COMMENT_AFTER, pgnComment);
+            }
+        }
+    }
+
+    private static void writeComment(final DataOutput dataOutput, final int key, final PGNComment pgnComment) throws IOException {
+        DataCodec.writeVarLong(dataOutput, pgnComment instanceof PGNVariation ? key | VARIATION : key);
+        DataCodec.writeString(dataOutput, pgnComment.getText());
+    }
+
+    private GameCodec() {
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.wolfraam.chessgame.compact;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.LegalMoveGenerator;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveList;
+import java.util.List;
+
+/**
+ * Encodes the moves of a game as their rank in a deterministically ordered list of the legal moves, which typically
+ * takes less than a byte per move.
+ * <p>
+ * The legal moves of each position are ordered by a cheap static score: captures of valuable pieces, queen promotions,
+ * castling and moves towards the center come first, moves to a square attacked by an enemy pawn come last. Moves with
+ * the same score are ordered by their encoding. A played move usually has a low rank, so the ranks are written as
+ * Exp-Golomb codes. The order k of the codes is chosen per game, it is the order which gives the fewest bits. A move
+ * in a position with a single legal move takes no bits at all.
+ * <p>
+ * The layout is: the move count as an Exp-Golomb code of order {@value #MOVE_COUNT_ORDER}, k in {@value #ORDER_BITS}
+ * bits and the rank of every move. Decoding needs the initial position of the game, like encoding.
+ */
+public class RankedMoveCodec {
+
+    // The rank of a move which is the only legal move, it is not written
+    private static final int FORCED_MOVE = -1;
+    private static final int MAX_ORDER = 3;
+    private static final int MOVE_COUNT_ORDER = 5;
+    private static final int ORDER_BITS = 2;
+    private static final int SCORE_OFFSET = 1 << 16;
+    private static final int[] VALUES = {1, 3, 3, 5, 9, 0};
+
+    private final long[] keys = new long[256];
+    private final MoveList moveList = new MoveList();
+
+    /**
+     * @return a chess game with the moves read from the bytes, played from the initial position
+     */
+    public ChessGame decode(final String initialFen, final byte[] bytes) {
+        return read(initialFen, new BitReader(bytes));
+    }
+
+    /**
+     * @return the encoded moves of the chess game
+     */
+    public byte[] encode(final ChessGame chessGame) {
+        final BitWriter bitWriter = new BitWriter(chessGame.getMoves().size() / 2 + 4);
+        write(chessGame, bitWriter);
+        return bitWriter.toByteArray();
+    }
+
+    /**
+     * Reads the moves of one game from the reader, which may contain more games.
+     *
+     * @return a chess game with the moves played from the initial position
+     */
+    public ChessGame read(final String initialFen, final BitReader bitReader) {
+        final int moveCount = bitReader.readExpGolomb(MOVE_COUNT_ORDER);
+        final int order = bitReader.readBits(ORDER_BITS);
+        final ChessGame chessGame = new ChessGame(initialFen);
+        final Board board = Board.fromFen(initialFen);
+        for (int ply = 0; ply < moveCount; ply++) {
+            final int legalMoveCount = sortLegalMoves(board);
+            final int rank = legalMoveCount == 1 ? 0 : bitReader.readExpGolomb(order);
+            if (legalMoveCount <= rank) {
+                throw new IllegalStateException("Rank " + rank + " of ply " + ply + " is not a legal move");
+            }
+            final Move move = Move.decode((int) (keys[rank] & 0xFFFF));
+            board.makeMove(move);
+            chessGame.playMove(move);
+        }
+        return chessGame;
+    }
+
+    /**
+     * Writes the moves of the chess game to the writer, which may contain more games.
+     */
+    public void write(final ChessGame chessGame, final BitWriter bitWriter) {
+        final List<Move> moves = chessGame.getMoves();
+        final int[] ranks = new int[moves.size()];
+        final Board board = Board.fromFen(chessGame.getInitialFen());
+        for (int ply = 0; ply < ranks.length; ply++) {
+            final Move move = moves.get(ply);
+            final int legalMoveCount = sortLegalMoves(board);
+            final int rank = getRank(move, legalMoveCount);
+            if (rank == legalMoveCount) {
+                throw new IllegalArgumentException("Move " + move + " of ply " + ply + " is illegal");
+            }
+            ranks[ply] = legalMoveCount == 1 ? FORCED_MOVE : rank;
+            board.makeMove(move);
+        }
+
+        int bestOrder = 0;
+        long bestBitCount = Long.MAX_VALUE;
+        for (int order = 0; order <= MAX_ORDER; order++) {
+            long bitCount = 0;
+            for (final int rank : ranks) {
+                if (rank != FORCED_MOVE) {
+                    bitCount += getExpGolombBitCount(rank, order);
+                }
+            }
+            if (bitCount < bestBitCount) {
+                bestBitCount = bitCount;
+                bestOrder = order;
+            }
+        }
+
+        bitWriter.writeExpGolomb(ranks.length, MOVE_COUNT_ORDER);
+        bitWriter.writeBits(bestOrder, ORDER_BITS);
+        for (final int rank : ranks) {
+            if (rank != FORCED_MOVE) {
+                bitWriter.writeExpGolomb(rank, bestOrder);
+            }
+        }
+    }
+
+    // The distance to the edge of the board, summed over the file and the rank
+    private int getCentrality(final Square square) {
+        return Math.min(square.x, 7 - square.x) + Math.min(square.y, 7 - square.y);
+    }
+
+    private int getExpGolombBitCount(final int value, final int order) {
+        final int bitLength = 64 - Long.numberOfLeadingZeros(value + (1L << order));
+        return 2 * bitLength - 1 - order;
+    }
+
+    private long getPawnAttacks(final Board board, final Side side) {
+        final long pawns = board.getBitboard(Piece.fromPieceTypeAndSide(PieceType.PAWN, side));
+        // A square one file further is 8 ordinals further, a square one rank further is 1 ordinal further
+        return side == Side.WHITE ? pawns << 9 | pawns >>> 7 : pawns << 7 | pawns >>> 9;
+    }
+
+    // Returns the legal move count when the move is not one of the sorted legal moves
+    private int getRank(final Move move, final int legalMoveCount) {
+        for (int rank = 0; rank < legalMoveCount; rank++) {
+            if ((keys[rank] & 0xFFFF) == move.encoding) {
+                return rank;
+            }
+        }
+        return legalMoveCount;
+    }
+
+    private int getScore(final Board board, final Move move, final long enemyPawnAttacks) {
+        final Piece piece = board.getPiece(move.from);
+        final int value = VALUES[piece.pieceType.ordinal()];
+        int score = 0;
+        final Piece capturedPiece = board.getPiece(move.to);
+        if (capturedPiece != null) {
+            score += 64 + 8 * VALUES[capturedPiece.pieceType.ordinal()] - value;
+        } else if (board.isEnPassant(move.from, move.to)) {
+            score += 64 + 8 - 1;
+        }
+        if (move.promotion != null) {
+            score += move.promotion == PieceType.QUEEN ? 80 : -20;
+        }
+        switch (piece.pieceType) {
+            case PAWN:
+                score += 2 + getCentrality(move.to) - getCentrality(move.from);
+                break;
+            case KING:
+                score += Math.abs(move.to.x - move.from.x) == 2 ? 12 : -4;
+                break;
+            default:
+                score += 2 * (getCentrality(move.to) - getCentrality(move.from));
+                break;
+        }
+        if ((enemyPawnAttacks & move.to.bitboard) != 0) {
+            score -= 4 * value;
+        }
+        return score;
+    }
+
+    // Sorts the legal moves of the board into the keys, the encoding of a move is in the low 16 bits of its key
+    private int sortLegalMoves(final Board board) {
+        moveList.clear();
+        new LegalMoveGenerator(board).generate(-1L, -1L, moveList);
+        final long enemyPawnAttacks = getPawnAttacks(board, board.getSideToMove().flip());
+        final int size = moveList.size();
+        for (int i = 0; i < size; i++) {
+            final Move move = moveList.get(i);
+            final long key = (long) (SCORE_OFFSET - getScore(board, move, enemyPawnAttacks)) << 16 | move.encoding;
+            int j = i;
+            while (0 < j && key < keys[j - 1]) {
+                keys[j] = keys[j - 1];
+                j--;
+            }
+            keys[j] = key;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.wolfraam.chessgame.compact;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps strings to int codes, so that the values which repeat across games, like player names, events and initial
+ * positions, are stored once. A dictionary is meant to be shared by many games and may be used by multiple threads.
+ * Codes are never removed.
+ */
+public class TagDictionary {
+
+    private int size;
+    private final Map<String, Integer> value2Code = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[256];
+
+    /**
+     * @return the code of the value, the value is added to the dictionary when it is not part of it yet
+     */
+    public int getCode(final String value) {
+        final Integer code = value2Code.get(value);
+        if (code != null) {
+            return code;
+        }
+        return addValue(value);
+    }
+
+    /**
+     * @return the value of the code
+     * @throws IndexOutOfBoundsException when the code is not part of the dictionary
+     */
+    public String getValue(final int code) {
+        final String[] currentValues = values;
+        if (code < 0 || currentValues.length <= code || currentValues[code] == null) {
+            throw new IndexOutOfBoundsException("Unknown code " + code);
+        }
+        return currentValues[code];
+    }
+
+    /**
+     * @return the number of values in the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int addValue(final String value) {
+        final Integer existingCode = value2Code.get(value);
+        if (existingCode != null) {
+            return existingCode;
+        }
+        final String[] newValues = size == values.length ? Arrays.copyOf(values, size * 2) : values;
+        newValues[size] = value;
+        // The volatile write publishes the value before its code can be found in the map
+        values = newValues;
+        value2Code.put(value, size);
+        return size++;
+    }
+}
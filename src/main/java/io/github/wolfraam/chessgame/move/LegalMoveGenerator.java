@@ -0,0 +1,259 @@
+package io.github.wolfraam.chessgame.move;
+
+import io.github.wolfraam.chessgame.board.Bitboard;
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
+import java.io.Serializable;
+
+/**
+ * Generates the legal moves of the side to move, without playing the moves.
+ * <p>
+ * The checkers of the king, the pinned pieces and the squares attacked by the enemy are computed first. A pinned piece
+ * may only move along its pin ray, the king may not move to an attacked square and when the king is in check the
+ * other pieces may only capture the checker or block the check. In double check only the king can move.
+ */
+public class LegalMoveGenerator implements Serializable {
+
+    private static final CastleMoveType[] CASTLE_MOVE_TYPES = CastleMoveType.values();
+    // The first and the last rank
+    private static final long PROMOTION_RANKS = 0x8181818181818181L;
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+    private static final TargetData TARGET_DATA = TargetHelper.TARGET_DATA;
+
+    private final Board board;
+
+    public LegalMoveGenerator(final Board board) {
+        this.board = board;
+    }
+
+    /**
+     * @return the number of legal moves from one of the squares in the from bitboard to one of the squares in the to
+     * bitboard. The moves are counted with bit counts, they are never created.
+     */
+    public int count(final long fromBitboard, final long toBitboard) {
+        return generateOrCount(fromBitboard, toBitboard, null);
+    }
+
+    /**
+     * Passes the legal moves from one of the squares in the from bitboard to one of the squares in the to bitboard to
+     * the consumer.
+     */
+    public void generate(final long fromBitboard, final long toBitboard, final MoveConsumer moveConsumer) {
+        generateOrCount(fromBitboard, toBitboard, moveConsumer);
+    }
+
+    /**
+     * @return whether the move is legal, including its promotion. No moves are created.
+     */
+    public boolean isLegal(final Move move) {
+        final Piece piece = board.getPiece(move.from);
+        if (piece != null && piece.side == board.getSideToMove()
+                && count(move.from.bitboard, move.to.bitboard) != 0) {
+            // A pawn move to the first or last rank must have a promotion, any other move must not have one
+            if (piece.pieceType == PieceType.PAWN && (move.to.y == 0 || move.to.y == 7)) {
+                return move.promotion != null && move.promotion != PieceType.PAWN && move.promotion != PieceType.KING;
+            }
+            return move.promotion == null;
+        }
+        return false;
+    }
+
+    private int addKingMoves(final Square kingSquare, final long checkers, final long toBitboard, final MoveConsumer moveConsumer) {
+        final Side side = board.getSideToMove();
+        // The king does not block the attacks on the squares behind it
+        final long attacked = getAttackedSquares(side.flip(), board.getOccupancy() & ~kingSquare.bitboard);
+        final long targets = TARGET_DATA.getKingTargets(kingSquare) & ~board.getOccupancy(side) & ~attacked & toBitboard;
+        int count = addMoves(kingSquare, targets, false, moveConsumer);
+        if (checkers == Bitboard.EMPTY) {
+            for (final CastleMoveType castleMoveType : CASTLE_MOVE_TYPES) {
+                if (castleMoveType.side == side
+                        && castleMoveType.kingFrom == kingSquare
+                        && (castleMoveType.kingTo.bitboard & toBitboard) != Bitboard.EMPTY
+                        && board.canCastle(castleMoveType)
+                        && (board.getOccupancy() & castleMoveType.requiringEmptySquaresBitboard) == Bitboard.EMPTY
+                        && board.getPiece(castleMoveType.rookFrom) == castleMoveType.rookPiece
+                        && ((castleMoveType.rookTo.bitboard | castleMoveType.kingTo.bitboard) & attacked) == Bitboard.EMPTY) {
+                    count += addMoves(kingSquare, castleMoveType.kingTo.bitboard, false, moveConsumer);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Only counts the moves when the consumer is null
+    private int addMoves(final Square from, final long targets, final boolean isPawn, final MoveConsumer moveConsumer) {
+        final long promotionTargets = isPawn ? targets & PROMOTION_RANKS : Bitboard.EMPTY;
+        if (moveConsumer == null) {
+            return Long.bitCount(targets) + (PROMOTIONS.length - 1) * Long.bitCount(promotionTargets);
+        }
+        long remainingTargets = targets;
+        while (remainingTargets != Bitboard.EMPTY) {
+            final Square to = Square.fromIndex(Long.numberOfTrailingZeros(remainingTargets));
+            remainingTargets &= remainingTargets - 1;
+            if ((promotionTargets & to.bitboard) != Bitboard.EMPTY) {
+                for (final PieceType promotion : PROMOTIONS) {
+                    moveConsumer.accept(Move.of(from, to, promotion));
+                }
+            } else {
+                moveConsumer.accept(Move.of(from, to));
+            }
+        }
+        return Long.bitCount(targets) + (PROMOTIONS.length - 1) * Long.bitCount(promotionTargets);
+    }
+
+    // Only counts the moves when the consumer is null
+    private int generateOrCount(final long fromBitboard, final long toBitboard, final MoveConsumer moveConsumer) {
+        final Side side = board.getSideToMove();
+        final Side enemySide = side.flip();
+        final long kingBitboard = board.getBitboard(Piece.fromPieceTypeAndSide(PieceType.KING, side));
+        final Square kingSquare = Bitboard.first(kingBitboard);
+        final long occupancy = board.getOccupancy();
+        final long ownOccupancy = board.getOccupancy(side);
+
+        int count = 0;
+        long checkers = Bitboard.EMPTY;
+        long pinned = Bitboard.EMPTY;
+        if (kingSquare != null) {
+            checkers = getAttackers(kingSquare, enemySide, occupancy);
+            pinned = getPinned(kingSquare, side);
+            if ((fromBitboard & kingBitboard) != Bitboard.EMPTY) {
+                count += addKingMoves(kingSquare, checkers, toBitboard, moveConsumer);
+            }
+        }
+        if (1 < Long.bitCount(checkers)) {
+            return count;
+        }
+        final long checkMask = checkers == Bitboard.EMPTY
+                ? ~Bitboard.EMPTY
+                : checkers | TARGET_DATA.getBetween(kingSquare, Bitboard.first(checkers));
+
+        long pieceBitboard = ownOccupancy & ~kingBitboard & fromBitboard;
+        while (pieceBitboard != Bitboard.EMPTY) {
+            final Square from = Square.fromIndex(Long.numberOfTrailingZeros(pieceBitboard));
+            pieceBitboard &= pieceBitboard - 1;
+            final Piece piece = board.getPiece(from);
+
+            long targets = getTargets(from, piece, occupancy) & ~ownOccupancy & checkMask & toBitboard;
+            if ((pinned & from.bitboard) != Bitboard.EMPTY) {
+                targets &= TARGET_DATA.getLine(kingSquare, from);
+            }
+            final boolean isPawn = piece.pieceType == PieceType.PAWN;
+            count += addMoves(from, targets, isPawn, moveConsumer);
+            if (isPawn && isLegalEnPassant(from, kingSquare, checkMask, toBitboard)) {
+                count += addMoves(from, board.getEnPassantTarget().bitboard, false, moveConsumer);
+            }
+        }
+        return count;
+    }
+
+    private long getAttackedSquares(final Side side, final long occupancy) {
+        long attacked = Bitboard.EMPTY;
+        long pieceBitboard = board.getOccupancy(side);
+        while (pieceBitboard != Bitboard.EMPTY) {
+            final Square from = Square.fromIndex(Long.numberOfTrailingZeros(pieceBitboard));
+            pieceBitboard &= pieceBitboard - 1;
+            attacked |= switch (board.getPiece(from).pieceType) {
+                case PAWN -> TARGET_DATA.getPawnAttacks(from, side);
+                case KNIGHT -> TARGET_DATA.getKnightTargets(from);
+                case BISHOP -> TARGET_DATA.getBishopTargets(from, occupancy);
+                case ROOK -> TARGET_DATA.getRookTargets(from, occupancy);
+                case QUEEN -> TARGET_DATA.getQueenTargets(from, occupancy);
+                case KING -> TARGET_DATA.getKingTargets(from);
+            };
+        }
+        return attacked;
+    }
+
+    private long getAttackers(final Square square, final Side side, final long occupancy) {
+        return (TARGET_DATA.getPawnAttacks(square, side.flip()) & getBitboard(PieceType.PAWN, side))
+                | (TARGET_DATA.getKnightTargets(square) & getBitboard(PieceType.KNIGHT, side))
+                | (TARGET_DATA.getKingTargets(square) & getBitboard(PieceType.KING, side))
+                | getSliderAttackers(square, side, occupancy);
+    }
+
+    private long getBitboard(final PieceType pieceType, final Side side) {
+        return board.getBitboard(Piece.fromPieceTypeAndSide(pieceType, side));
+    }
+
+    private long getPinned(final Square kingSquare, final Side side) {
+        final Side enemySide = side.flip();
+        // The enemy sliders which would attack the king if the pieces of the side were not there
+        long snipers = getSliderAttackers(kingSquare, enemySide, board.getOccupancy(enemySide));
+        long pinned = Bitboard.EMPTY;
+        while (snipers != Bitboard.EMPTY) {
+            final Square sniper = Square.fromIndex(Long.numberOfTrailingZeros(snipers));
+            snipers &= snipers - 1;
+            final long blockers = TARGET_DATA.getBetween(kingSquare, sniper) & board.getOccupancy();
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupancy(side);
+            }
+        }
+        return pinned;
+    }
+
+    private long getSliderAttackers(final Square square, final Side side, final long occupancy) {
+        final long queens = getBitboard(PieceType.QUEEN, side);
+        return (TARGET_DATA.getBishopTargets(square, occupancy) & (getBitboard(PieceType.BISHOP, side) | queens))
+                | (TARGET_DATA.getRookTargets(square, occupancy) & (getBitboard(PieceType.ROOK, side) | queens));
+    }
+
+    private long getTargets(final Square from, final Piece piece, final long occupancy) {
+        switch (piece.pieceType) {
+            case PAWN:
+                long targets = TARGET_DATA.getPawnAttacks(from, piece.side) & board.getOccupancy(piece.side.flip());
+                if (0 < from.y && from.y < 7) {
+                    final int direction = piece.side == Side.WHITE ? 1 : -1;
+                    final Square singlePush = Square.fromCoordinates(from.x, from.y + direction);
+                    if ((occupancy & singlePush.bitboard) == Bitboard.EMPTY) {
+                        targets |= singlePush.bitboard;
+                        if (from.y == (piece.side == Side.WHITE ? 1 : 6)) {
+                            final Square doublePush = Square.fromCoordinates(from.x, from.y + 2 * direction);
+                            if ((occupancy & doublePush.bitboard) == Bitboard.EMPTY) {
+                                targets |= doublePush.bitboard;
+                            }
+                        }
+                    }
+                }
+                return targets;
+            case KNIGHT:
+                return TARGET_DATA.getKnightTargets(from);
+            case BISHOP:
+                return TARGET_DATA.getBishopTargets(from, occupancy);
+            case ROOK:
+                return TARGET_DATA.getRookTargets(from, occupancy);
+            default:
+                return TARGET_DATA.getQueenTargets(from, occupancy);
+        }
+    }
+
+    private boolean isLegalEnPassant(final Square from, final Square kingSquare, final long checkMask, final long toBitboard) {
+        final Square enPassantTarget = board.getEnPassantTarget();
+        if (enPassantTarget == null
+                || (enPassantTarget.bitboard & toBitboard) == Bitboard.EMPTY
+                || !board.squareIsEmpty(enPassantTarget)) {
+            return false;
+        }
+        final Side side = board.getSideToMove();
+        if ((TARGET_DATA.getPawnAttacks(from, side) & enPassantTarget.bitboard) == Bitboard.EMPTY) {
+            return false;
+        }
+        final Square capturedPawnSquare = Square.fromCoordinates(enPassantTarget.x, from.y);
+        if (board.getPiece(capturedPawnSquare) != Piece.fromPieceTypeAndSide(PieceType.PAWN, side.flip())) {
+            return false;
+        }
+        // The capture must resolve a check, either by removing the checking pawn or by blocking the check
+        if (((enPassantTarget.bitboard | capturedPawnSquare.bitboard) & checkMask) == Bitboard.EMPTY) {
+            return false;
+        }
+        if (kingSquare == null) {
+            return true;
+        }
+        // Both pawns leave their squares, which may discover a check along a rank, so the slider attacks are recomputed
+        final long occupancy = (board.getOccupancy() & ~from.bitboard & ~capturedPawnSquare.bitboard) | enPassantTarget.bitboard;
+        return getSliderAttackers(kingSquare, side.flip(), occupancy) == Bitboard.EMPTY;
+    }
+}
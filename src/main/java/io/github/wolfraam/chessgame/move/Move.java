@@ -3,12 +3,31 @@ package io.github.wolfraam.chessgame.move;
 import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Square;
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * A move for a chess player.
+ * <p>
+ * A move can be encoded as a 15 bit int: bits 0-5 contain the from square, bits 6-11 the to square and bits 12-14 the
+ * promotion (0 for none, otherwise the ordinal of the piece type plus 1). Whether a move is a castle, a capture or en
+ * passant follows from the board, so it is not encoded. {@link #of} and {@link #decode} return a shared instance for
+ * every encoding, so no new objects are created.
  */
 public class Move implements Serializable {
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Move[] MOVES = new Move[1 << 15];
+
+    static {
+        for (final Square from : Square.values()) {
+            for (final Square to : Square.values()) {
+                MOVES[encode(from, to, null)] = new Move(from, to, null);
+                for (final PieceType promotion : PIECE_TYPES) {
+                    MOVES[encode(from, to, promotion)] = new Move(from, to, promotion);
+                }
+            }
+        }
+    }
+
+    public final int encoding;
     public final Square from;
     public final PieceType promotion;
     public final Square to;
@@ -21,6 +40,45 @@ public class Move implements Serializable {
         this.from = from;
         this.to = to;
         this.promotion = promotion;
+        encoding = encode(from, to, promotion);
+    }
+
+    /**
+     * @return the shared move instance for the encoding
+     */
+    public static Move decode(final int encoding) {
+        return MOVES[encoding];
+    }
+
+    public static int encode(final Square from, final Square to, final PieceType promotion) {
+        return from.ordinal() | to.ordinal() << 6 | (promotion == null ? 0 : promotion.ordinal() + 1) << 12;
+    }
+
+    public static Square getFrom(final int encoding) {
+        return Square.fromIndex(encoding & 0x3F);
+    }
+
+    public static PieceType getPromotion(final int encoding) {
+        final int promotionCode = encoding >>> 12;
+        return promotionCode == 0 ? null : PIECE_TYPES[promotionCode - 1];
+    }
+
+    public static Square getTo(final int encoding) {
+        return Square.fromIndex((encoding >>> 6) & 0x3F);
+    }
+
+    /**
+     * @return the shared move instance
+     */
+    public static Move of(final Square from, final Square to) {
+        return MOVES[encode(from, to, null)];
+    }
+
+    /**
+     * @return the shared move instance
+     */
+    public static Move of(final Square from, final Square to, final PieceType promotion) {
+        return MOVES[encode(from, to, promotion)];
     }
 
     @Override
@@ -32,16 +90,20 @@ public class Move implements Serializable {
             return false;
         }
         final Move move = (Move) o;
-        return from == move.from && promotion == move.promotion && to == move.to;
+        return encoding == move.encoding;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(from, promotion, to);
+        return encoding;
     }
 
     @Override
     public String toString() {
         return from.name + "-" + to.name + (promotion == null ? "" : (" " + promotion.name()));
     }
+
+    private Object readResolve() {
+        return of(from, to, promotion);
+    }
 }
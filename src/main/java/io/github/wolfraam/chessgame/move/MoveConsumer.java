@@ -0,0 +1,9 @@
+package io.github.wolfraam.chessgame.move;
+
+/**
+ * Receives the moves of a move generation, one by one.
+ */
+@FunctionalInterface
+public interface MoveConsumer {
+    void accept(Move move);
+}
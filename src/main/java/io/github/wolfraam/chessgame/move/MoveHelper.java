@@ -1,11 +1,11 @@
 package io.github.wolfraam.chessgame.move;
 
+import io.github.wolfraam.chessgame.board.Bitboard;
 import io.github.wolfraam.chessgame.board.Board;
 import io.github.wolfraam.chessgame.board.Piece;
 import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
-import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
@@ -15,19 +15,21 @@ import java.util.Set;
  */
 public class MoveHelper implements Serializable {
     private final Board board;
+    private final LegalMoveGenerator legalMoveGenerator;
 
     public MoveHelper(final Board board) {
         this.board = board;
+        legalMoveGenerator = new LegalMoveGenerator(board);
     }
 
     public KingState getKingState(final Side kingSide, final boolean checkOnMate) {
-        final Square kingSquare = board.getSquares(Piece.fromPieceTypeAndSide(PieceType.KING, kingSide)).iterator().next();
+        final Square kingSquare = getKingSquare(kingSide);
         final TargetHelper targetHelper = new TargetHelper(board);
         targetHelper.setTo(kingSquare);
         targetHelper.setAttackOnly();
         final boolean isCheck = targetHelper.hasTargets(kingSide.flip());
         if (isCheck) {
-            if (checkOnMate && isMate()) {
+            if (checkOnMate && !hasLegalMoves()) {
                 return KingState.MATE;
             }
             return KingState.CHECK;
@@ -36,50 +38,65 @@ public class MoveHelper implements Serializable {
     }
 
     public KingState getKingStateAfterMove(final Side kingSide, final Move move, final boolean checkOnMate) {
-        return board.playMoveAndRollBack(move.from, move.to, move.promotion, () -> getKingState(kingSide, checkOnMate));
+        board.makeMove(move);
+        final KingState kingState = getKingState(kingSide, checkOnMate);
+        board.unmakeMove();
+        return kingState;
+    }
+
+    /**
+     * @return the number of legal moves, without creating the moves
+     */
+    public int countLegalMoves() {
+        return legalMoveGenerator.count(~Bitboard.EMPTY, ~Bitboard.EMPTY);
     }
 
     public Set<Move> getLegalMoves() {
         final Set<Move> moves = new HashSet<>();
-        for (final Square from : board.getOccupiedSquares()) {
-            if (board.getPiece(from).side == board.getSideToMove()) {
-                for (final Square to : new TargetHelper(board).getTargets(from)) {
-                    postProcessing(moves, from, to);
-                }
-            }
-        }
+        getLegalMoves(moves::add);
         return moves;
     }
 
+    /**
+     * Passes all legal moves to the consumer, for example a reusable {@link MoveList}.
+     */
+    public void getLegalMoves(final MoveConsumer moveConsumer) {
+        legalMoveGenerator.generate(~Bitboard.EMPTY, ~Bitboard.EMPTY, moveConsumer);
+    }
+
     public Set<Move> getLegalMoves(final Piece piece, final Square targetSquare) {
         final Set<Move> moves = new HashSet<>();
+        getLegalMoves(piece, targetSquare, moves::add);
+        return moves;
+    }
+
+    /**
+     * Passes the legal moves of the piece to the target square to the consumer.
+     */
+    public void getLegalMoves(final Piece piece, final Square targetSquare, final MoveConsumer moveConsumer) {
         if (piece.side == board.getSideToMove()) {
-            for (final Square from : board.getSquares(piece)) {
-                if (piece.pieceType != PieceType.PAWN || Math.abs(targetSquare.x - from.x) < 2) {
-                    final TargetHelper targetHelper = new TargetHelper(board);
-                    targetHelper.setTo(targetSquare);
-                    for (final Square to : targetHelper.getTargets(from)) {
-                        postProcessing(moves, from, to);
-                    }
-                }
-            }
+            legalMoveGenerator.generate(board.getBitboard(piece), targetSquare.bitboard, moveConsumer);
         }
-        return moves;
     }
 
     public Set<Move> getLegalMoves(final Square from) {
         final Set<Move> moves = new HashSet<>();
+        getLegalMoves(from, moves::add);
+        return moves;
+    }
+
+    /**
+     * Passes the legal moves of the piece on the square to the consumer.
+     */
+    public void getLegalMoves(final Square from, final MoveConsumer moveConsumer) {
         final Piece piece = board.getPiece(from);
         if (piece != null && piece.side == board.getSideToMove()) {
-            for (final Square to : new TargetHelper(board).getTargets(from)) {
-                postProcessing(moves, from, to);
-            }
+            legalMoveGenerator.generate(from.bitboard, ~Bitboard.EMPTY, moveConsumer);
         }
-        return moves;
     }
 
     public Set<Square> getSquaresAttackingKing(final Side kingSide) {
-        final Square kingSquare = board.getSquares(Piece.fromPieceTypeAndSide(PieceType.KING, kingSide)).iterator().next();
+        final Square kingSquare = getKingSquare(kingSide);
         final TargetHelper targetHelper = new TargetHelper(board);
         targetHelper.setTo(kingSquare);
         targetHelper.setAttackOnly();
@@ -87,100 +104,14 @@ public class MoveHelper implements Serializable {
     }
 
     public boolean hasLegalMoves() {
-        final Set<Move> moves = new HashSet<>();
-        for (final Square from : board.getOccupiedSquares()) {
-            if (board.getPiece(from).side == board.getSideToMove()) {
-                for (final Square to : new TargetHelper(board).getTargets(from)) {
-                    postProcessing(moves, from, to);
-                    if (!moves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return countLegalMoves() != 0;
     }
 
     public boolean isLegalMove(final Move move) {
-        final Piece piece = board.getPiece(move.from);
-        if (piece != null && piece.side == board.getSideToMove()) {
-            final TargetHelper targetHelper = new TargetHelper(board);
-            targetHelper.setTo(move.to);
-            final Set<Square> targets = targetHelper.getTargets(move.from);
-            if (!targets.isEmpty()) {
-                final Set<Move> moves = new HashSet<>();
-                postProcessing(moves, move.from, move.to);
-                return moves.contains(move);
-            }
-        }
-        return false;
+        return legalMoveGenerator.isLegal(move);
     }
 
-    private boolean hasTargets(final Square to) {
-        final TargetHelper targetHelper = new TargetHelper(board);
-        targetHelper.setTo(to);
-        targetHelper.setAttackOnly();
-        return targetHelper.hasTargets(board.getSideToMove().flip());
-    }
-
-    private boolean isIllegalCastle(final Square from, final Square to, final Piece piece) {
-        final CastleMoveType castleMoveType = CastleMoveType.determine(from, to, piece);
-        if (castleMoveType != null) {
-            // Is Check
-            final Square kingSquare = board.getSquares(Piece.fromPieceTypeAndSide(PieceType.KING, board.getSideToMove())).iterator().next();
-            if (hasTargets(kingSquare)) {
-                return true;
-            }
-            // Is "pass through" field attacked
-            return hasTargets(castleMoveType.rookTo);
-        }
-        return false;
-    }
-
-    // Prerequisite: check
-    private boolean isMate() {
-        for (final Square from : board.getOccupiedSquares()) {
-            final Piece piece = board.getPiece(from);
-            if (piece.side == board.getSideToMove()) {
-                for (final Square to : new TargetHelper(board).getTargets(from)) {
-                    if (!isIllegalCastle(from, to, piece)) {
-                        if (getKingStateAfterMove(board.getSideToMove(), new Move(from, to), false) == KingState.NORMAL) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
-    private void postProcessing(final Set<Move> moves, final Square from, final Square to) {
-
-        final Piece piece = board.getPiece(from);
-
-        final Move move;
-        if (piece.pieceType == PieceType.PAWN && (to.y == 0 || to.y == 7)) {
-            move = new Move(from, to, PieceType.QUEEN);
-        } else {
-            move = new Move(from, to);
-        }
-
-        // Check After Move
-        if (getKingStateAfterMove(board.getSideToMove(), move, false) != KingState.NORMAL) {
-            return;
-        }
-
-        // Illegal castle
-        if (isIllegalCastle(move.from, move.to, piece)) {
-            return;
-        }
-
-        moves.add(move);
-
-        if (move.promotion != null) {
-            moves.add(new Move(move.from, move.to, PieceType.ROOK));
-            moves.add(new Move(move.from, move.to, PieceType.BISHOP));
-            moves.add(new Move(move.from, move.to, PieceType.KNIGHT));
-        }
+    private Square getKingSquare(final Side kingSide) {
+        return Bitboard.first(board.getBitboard(Piece.fromPieceTypeAndSide(PieceType.KING, kingSide)));
     }
 }
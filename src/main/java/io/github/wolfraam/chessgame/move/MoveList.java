@@ -0,0 +1,67 @@
+package io.github.wolfraam.chessgame.move;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of moves, stored as encoded ints. It is meant to be reused: after {@link #clear()} the same buffer
+ * is filled again, so generating moves into it does not create garbage.
+ */
+public class MoveList implements MoveConsumer {
+    private int[] encodings;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(final int initialCapacity) {
+        encodings = new int[Math.max(1, initialCapacity)];
+    }
+
+    @Override
+    public void accept(final Move move) {
+        add(move.encoding);
+    }
+
+    public void add(final int encoding) {
+        if (size == encodings.length) {
+            encodings = Arrays.copyOf(encodings, size * 2);
+        }
+        encodings[size++] = encoding;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(final Move move) {
+        for (int i = 0; i < size; i++) {
+            if (encodings[i] == move.encoding) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the shared move instance at the index
+     */
+    public Move get(final int index) {
+        return Move.decode(getEncoding(index));
+    }
+
+    public int getEncoding(final int index) {
+        if (index < 0 || size <= index) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return encodings[index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.wolfraam.chessgame.move;
+
+/**
+ * The outcome of trying to play a move.
+ */
+public enum MoveStatus {
+    ILLEGAL_MOVE, INVALID_NOTATION, PLAYED
+}
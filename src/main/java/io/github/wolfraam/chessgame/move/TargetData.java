@@ -1,131 +1,216 @@
 package io.github.wolfraam.chessgame.move;
 
-import io.github.wolfraam.chessgame.board.Piece;
-import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Bitboard;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
-import java.util.EnumMap;
-import java.util.EnumSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
- * Contains all possible targets for a piece.
+ * Contains all possible targets for a piece, as bitboards.
+ * <p>
+ * The targets of bishops, rooks and queens depend on the occupancy of the board. They are looked up with magic
+ * bitboards: the occupied squares on the rays of the piece are multiplied by a per square magic number, and the top
+ * bits of the product are the index into a precomputed table of targets.
  */
 public class TargetData {
-    private final EnumMap<Square, Map<PieceType, Set<Square>>> kingAndKnightMap = new EnumMap<>(Square.class);
 
-    private final EnumMap<Square, Map<PieceType, List<List<Square>>>> otherMap = new EnumMap<>(Square.class);
+    private static final long[] BISHOP_MAGICS = {
+            0xA010041108003100L, 0x006082020A002900L, 0x6810010619200000L, 0x08281A0520000408L,
+            0x0001104001000400L, 0x0018901008048400L, 0x00040A0210245280L, 0x000200210808A402L,
+            0x9140048410821200L, 0x0800091010820041L, 0x20504804832202C0L, 0x0100091401081000L,
+            0x8021011140000012L, 0x0810020804450400L, 0x208B0542109008A2L, 0x0080084A08040204L,
+            0x0040E2A80811244CL, 0x2505022008008108L, 0x0430220100420040L, 0x010A040420220040L,
+            0x1105000290400000L, 0x0093001200822120L, 0x4000A62048043004L, 0x280120048A015004L,
+            0x006090002A020814L, 0x44042000240800D0L, 0x01102800040A4400L, 0x1004080080220040L,
+            0x0001001011004024L, 0x0010044000805040L, 0x0914041200820100L, 0x0004821012821480L,
+            0x0024040500C05021L, 0x0088611002080200L, 0x0116080A00040020L, 0x4000020080080080L,
+            0x2450450140840040L, 0x0000880201484100L, 0x0222020404020092L, 0x8081110600002E00L,
+            0x2842101105000801L, 0x1100809008001025L, 0x00020202221C0400L, 0x0422014022009020L,
+            0x0210046102100C00L, 0xC004008082029102L, 0x00AA461801101200L, 0x0404080080201108L,
+            0x020542108C205002L, 0x0410544804100100L, 0x0040910841100000L, 0x0400200042021100L,
+            0x00004204850400C0L, 0x0200100410A42102L, 0x1040020801210102L, 0x0805040410420000L,
+            0x2884804130100200L, 0x800C262201242000L, 0x1058000194108800L, 0x0014221054420204L,
+            0x0104000012A02200L, 0x0200881003300100L, 0x0140400202840100L, 0x0402020801010201L
+    };
 
-    private final EnumMap<Square, Map<Side, Set<Square>>> pawnMap = new EnumMap<>(Square.class);
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0442000A00049020L, 0x2100040080020080L, 0x0800120400900148L, 0x0010040A00128541L,
+            0x2800804000800030L, 0x1010002000400041L, 0x4000200011004100L, 0x0610008410800800L,
+            0x0400802402800800L, 0xC100020080800400L, 0x0002000802000401L, 0x0182085882000401L,
+            0x0220204000808000L, 0x2860100040024022L, 0x0001002004110040L, 0x99101042000A0020L,
+            0x0004080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
 
-    public Set<Square> getKingOrKnightTargets(final Square square, final Piece piece) {
-        return kingAndKnightMap.get(square).get(piece.pieceType);
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private final long[][] between = new long[64][64];
+    private final long[] bishopMasks = new long[64];
+    private final int[] bishopOffsets = new int[64];
+    private final int[] bishopShifts = new int[64];
+    private long[] bishopTable;
+    private final long[] kingTargets = new long[64];
+    private final long[] knightTargets = new long[64];
+    private final long[][] lines = new long[64][64];
+    private final long[][] pawnAttacks = new long[Side.values().length][64];
+    private final long[] rookMasks = new long[64];
+    private final int[] rookOffsets = new int[64];
+    private final int[] rookShifts = new int[64];
+    private long[] rookTable;
+
+    public long getBishopTargets(final Square square, final long occupancy) {
+        final int index = square.ordinal();
+        return bishopTable[bishopOffsets[index] + (int) (((occupancy & bishopMasks[index]) * BISHOP_MAGICS[index]) >>> bishopShifts[index])];
+    }
+
+    /**
+     * @return the squares between the two squares when they are on the same rank, file or diagonal, otherwise empty
+     */
+    public long getBetween(final Square square1, final Square square2) {
+        return between[square1.ordinal()][square2.ordinal()];
+    }
+
+    /**
+     * @return the targets of a king, without the castling targets
+     */
+    public long getKingTargets(final Square square) {
+        return kingTargets[square.ordinal()];
+    }
+
+    public long getKnightTargets(final Square square) {
+        return knightTargets[square.ordinal()];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal through both squares, or empty when the squares are not aligned
+     */
+    public long getLine(final Square square1, final Square square2) {
+        return lines[square1.ordinal()][square2.ordinal()];
     }
 
-    public List<List<Square>> getOtherTargets(final Square square, final Piece piece) {
-        return otherMap.get(square).get(piece.pieceType);
+    /**
+     * @return the squares attacked by a pawn of the side, the (double) pushes are not included
+     */
+    public long getPawnAttacks(final Square square, final Side side) {
+        return pawnAttacks[side.ordinal()][square.ordinal()];
     }
 
-    public Set<Square> getPawnTargets(final Square square, final Piece piece) {
-        return pawnMap.get(square).get(piece.side);
+    public long getQueenTargets(final Square square, final long occupancy) {
+        return getBishopTargets(square, occupancy) | getRookTargets(square, occupancy);
+    }
+
+    public long getRookTargets(final Square square, final long occupancy) {
+        final int index = square.ordinal();
+        return rookTable[rookOffsets[index] + (int) (((occupancy & rookMasks[index]) * ROOK_MAGICS[index]) >>> rookShifts[index])];
     }
 
     public TargetData init() {
         for (final Square square : Square.values()) {
-            for (final PieceType pieceType : PieceType.values()) {
-                switch (pieceType) {
-                    case PAWN:
-                        if (0 < square.y && square.y < 7) {
-                            for (final Side side : Side.values()) {
-                                final Set<Square> squareSet = EnumSet.noneOf(Square.class);
-                                final int newY = square.y + (side == Side.WHITE ? 1 : -1);
-                                addTarget(squareSet, square.x, newY);
-                                addTarget(squareSet, square.x + 1, newY);
-                                addTarget(squareSet, square.x - 1, newY);
-                                if (square.y == (side == Side.WHITE ? 1 : 6)) {
-                                    addTarget(squareSet, square.x, square.y + (side == Side.WHITE ? 2 : -2));
-                                }
-                                pawnMap.computeIfAbsent(square, k -> (new EnumMap<>(Side.class))).put(side, squareSet);
-                            }
-                        }
-                        break;
-                    case KNIGHT:
-                    case KING:
-                        final Set<Square> squareSet = EnumSet.noneOf(Square.class);
-                        addKingOrKnightTargets(pieceType, square, squareSet);
-                        kingAndKnightMap.computeIfAbsent(square, k -> (new EnumMap<>(PieceType.class))).put(pieceType, squareSet);
-                        break;
-                    case BISHOP:
-                    case ROOK:
-                    case QUEEN:
-                        final List<List<Square>> squareListList = new LinkedList<>();
-                        addOtherTargets(pieceType, square, squareListList);
-                        otherMap.computeIfAbsent(square, k -> (new EnumMap<>(PieceType.class))).put(pieceType, squareListList);
-                        break;
-                }
-            }
+            final int index = square.ordinal();
+
+            knightTargets[index] = getSteps(square, new int[][]{{2, 1}, {2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}});
+            kingTargets[index] = getSteps(square, new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}});
+            pawnAttacks[Side.WHITE.ordinal()][index] = getSteps(square, new int[][]{{1, 1}, {-1, 1}});
+            pawnAttacks[Side.BLACK.ordinal()][index] = getSteps(square, new int[][]{{1, -1}, {-1, -1}});
+
+            bishopMasks[index] = getRelevantOccupancyMask(square, BISHOP_DIRECTIONS);
+            bishopShifts[index] = 64 - Long.bitCount(bishopMasks[index]);
+            rookMasks[index] = getRelevantOccupancyMask(square, ROOK_DIRECTIONS);
+            rookShifts[index] = 64 - Long.bitCount(rookMasks[index]);
+
+            initBetweenAndLines(square, BISHOP_DIRECTIONS);
+            initBetweenAndLines(square, ROOK_DIRECTIONS);
         }
+        bishopTable = initTable(bishopMasks, bishopShifts, bishopOffsets, BISHOP_MAGICS, BISHOP_DIRECTIONS);
+        rookTable = initTable(rookMasks, rookShifts, rookOffsets, ROOK_MAGICS, ROOK_DIRECTIONS);
         return this;
     }
 
-    private void addKingOrKnightTargets(final PieceType pieceType, final Square square, final Set<Square> squareSet) {
-        if (pieceType == PieceType.KNIGHT) {
-            addTarget(squareSet, square.x + 2, square.y + 1);
-            addTarget(squareSet, square.x + 2, square.y - 1);
-            addTarget(squareSet, square.x + 1, square.y + 2);
-            addTarget(squareSet, square.x + 1, square.y - 2);
-            addTarget(squareSet, square.x - 1, square.y + 2);
-            addTarget(squareSet, square.x - 1, square.y - 2);
-            addTarget(squareSet, square.x - 2, square.y + 1);
-            addTarget(squareSet, square.x - 2, square.y - 1);
-        } else if (pieceType == PieceType.KING) {
-            addTarget(squareSet, square.x + 1, square.y);
-            addTarget(squareSet, square.x - 1, square.y);
-            addTarget(squareSet, square.x, square.y + 1);
-            addTarget(squareSet, square.x, square.y - 1);
-            addTarget(squareSet, square.x + 1, square.y + 1);
-            addTarget(squareSet, square.x - 1, square.y + 1);
-            addTarget(squareSet, square.x + 1, square.y - 1);
-            addTarget(squareSet, square.x - 1, square.y - 1);
-
-            if (square == Square.E1 || square == Square.E8) {
-                addTarget(squareSet, square.x + 2, square.y);
-                addTarget(squareSet, square.x - 2, square.y);
+    private long getRelevantOccupancyMask(final Square square, final int[][] directions) {
+        // The last square of a ray never blocks anything, so its occupancy is not relevant.
+        long mask = Bitboard.EMPTY;
+        for (final int[] direction : directions) {
+            for (int x = square.x + direction[0], y = square.y + direction[1];
+                 isOnBoard(x + direction[0], y + direction[1]);
+                 x += direction[0], y += direction[1]) {
+                mask |= Square.fromCoordinates(x, y).bitboard;
             }
         }
+        return mask;
     }
 
-    private void addOtherTargets(final PieceType pieceType, final Square square, final List<List<Square>> squareListList) {
-        if (pieceType == PieceType.BISHOP || pieceType == PieceType.QUEEN) {
-            squareListList.add(addTargetLine(square, 1, 1));
-            squareListList.add(addTargetLine(square, -1, 1));
-            squareListList.add(addTargetLine(square, -1, -1));
-            squareListList.add(addTargetLine(square, 1, -1));
+    private long getSlidingTargets(final Square square, final long occupancy, final int[][] directions) {
+        long targets = Bitboard.EMPTY;
+        for (final int[] direction : directions) {
+            for (int x = square.x + direction[0], y = square.y + direction[1];
+                 isOnBoard(x, y);
+                 x += direction[0], y += direction[1]) {
+                final long bitboard = Square.fromCoordinates(x, y).bitboard;
+                targets |= bitboard;
+                if ((occupancy & bitboard) != 0) {
+                    break;
+                }
+            }
         }
-        if (pieceType == PieceType.ROOK || pieceType == PieceType.QUEEN) {
-            squareListList.add(addTargetLine(square, 1, 0));
-            squareListList.add(addTargetLine(square, -1, 0));
-            squareListList.add(addTargetLine(square, 0, 1));
-            squareListList.add(addTargetLine(square, 0, -1));
+        return targets;
+    }
+
+    private long getSteps(final Square square, final int[][] steps) {
+        long targets = Bitboard.EMPTY;
+        for (final int[] step : steps) {
+            if (isOnBoard(square.x + step[0], square.y + step[1])) {
+                targets |= Square.fromCoordinates(square.x + step[0], square.y + step[1]).bitboard;
+            }
         }
+        return targets;
     }
 
-    private void addTarget(final Set<Square> targets, final int x, final int y) {
-        if (0 <= x && x < 8 && 0 <= y && y < 8) {
-            targets.add(Square.fromCoordinates(x, y));
+    private void initBetweenAndLines(final Square square, final int[][] directions) {
+        for (final int[] direction : directions) {
+            final long line = square.bitboard
+                    | getSlidingTargets(square, Bitboard.EMPTY, new int[][]{direction, {-direction[0], -direction[1]}});
+            long squaresBetween = Bitboard.EMPTY;
+            for (int x = square.x + direction[0], y = square.y + direction[1];
+                 isOnBoard(x, y);
+                 x += direction[0], y += direction[1]) {
+                final Square target = Square.fromCoordinates(x, y);
+                between[square.ordinal()][target.ordinal()] = squaresBetween;
+                lines[square.ordinal()][target.ordinal()] = line;
+                squaresBetween |= target.bitboard;
+            }
         }
     }
 
-    private List<Square> addTargetLine(final Square square, final int xIncrease, final int yIncrease) {
-        final List<Square> list = new LinkedList<>();
-        for (int x = square.x + xIncrease, y = square.y + yIncrease;
-             0 <= x && x < 8 && 0 <= y && y < 8;
-             x += xIncrease, y += yIncrease) {
-            list.add(Square.fromCoordinates(x, y));
+    private long[] initTable(final long[] masks, final int[] shifts, final int[] offsets, final long[] magics, final int[][] directions) {
+        int size = 0;
+        for (final Square square : Square.values()) {
+            offsets[square.ordinal()] = size;
+            size += 1 << (64 - shifts[square.ordinal()]);
         }
-        return list;
+        final long[] table = new long[size];
+        for (final Square square : Square.values()) {
+            final int index = square.ordinal();
+            // Enumerates all subsets of the mask
+            long occupancy = Bitboard.EMPTY;
+            do {
+                table[offsets[index] + (int) ((occupancy * magics[index]) >>> shifts[index])] = getSlidingTargets(square, occupancy, directions);
+                occupancy = (occupancy - masks[index]) & masks[index];
+            } while (occupancy != Bitboard.EMPTY);
+        }
+        return table;
+    }
+
+    private boolean isOnBoard(final int x, final int y) {
+        return 0 <= x && x < 8 && 0 <= y && y < 8;
     }
 }
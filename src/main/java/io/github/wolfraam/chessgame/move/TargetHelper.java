@@ -1,14 +1,12 @@
 package io.github.wolfraam.chessgame.move;
 
+import io.github.wolfraam.chessgame.board.Bitboard;
 import io.github.wolfraam.chessgame.board.Board;
 import io.github.wolfraam.chessgame.board.Piece;
-import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
 import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
-import java.util.Collections;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -16,7 +14,7 @@ import java.util.Set;
  */
 public class TargetHelper {
 
-    private static final TargetData TARGET_DATA = new TargetData().init();
+    static final TargetData TARGET_DATA = new TargetData().init();
     private boolean attackOnly;
     private final Board board;
     private Square to;
@@ -27,113 +25,93 @@ public class TargetHelper {
 
     public Set<Square> getFromSet(final Side side) {
         final Set<Square> returnSet = EnumSet.noneOf(Square.class);
-        for (final Square from : board.getOccupiedSquares()) {
-            final Piece piece = board.getPiece(from);
-            if (piece.side == side) {
-                final Set<Square> targets = getTargets(from);
-                if (!targets.isEmpty()) {
-                    returnSet.add(from);
-                }
+        long fromBitboard = board.getOccupancy(side);
+        while (fromBitboard != Bitboard.EMPTY) {
+            final Square from = Square.fromIndex(Long.numberOfTrailingZeros(fromBitboard));
+            fromBitboard &= fromBitboard - 1;
+            if (getTargetBitboard(from) != Bitboard.EMPTY) {
+                returnSet.add(from);
             }
         }
         return returnSet;
     }
 
-    public Set<Square> getTargets(final Square from) {
+    /**
+     * @return the targets of the piece on the square, as a bitboard
+     */
+    public long getTargetBitboard(final Square from) {
         final Piece piece = board.getPiece(from);
-        final Set<Square> returnSet = EnumSet.noneOf(Square.class);
+        final long occupancy = board.getOccupancy();
+        final long ownOccupancy = board.getOccupancy(piece.side);
+        long targets;
         switch (piece.pieceType) {
             case PAWN:
-                Set<Square> pawnTargets = TARGET_DATA.getPawnTargets(from, piece);
-                if (to != null) {
-                    if (pawnTargets.contains(to)) {
-                        pawnTargets = Collections.singleton(to);
-                    } else {
-                        pawnTargets = Collections.emptySet();
-                    }
-                }
-                for (final Square potentialTo : pawnTargets) {
-                    final boolean doubleMove = Math.abs(potentialTo.y - from.y) == 2;
-                    final boolean capture = potentialTo.x != from.x;
-                    final Piece targetPiece = board.getPiece(potentialTo);
-                    if (doubleMove) {
-                        final Square inBetweenSquare = Square.fromCoordinates(potentialTo.x, potentialTo.y + (board.getSideToMove() == Side.WHITE ? -1 : 1));
-                        if (targetPiece == null && board.getPiece(inBetweenSquare) == null && !attackOnly) {
-                            returnSet.add(potentialTo);
-                        }
-                    } else if (capture) {
-                        if (targetPiece != null && targetPiece.side != piece.side) {
-                            returnSet.add(potentialTo);
-                        }
-                        if (targetPiece == null && attackOnly) {
-                            returnSet.add(potentialTo);
-                        }
-                        if (board.isEnPassant(from, potentialTo)) {
-                            returnSet.add(potentialTo);
-                        }
-                    } else {
-                        if (targetPiece == null && !attackOnly) {
-                            returnSet.add(potentialTo);
+                targets = TARGET_DATA.getPawnAttacks(from, piece.side);
+                if (attackOnly) {
+                    targets &= ~ownOccupancy;
+                } else {
+                    final Square enPassantTarget = board.getEnPassantTarget();
+                    final long enPassantBitboard = enPassantTarget == null ? Bitboard.EMPTY : enPassantTarget.bitboard & ~occupancy;
+                    targets &= board.getOccupancy(piece.side.flip()) | enPassantBitboard;
+
+                    if (0 < from.y && from.y < 7) {
+                        final int direction = piece.side == Side.WHITE ? 1 : -1;
+                        final Square singlePush = Square.fromCoordinates(from.x, from.y + direction);
+                        if ((occupancy & singlePush.bitboard) == 0) {
+                            targets |= singlePush.bitboard;
+                            if (from.y == (piece.side == Side.WHITE ? 1 : 6)) {
+                                final Square doublePush = Square.fromCoordinates(from.x, from.y + 2 * direction);
+                                if ((occupancy & doublePush.bitboard) == 0) {
+                                    targets |= doublePush.bitboard;
+                                }
+                            }
                         }
                     }
                 }
                 break;
             case KNIGHT:
+                targets = TARGET_DATA.getKnightTargets(from) & ~ownOccupancy;
+                break;
             case KING:
-                Set<Square> kingOrKnightTargets = TARGET_DATA.getKingOrKnightTargets(from, piece);
-                if (to != null) {
-                    if (kingOrKnightTargets.contains(to)) {
-                        kingOrKnightTargets = Collections.singleton(to);
-                    } else {
-                        kingOrKnightTargets = Collections.emptySet();
-                    }
-                }
-                for (final Square potentialTo : kingOrKnightTargets) {
-                    if (piece.pieceType == PieceType.KING && Math.abs(from.x - potentialTo.x) == 2) {
-                        final CastleMoveType castleMoveType = CastleMoveType.determine(from, potentialTo, piece);
-                        if (castleMoveType != null) {
-                            if (!attackOnly) {
-                                if (canCastle(castleMoveType)) {
-                                    returnSet.add(potentialTo);
-                                }
-                            }
-                        }
-                    } else {
-                        final Piece targetPiece = board.getPiece(potentialTo);
-                        if (targetPiece == null || targetPiece.side != piece.side) {
-                            returnSet.add(potentialTo);
+                targets = TARGET_DATA.getKingTargets(from) & ~ownOccupancy;
+                if (!attackOnly) {
+                    for (final CastleMoveType castleMoveType : CastleMoveType.values()) {
+                        if (castleMoveType.side == piece.side && castleMoveType.kingFrom == from && canCastle(castleMoveType)) {
+                            targets |= castleMoveType.kingTo.bitboard;
                         }
                     }
                 }
                 break;
+            case BISHOP:
+                targets = TARGET_DATA.getBishopTargets(from, occupancy) & ~ownOccupancy;
+                break;
+            case ROOK:
+                targets = TARGET_DATA.getRookTargets(from, occupancy) & ~ownOccupancy;
+                break;
             default:
-                final List<List<Square>> squareListList = TARGET_DATA.getOtherTargets(from, piece);
-                for (final List<Square> squareList : squareListList) {
-                    for (final Square potentialTo : squareList) {
-                        final Piece targetPiece = board.getPiece(potentialTo);
-                        if (targetPiece == null || targetPiece.side != piece.side) {
-                            if (to == null || to == potentialTo) {
-                                returnSet.add(potentialTo);
-                            }
-                        }
-                        if (targetPiece != null) {
-                            break;
-                        }
-                    }
-                }
+                targets = TARGET_DATA.getQueenTargets(from, occupancy) & ~ownOccupancy;
                 break;
         }
-        return returnSet;
+        if (to != null) {
+            targets &= to.bitboard;
+        }
+        return targets;
+    }
+
+    /**
+     * @return a read only view of the targets of the piece on the square
+     */
+    public Set<Square> getTargets(final Square from) {
+        return Bitboard.toSet(getTargetBitboard(from));
     }
 
     public boolean hasTargets(final Side side) {
-        for (final Square from : board.getOccupiedSquares()) {
-            final Piece piece = board.getPiece(from);
-            if (piece.side == side) {
-                final Set<Square> targets = getTargets(from);
-                if (!targets.isEmpty()) {
-                    return true;
-                }
+        long fromBitboard = board.getOccupancy(side);
+        while (fromBitboard != Bitboard.EMPTY) {
+            final Square from = Square.fromIndex(Long.numberOfTrailingZeros(fromBitboard));
+            fromBitboard &= fromBitboard - 1;
+            if (getTargetBitboard(from) != Bitboard.EMPTY) {
+                return true;
             }
         }
         return false;
@@ -149,16 +127,7 @@ public class TargetHelper {
 
     private boolean canCastle(final CastleMoveType castleMoveType) {
         return board.canCastle(castleMoveType)
-                && squaresAreEmpty(castleMoveType.requiringEmptySquares)
+                && (board.getOccupancy() & castleMoveType.requiringEmptySquaresBitboard) == Bitboard.EMPTY
                 && board.getPiece(castleMoveType.rookFrom) == castleMoveType.rookPiece;
     }
-
-    private boolean squaresAreEmpty(final Set<Square> squares) {
-        for (final Square square : squares) {
-            if (!board.squareIsEmpty(square)) {
-                return false;
-            }
-        }
-        return true;
-    }
 }
@@ -40,7 +40,10 @@ public enum CastleMoveType {
     }
 
     public final CastleType castleType;
+    public final Square kingFrom;
+    public final Square kingTo;
     public final Set<Square> requiringEmptySquares;
+    public final long requiringEmptySquaresBitboard;
     public final Square rookFrom;
     public final Piece rookPiece;
     public final Square rookTo;
@@ -56,13 +59,19 @@ public enum CastleMoveType {
             case KING_SIDE:
                 switch (side) {
                     case BLACK:
+                        kingFrom = Square.E8;
+                        kingTo = Square.G8;
                         requiringEmptySquares = EnumSet.of(Square.F8, Square.G8);
+                        requiringEmptySquaresBitboard = Square.F8.bitboard | Square.G8.bitboard;
                         rookFrom = Square.H8;
                         rookTo = Square.F8;
                         return;
                     case WHITE:
                     default:
+                        kingFrom = Square.E1;
+                        kingTo = Square.G1;
                         requiringEmptySquares = EnumSet.of(Square.F1, Square.G1);
+                        requiringEmptySquaresBitboard = Square.F1.bitboard | Square.G1.bitboard;
                         rookFrom = Square.H1;
                         rookTo = Square.F1;
                         return;
@@ -71,13 +80,19 @@ public enum CastleMoveType {
             case QUEEN_SIDE:
                 switch (side) {
                     case BLACK:
+                        kingFrom = Square.E8;
+                        kingTo = Square.C8;
                         requiringEmptySquares = EnumSet.of(Square.B8, Square.C8, Square.D8);
+                        requiringEmptySquaresBitboard = Square.B8.bitboard | Square.C8.bitboard | Square.D8.bitboard;
                         rookFrom = Square.A8;
                         rookTo = Square.D8;
                         return;
                     default:
                     case WHITE:
+                        kingFrom = Square.E1;
+                        kingTo = Square.C1;
                         requiringEmptySquares = EnumSet.of(Square.B1, Square.C1, Square.D1);
+                        requiringEmptySquaresBitboard = Square.B1.bitboard | Square.C1.bitboard | Square.D1.bitboard;
                         rookFrom = Square.A1;
                         rookTo = Square.D1;
                         return;
@@ -0,0 +1,138 @@
+package io.github.wolfraam.chessgame.notation;
+
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.move.KingState;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.castle.CastleType;
+
+/**
+ * Everything the notations of a legal move depend on, computed once for the position before the move. The notation
+ * in any notation type and language is rendered from it without looking at the board again.
+ */
+public class MoveDescription {
+    private static final NotationMapping DEFAULT_NOTATION_MAPPING = LanguageSettings.getNotationMapping("en");
+
+    static void appendKingState(final KingState kingState, final StringBuilder stringBuilder) {
+        if (kingState == KingState.CHECK) {
+            stringBuilder.append('+');
+        } else if (kingState == KingState.MATE) {
+            stringBuilder.append('#');
+        }
+    }
+
+    static void appendUciNotation(final Move move, final StringBuilder stringBuilder) {
+        stringBuilder.append(move.from.name);
+        stringBuilder.append(move.to.name);
+        if (move.promotion != null) {
+            stringBuilder.append(NotationHelper.NOTATION_MAPPING_UCI.getNotation(move.promotion));
+        }
+    }
+
+    public final boolean capture;
+    // Null when the move is not a castle move
+    public final CastleType castleType;
+    // Whether the SAN contains the file of the from square, for a pawn capture or to tell the move apart from the moves
+    // of the same pieces
+    public final boolean fileDisambiguation;
+    // The state of the king of the opponent after the move
+    public final KingState kingState;
+    public final Move move;
+    public final PieceType pieceType;
+    // Whether the SAN contains the rank of the from square to tell the move apart from the moves of the same pieces
+    public final boolean rankDisambiguation;
+
+    MoveDescription(final Move move, final PieceType pieceType, final CastleType castleType, final boolean capture,
+                    final boolean fileDisambiguation, final boolean rankDisambiguation, final KingState kingState) {
+        this.move = move;
+        this.pieceType = pieceType;
+        this.castleType = castleType;
+        this.capture = capture;
+        this.fileDisambiguation = fileDisambiguation;
+        this.rankDisambiguation = rankDisambiguation;
+        this.kingState = kingState;
+    }
+
+    /**
+     * Appends the notation of the move in the notation type, with the piece notations of the mapping. FAN and UCI
+     * have their own piece notations.
+     */
+    public void appendNotation(final NotationType notationType, final NotationMapping notationMapping, final StringBuilder stringBuilder) {
+        switch (notationType) {
+            case SAN -> appendSanNotation(notationMapping, stringBuilder);
+            case FAN -> appendSanNotation(NotationHelper.NOTATION_MAPPING_FAN, stringBuilder);
+            case LAN -> appendLanNotation(notationMapping, stringBuilder);
+            case UCI -> appendUciNotation(move, stringBuilder);
+        }
+    }
+
+    /**
+     * @return the notation of the move in the notation type, in English
+     */
+    public String getNotation(final NotationType notationType) {
+        return getNotation(notationType, DEFAULT_NOTATION_MAPPING);
+    }
+
+    /**
+     * @return the notation of the move in the notation type and the language, English when the language is unknown
+     */
+    public String getNotation(final NotationType notationType, final String languageCode) {
+        final NotationMapping notationMapping = LanguageSettings.getNotationMapping(languageCode);
+        return getNotation(notationType, notationMapping == null ? DEFAULT_NOTATION_MAPPING : notationMapping);
+    }
+
+    /**
+     * @return the notation of the move in the notation type, with the piece notations of the mapping
+     */
+    public String getNotation(final NotationType notationType, final NotationMapping notationMapping) {
+        final StringBuilder stringBuilder = new StringBuilder(12);
+        appendNotation(notationType, notationMapping, stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getNotation(NotationType.SAN);
+    }
+
+    private void appendLanNotation(final NotationMapping notationMapping, final StringBuilder stringBuilder) {
+        if (castleType != null) {
+            stringBuilder.append(castleType.notation);
+        } else {
+            stringBuilder.append(notationMapping.getNotation(pieceType));
+            stringBuilder.append(move.from.name);
+            stringBuilder.append(capture ? 'x' : '-');
+            stringBuilder.append(move.to.name);
+            appendPromotion(notationMapping, stringBuilder);
+        }
+        appendKingState(kingState, stringBuilder);
+    }
+
+    private void appendPromotion(final NotationMapping notationMapping, final StringBuilder stringBuilder) {
+        if (move.promotion != null) {
+            stringBuilder.append('=');
+            stringBuilder.append(notationMapping.getNotation(move.promotion));
+        }
+    }
+
+    private void appendSanNotation(final NotationMapping notationMapping, final StringBuilder stringBuilder) {
+        if (castleType != null) {
+            stringBuilder.append(castleType.notation);
+        } else {
+            if (pieceType != PieceType.PAWN) {
+                stringBuilder.append(notationMapping.getNotation(pieceType));
+            }
+            if (fileDisambiguation) {
+                stringBuilder.append(move.from.name.charAt(0));
+            }
+            if (rankDisambiguation) {
+                stringBuilder.append(move.from.name.charAt(1));
+            }
+            if (capture) {
+                stringBuilder.append('x');
+            }
+            stringBuilder.append(move.to.name);
+            appendPromotion(notationMapping, stringBuilder);
+        }
+        appendKingState(kingState, stringBuilder);
+    }
+}
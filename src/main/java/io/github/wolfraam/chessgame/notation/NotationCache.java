@@ -0,0 +1,70 @@
+package io.github.wolfraam.chessgame.notation;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the notations of the played moves of a game per ply, for each notation type and notation mapping. A ply of
+ * which the notation has not been cached yet has a null notation.
+ */
+public class NotationCache implements Cloneable {
+
+    private final Map<NotationType, Map<NotationMapping, List<String>>> notationType2Notations = new EnumMap<>(NotationType.class);
+
+    @Override
+    @SuppressWarnings("all")
+    public NotationCache clone() {
+        final NotationCache notationCache = new NotationCache();
+        for (final Map.Entry<NotationType, Map<NotationMapping, List<String>>> entry : notationType2Notations.entrySet()) {
+            final Map<NotationMapping, List<String>> notationMapping2Notations = new HashMap<>();
+            for (final Map.Entry<NotationMapping, List<String>> notationsEntry : entry.getValue().entrySet()) {
+                notationMapping2Notations.put(notationsEntry.getKey(), new ArrayList<>(notationsEntry.getValue()));
+            }
+            notationCache.notationType2Notations.put(entry.getKey(), notationMapping2Notations);
+        }
+        return notationCache;
+    }
+
+    /**
+     * @return the cached notation of the move of the ply, or null when it has not been cached
+     */
+    public String get(final NotationType notationType, final NotationMapping notationMapping, final int ply) {
+        final Map<NotationMapping, List<String>> notationMapping2Notations = notationType2Notations.get(notationType);
+        if (notationMapping2Notations == null) {
+            return null;
+        }
+        final List<String> notations = notationMapping2Notations.get(getKey(notationType, notationMapping));
+        return notations == null || notations.size() <= ply ? null : notations.get(ply);
+    }
+
+    public void put(final NotationType notationType, final NotationMapping notationMapping, final int ply, final String notation) {
+        final List<String> notations = notationType2Notations
+                .computeIfAbsent(notationType, key -> new HashMap<>())
+                .computeIfAbsent(getKey(notationType, notationMapping), key -> new ArrayList<>());
+        while (notations.size() <= ply) {
+            notations.add(null);
+        }
+        notations.set(ply, notation);
+    }
+
+    /**
+     * Removes the notations of the plies from the ply count onwards, for example after moves have been taken back.
+     */
+    public void truncate(final int plyCount) {
+        for (final Map<NotationMapping, List<String>> notationMapping2Notations : notationType2Notations.values()) {
+            for (final List<String> notations : notationMapping2Notations.values()) {
+                if (plyCount < notations.size()) {
+                    notations.subList(plyCount, notations.size()).clear();
+                }
+            }
+        }
+    }
+
+    // UCI and FAN do not depend on the language
+    private NotationMapping getKey(final NotationType notationType, final NotationMapping notationMapping) {
+        return notationType == NotationType.SAN || notationType == NotationType.LAN ? notationMapping : null;
+    }
+}
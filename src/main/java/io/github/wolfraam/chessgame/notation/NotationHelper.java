@@ -1,162 +1,139 @@
 package io.github.wolfraam.chessgame.notation;
 
+import io.github.wolfraam.chessgame.board.Bitboard;
 import io.github.wolfraam.chessgame.board.Board;
 import io.github.wolfraam.chessgame.board.Piece;
 import io.github.wolfraam.chessgame.board.PieceType;
-import io.github.wolfraam.chessgame.board.Square;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
 import io.github.wolfraam.chessgame.move.KingState;
+import io.github.wolfraam.chessgame.move.LegalMoveGenerator;
 import io.github.wolfraam.chessgame.move.Move;
 import io.github.wolfraam.chessgame.move.MoveHelper;
 import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
 import io.github.wolfraam.chessgame.notation.lan.LanParser;
 import io.github.wolfraam.chessgame.notation.san.SanParser;
-import java.util.HashSet;
-import java.util.Set;
+import io.github.wolfraam.chessgame.notation.uci.UciParser;
 
 /**
  * Parses or formats a move in a notation type.
+ * <p>
+ * The parsers are created when they are first needed and reused, so a helper which is reused parses moves without
+ * creating garbage.
  */
 public class NotationHelper {
 
-    private static final NotationMapping NOTATION_MAPPING_FAN = new NotationMapping("♚", "♛", "♜", "♝", "♞");
-    private static final NotationMapping NOTATION_MAPPING_UCI = new NotationMapping("k", "q", "r", "b", "n");
+    static final NotationMapping NOTATION_MAPPING_FAN = new NotationMapping("♚", "♛", "♜", "♝", "♞");
+    static final NotationMapping NOTATION_MAPPING_UCI = new NotationMapping("k", "q", "r", "b", "n");
+    private static final UciParser UCI_PARSER = new UciParser();
 
-    public Move getMove(final NotationMapping notationMapping, final Board board, final NotationType notationType, final String moveString) {
-        return switch (notationType) {
-            case SAN -> new SanParser().convertToMove(board, notationMapping, moveString);
-            case UCI -> new Move(Square.fromName(moveString.substring(0, 2)),
-                    Square.fromName(moveString.substring(2, 4)),
-                    moveString.length() < 5 ? null : NOTATION_MAPPING_UCI.getPieceType(moveString.substring(4, 5)));
-            case LAN -> new LanParser().convertToMove(board, notationMapping, moveString);
-            case FAN -> new SanParser().convertToMove(board, NOTATION_MAPPING_FAN, moveString);
-        };
-    }
-
-    public String getMoveNotation(final NotationMapping notationMapping, final Board board, final NotationType notationType, final Move move) {
-        if (!new MoveHelper(board).isLegalMove(move)) {
-            throw new IllegalMoveException("Move " + move + " is illegal");
-        }
-
-        return switch (notationType) {
-            case SAN -> getSanNotation(board, notationMapping, move);
-            case UCI -> getUciNotation(move);
-            case LAN -> getLanNotation(board, notationMapping, move);
-            case FAN -> getSanNotation(board, NOTATION_MAPPING_FAN, move);
-        };
+    private LanParser lanParser;
+    private SanParser sanParser;
 
+    /**
+     * Appends the check or mate suffix of the king state of the side to move after the move.
+     */
+    public void appendKingState(final KingState kingState, final StringBuilder stringBuilder) {
+        MoveDescription.appendKingState(kingState, stringBuilder);
     }
 
-    private void appendKingState(final Board board, final Move move, final StringBuilder stringBuilder) {
-        final KingState kingState = new MoveHelper(board).getKingStateAfterMove(board.getSideToMove().flip(), move, true);
-        if (kingState == KingState.CHECK) {
-            stringBuilder.append('+');
-        } else if (kingState == KingState.MATE) {
-            stringBuilder.append('#');
-        }
+    /**
+     * Appends the SAN of the move without the check or mate suffix. The move is not checked for legality. The
+     * disambiguation is determined by counting the legal moves of the same pieces, no moves are created.
+     */
+    public void appendSanNotation(final NotationMapping notationMapping, final Board board, final Move move, final StringBuilder stringBuilder) {
+        createMoveDescription(board, move, KingState.NORMAL).appendNotation(NotationType.SAN, notationMapping, stringBuilder);
     }
 
-
-    private boolean disambiguatesToOneMoveByFile(final Set<Move> legalMoves, final Square from) {
-        final Set<Move> moves = new HashSet<>(legalMoves);
-        moves.removeIf(move -> move.from.name.charAt(0) != from.name.charAt(0));
-        return moves.size() == 1;
+    /**
+     * @return the description of the legal move, from which the notation in every notation type and language can be
+     * rendered. The capture, the disambiguation and the state of the king after the move are computed once.
+     * @throws IllegalMoveException if the move is illegal
+     */
+    public MoveDescription describeMove(final Board board, final Move move) {
+        if (!new LegalMoveGenerator(board).isLegal(move)) {
+            throw new IllegalMoveException("Move " + move + " is illegal");
+        }
+        final KingState kingState = new MoveHelper(board).getKingStateAfterMove(board.getSideToMove().flip(), move, true);
+        return createMoveDescription(board, move, kingState);
     }
 
-    private boolean disambiguatesToOneMoveByRow(final Set<Move> legalMoves, final Square from) {
-        final Set<Move> moves = new HashSet<>(legalMoves);
-        moves.removeIf(move -> move.from.name.charAt(1) != from.name.charAt(1));
-        return moves.size() == 1;
+    public Move getMove(final NotationMapping notationMapping, final Board board, final NotationType notationType, final String moveString) {
+        return getMove(notationMapping, board, notationType, moveString, 0, moveString.length());
     }
 
-    private String getLanNotation(final Board board, final NotationMapping notationMapping, final Move move) {
-        final Piece piece = board.getPiece(move.from);
-        final StringBuilder stringBuilder = new StringBuilder();
-        final CastleMoveType castleMoveType = CastleMoveType.determine(move.from, move.to, piece);
-        if (castleMoveType != null) {
-            stringBuilder.append(castleMoveType.castleType.notation);
-        } else {
-            boolean isCapture = board.getPiece(move.to) != null;
-            if (!isCapture && board.isEnPassant(move.from, move.to)) {
-                // En passant
-                isCapture = true;
-            }
-
-            stringBuilder.append(notationMapping.getNotation(piece.pieceType));
-            stringBuilder.append(move.from.name);
-
-            if (isCapture) {
-                stringBuilder.append('x');
-            } else {
-                stringBuilder.append('-');
+    /**
+     * @return the move of the notation of the length at the offset of the char sequence. The UCI notation is not
+     * checked for legality.
+     * @throws IllegalMoveException if the notation is not correct
+     */
+    public Move getMove(final NotationMapping notationMapping, final Board board, final NotationType notationType,
+                        final CharSequence charSequence, final int offset, final int length) {
+        return switch (notationType) {
+            case SAN -> getSanParser().convertToMove(board, notationMapping, charSequence, offset, length);
+            case UCI -> {
+                final int encoding = UCI_PARSER.parse(charSequence, offset, length);
+                if (encoding == UciParser.NO_MOVE) {
+                    throw new IllegalMoveException("Move " + charSequence.subSequence(offset, offset + length) + " is illegal");
+                }
+                yield Move.decode(encoding);
             }
+            case LAN -> getLanParser().convertToMove(board, notationMapping, charSequence, offset, length);
+            case FAN -> getSanParser().convertToMove(board, NOTATION_MAPPING_FAN, charSequence, offset, length);
+        };
+    }
 
-            stringBuilder.append(move.to.name);
-
-            if (move.promotion != null) {
-                stringBuilder.append('=');
-                stringBuilder.append(notationMapping.getNotation(move.promotion));
+    public String getMoveNotation(final NotationMapping notationMapping, final Board board, final NotationType notationType, final Move move) {
+        if (notationType == NotationType.UCI) {
+            // The UCI notation depends on the move only
+            if (!new LegalMoveGenerator(board).isLegal(move)) {
+                throw new IllegalMoveException("Move " + move + " is illegal");
             }
+            final StringBuilder stringBuilder = new StringBuilder(5);
+            MoveDescription.appendUciNotation(move, stringBuilder);
+            return stringBuilder.toString();
         }
-
-        appendKingState(board, move, stringBuilder);
-        return stringBuilder.toString();
+        return describeMove(board, move).getNotation(notationType, notationMapping);
     }
 
-    private String getSanNotation(final Board board, final NotationMapping notationMapping, final Move move) {
+    private MoveDescription createMoveDescription(final Board board, final Move move, final KingState kingState) {
         final Piece piece = board.getPiece(move.from);
-        final Set<Move> legalMoves = new MoveHelper(board).getLegalMoves(piece, move.to);
-        final StringBuilder stringBuilder = new StringBuilder();
-
         final CastleMoveType castleMoveType = CastleMoveType.determine(move.from, move.to, piece);
-        if (castleMoveType != null) {
-            stringBuilder.append(castleMoveType.castleType.notation);
-        } else {
-            boolean isCapture = board.getPiece(move.to) != null;
-            if (!isCapture && board.isEnPassant(move.from, move.to)) {
-                // En passant
-                isCapture = true;
-            }
-
-            if (piece.pieceType != PieceType.PAWN) {
-                stringBuilder.append(notationMapping.getNotation(piece.pieceType));
-
-                if (1 < legalMoves.size()) {
-                    if (disambiguatesToOneMoveByFile(legalMoves, move.from)) {
-                        stringBuilder.append(move.from.name.charAt(0));
-                    } else if (disambiguatesToOneMoveByRow(legalMoves, move.from)) {
-                        stringBuilder.append(move.from.name.charAt(1));
+        final boolean isCapture = board.getPiece(move.to) != null || board.isEnPassant(move.from, move.to);
+        boolean fileDisambiguation = false;
+        boolean rankDisambiguation = false;
+        if (castleMoveType == null) {
+            if (piece.pieceType == PieceType.PAWN) {
+                fileDisambiguation = isCapture;
+            } else {
+                final LegalMoveGenerator legalMoveGenerator = new LegalMoveGenerator(board);
+                final long pieceBitboard = board.getBitboard(piece);
+                if (1 < legalMoveGenerator.count(pieceBitboard, move.to.bitboard)) {
+                    if (legalMoveGenerator.count(pieceBitboard & Bitboard.file(move.from.x), move.to.bitboard) == 1) {
+                        fileDisambiguation = true;
+                    } else if (legalMoveGenerator.count(pieceBitboard & Bitboard.rank(move.from.y), move.to.bitboard) == 1) {
+                        rankDisambiguation = true;
                     } else {
-                        stringBuilder.append(move.from.name);
+                        fileDisambiguation = true;
+                        rankDisambiguation = true;
                     }
                 }
-            } else {
-                if (isCapture) {
-                    stringBuilder.append(move.from.name.charAt(0));
-                }
-            }
-
-            if (isCapture) {
-                stringBuilder.append('x');
-            }
-
-            stringBuilder.append(move.to.name);
-
-            if (move.promotion != null) {
-                stringBuilder.append('=');
-                stringBuilder.append(notationMapping.getNotation(move.promotion));
             }
         }
+        return new MoveDescription(move, piece.pieceType, castleMoveType == null ? null : castleMoveType.castleType, isCapture,
+                fileDisambiguation, rankDisambiguation, kingState);
+    }
 
-        appendKingState(board, move, stringBuilder);
-        return stringBuilder.toString();
+    private LanParser getLanParser() {
+        if (lanParser == null) {
+            lanParser = new LanParser();
+        }
+        return lanParser;
     }
 
-    private String getUciNotation(final Move move) {
-        final String firstPart = move.from.name + move.to.name;
-        if (move.promotion == null) {
-            return firstPart;
+    private SanParser getSanParser() {
+        if (sanParser == null) {
+            sanParser = new SanParser();
         }
-        return firstPart + NOTATION_MAPPING_UCI.getNotation(move.promotion);
+        return sanParser;
     }
 }
@@ -1,6 +1,8 @@
 package io.github.wolfraam.chessgame.notation;
 
 import io.github.wolfraam.chessgame.board.PieceType;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,7 +12,12 @@ import java.util.Map;
  */
 public class NotationMapping {
     private final Map<String, PieceType> notation2PieceType = new HashMap<>();
+    // The notations of the non pawn pieces, the longest first, so that a notation which starts with the notation of
+    // another piece, like the Russian "Кр" and "К", is matched first
+    private final String[] notationsByLength;
     private final Map<PieceType, String> pieceType2Notation = new EnumMap<>(PieceType.class);
+    // The piece types of the notations by length
+    private final PieceType[] pieceTypesByLength;
 
     public NotationMapping(final String k, final String q, final String r, final String b, final String n) {
         if (k == null
@@ -32,6 +39,11 @@ public class NotationMapping {
         pieceType2Notation.put(PieceType.ROOK, r);
         pieceType2Notation.put(PieceType.BISHOP, b);
         pieceType2Notation.put(PieceType.KNIGHT, n);
+
+        pieceTypesByLength = PieceType.NON_PAWNS.stream()
+                .sorted(Comparator.comparingInt(pieceType -> -pieceType2Notation.get(pieceType).length()))
+                .toArray(PieceType[]::new);
+        notationsByLength = Arrays.stream(pieceTypesByLength).map(pieceType2Notation::get).toArray(String[]::new);
     }
 
     public String getNotation(final PieceType pieceType) {
@@ -41,7 +53,30 @@ public class NotationMapping {
         return pieceType2Notation.get(pieceType);
     }
 
+    /**
+     * @return the non pawn piece type whose notation starts at the index of the char sequence and ends at or before the
+     * end, or null when there is none. The longest matching notation wins. Nothing is allocated.
+     */
+    public PieceType getPieceType(final CharSequence charSequence, final int index, final int end) {
+        for (int i = 0; i < notationsByLength.length; i++) {
+            final String notation = notationsByLength[i];
+            if (notation.length() <= end - index && regionMatches(charSequence, index, notation)) {
+                return pieceTypesByLength[i];
+            }
+        }
+        return null;
+    }
+
     public PieceType getPieceType(final String notation) {
         return notation2PieceType.get(notation);
     }
+
+    private boolean regionMatches(final CharSequence charSequence, final int index, final String notation) {
+        for (int i = 0; i < notation.length(); i++) {
+            if (charSequence.charAt(index + i) != notation.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
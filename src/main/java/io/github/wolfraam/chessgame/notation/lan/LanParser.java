@@ -1,112 +1,124 @@
 package io.github.wolfraam.chessgame.notation.lan;
 
 import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
 import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
+import io.github.wolfraam.chessgame.move.LegalMoveGenerator;
 import io.github.wolfraam.chessgame.move.Move;
-import io.github.wolfraam.chessgame.move.MoveHelper;
+import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
+import io.github.wolfraam.chessgame.move.castle.CastleType;
 import io.github.wolfraam.chessgame.notation.NotationMapping;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parses LAN moves.
+ * <p>
+ * The notation is scanned once, character by character, without regular expressions or substrings. The squares are
+ * computed from their characters and the legality of the move is checked without creating moves.
  */
 public class LanParser {
 
-    public Move convertToMove(final Board board, final NotationMapping notationMapping, final String lan) {
-        final LanParseResult lanParseResult = parse(notationMapping, lan);
+    private static final CastleMoveType[] CASTLE_MOVE_TYPES = CastleMoveType.values();
+    private static final CastleType[] CASTLE_TYPES = CastleType.values();
 
-        final Square fromSquare;
-        final Square targetSquare;
-        if (lanParseResult.isKingSideCastle) {
-            fromSquare = board.getSideToMove() == Side.WHITE ? Square.E1 : Square.E8;
-            targetSquare = board.getSideToMove() == Side.WHITE ? Square.G1 : Square.G8;
-        } else if (lanParseResult.isQueenSideCastle) {
-            fromSquare = board.getSideToMove() == Side.WHITE ? Square.E1 : Square.E8;
-            targetSquare = board.getSideToMove() == Side.WHITE ? Square.C1 : Square.C8;
-        } else {
-            fromSquare = lanParseResult.fromSquare;
-            targetSquare = lanParseResult.targetSquare;
-        }
+    // The result of the last parse
+    private CastleType castleType;
+    private Square fromSquare;
+    private PieceType pieceType;
+    private PieceType promotion;
+    private Square targetSquare;
 
-        final Move move = new Move(fromSquare, targetSquare, lanParseResult.promotionPiece);
+    public Move convertToMove(final Board board, final NotationMapping notationMapping, final String lan) {
+        return convertToMove(board, notationMapping, lan, 0, lan.length());
+    }
 
-        if (!new MoveHelper(board).isLegalMove(move)) {
-            throw new IllegalMoveException("Move " + lan + " is illegal");
+    /**
+     * Converts the LAN of the length at the offset of the char sequence, so that a token of a larger text needs no
+     * string of its own.
+     *
+     * @throws IllegalMoveException if the notation is not correct
+     */
+    public Move convertToMove(final Board board, final NotationMapping notationMapping, final CharSequence charSequence,
+                              final int offset, final int length) {
+        if (!parse(notationMapping, charSequence, offset, offset + length)) {
+            throw createIllegalMoveException(charSequence, offset, length);
         }
 
-        if (board.getPiece(move.from).pieceType != lanParseResult.pieceType) {
-            throw new IllegalMoveException("Move " + lan + " is illegal");
+        if (castleType != null) {
+            final Side side = board.getSideToMove();
+            for (final CastleMoveType castleMoveType : CASTLE_MOVE_TYPES) {
+                if (castleMoveType.side == side && castleMoveType.castleType == castleType) {
+                    fromSquare = castleMoveType.kingFrom;
+                    targetSquare = castleMoveType.kingTo;
+                }
+            }
         }
 
+        final Move move = Move.of(fromSquare, targetSquare, promotion);
+        final Piece piece = board.getPiece(move.from);
+        if (!new LegalMoveGenerator(board).isLegal(move) || piece.pieceType != pieceType) {
+            throw createIllegalMoveException(charSequence, offset, length);
+        }
         return move;
     }
 
-    public LanParseResult parse(final NotationMapping notationMapping, final String originalLan) {
-        final LanParseResult lanParseResult = new LanParseResult();
-        String lan = originalLan;
-        if (lan.endsWith("+") || lan.endsWith("#")) {
-            lan = lan.substring(0, lan.length() - 1);
-        }
-        if (lan.equals("O-O")) {
-            lanParseResult.pieceType = PieceType.KING;
-            lanParseResult.isKingSideCastle = true;
-            return lanParseResult;
-        }
-        if (lan.equals("O-O-O")) {
-            lanParseResult.pieceType = PieceType.KING;
-            lanParseResult.isQueenSideCastle = true;
-            return lanParseResult;
-        }
+    private IllegalMoveException createIllegalMoveException(final CharSequence charSequence, final int offset, final int length) {
+        return new IllegalMoveException("Move " + charSequence.subSequence(offset, offset + length) + " is illegal");
+    }
 
-        final String pieceString = getPieceString(notationMapping, lan);
-        if (pieceString != null) {
-            lan = lan.substring(pieceString.length());
+    // Scans [piece]square(-|x)square[=promotion][+|#] or a castle notation, returns false when it doesn't match
+    private boolean parse(final NotationMapping notationMapping, final CharSequence charSequence, final int start, final int end) {
+        castleType = null;
+        fromSquare = null;
+        pieceType = PieceType.PAWN;
+        promotion = null;
+        targetSquare = null;
+
+        int last = end;
+        if (start < last && (charSequence.charAt(last - 1) == '+' || charSequence.charAt(last - 1) == '#')) {
+            last--;
         }
-        final String promotion = getPromotion(notationMapping, lan);
-        if (promotion != null) {
-            lan = lan.substring(0, lan.length() - promotion.length() - 1);
-        }
-
-        final Matcher matcher = Pattern.compile("([a-h][1-8])([-x])([a-h][1-8])").matcher(lan);
-        if (!matcher.matches()) {
-            throw new IllegalMoveException("Move " + originalLan + " is illegal");
+        for (final CastleType type : CASTLE_TYPES) {
+            if (type.notation.length() == last - start && regionMatches(charSequence, start, type.notation)) {
+                castleType = type;
+                pieceType = PieceType.KING;
+                return true;
+            }
         }
 
-        lanParseResult.pieceType = pieceString == null ? PieceType.PAWN : notationMapping.getPieceType(pieceString);
-        final String fromSquareString = matcher.group(1);
-        lanParseResult.fromSquare = Square.fromName(fromSquareString);
-
-        final String targetSquareString = matcher.group(3);
-        lanParseResult.targetSquare = Square.fromName(targetSquareString);
-
-        if (promotion != null) {
-            lanParseResult.promotionPiece = notationMapping.getPieceType(promotion);
+        int index = start;
+        final PieceType notatedPieceType = notationMapping.getPieceType(charSequence, index, last);
+        if (notatedPieceType != null) {
+            pieceType = notatedPieceType;
+            index += notationMapping.getNotation(notatedPieceType).length();
         }
-
-        return lanParseResult;
-    }
-
-    private String getPieceString(final NotationMapping notationMapping, final String san) {
-        for (final PieceType pieceType : PieceType.NON_PAWNS) {
-            if (san.startsWith(notationMapping.getNotation(pieceType))) {
-                return notationMapping.getNotation(pieceType);
+        // The squares and the separator take 5 characters, a promotion follows after a '='
+        if (index + 5 < last) {
+            if (charSequence.charAt(index + 5) != '=') {
+                return false;
+            }
+            promotion = notationMapping.getPieceType(charSequence, index + 6, last);
+            if (promotion == null || index + 6 + notationMapping.getNotation(promotion).length() != last) {
+                return false;
             }
+        } else if (index + 5 != last) {
+            return false;
         }
-        return null;
+
+        final char separator = charSequence.charAt(index + 2);
+        fromSquare = Square.fromName(charSequence, index);
+        targetSquare = Square.fromName(charSequence, index + 3);
+        return fromSquare != null && targetSquare != null && (separator == '-' || separator == 'x');
     }
 
-    private String getPromotion(final NotationMapping notationMapping, final String san) {
-        if (san.contains("=")) {
-            for (final PieceType pieceType : PieceType.NON_PAWNS) {
-                if (san.endsWith("=" + notationMapping.getNotation(pieceType))) {
-                    return notationMapping.getNotation(pieceType);
-                }
+    private boolean regionMatches(final CharSequence charSequence, final int index, final String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (charSequence.charAt(index + i) != string.charAt(i)) {
+                return false;
             }
         }
-        return null;
+        return true;
     }
 }
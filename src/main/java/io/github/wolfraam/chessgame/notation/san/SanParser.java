@@ -1,132 +1,169 @@
 package io.github.wolfraam.chessgame.notation.san;
 
+import io.github.wolfraam.chessgame.board.Bitboard;
 import io.github.wolfraam.chessgame.board.Board;
 import io.github.wolfraam.chessgame.board.Piece;
 import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Side;
 import io.github.wolfraam.chessgame.board.Square;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
+import io.github.wolfraam.chessgame.move.LegalMoveGenerator;
 import io.github.wolfraam.chessgame.move.Move;
-import io.github.wolfraam.chessgame.move.MoveHelper;
+import io.github.wolfraam.chessgame.move.MoveList;
+import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
+import io.github.wolfraam.chessgame.move.castle.CastleType;
 import io.github.wolfraam.chessgame.notation.NotationMapping;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parses SAN moves.
+ * <p>
+ * The notation is scanned once, character by character, without regular expressions or substrings. The piece
+ * notations come from the notation mapping and may have more than one character. The move is then looked up in the
+ * legal moves of the piece to the target square, which are generated into a reusable move list, so a parser which is
+ * reused does not create garbage.
  */
 public class SanParser {
 
-    public Move convertToMove(final Board board, final NotationMapping notationMapping, final String moveNotation) {
-        final SanParseResult sanParseResult = parse(notationMapping, moveNotation);
-
-        final Square targetSquare;
-        if (sanParseResult.isKingSideCastle) {
-            targetSquare = board.getSideToMove() == Side.WHITE ? Square.G1 : Square.G8;
-        } else if (sanParseResult.isQueenSideCastle) {
-            targetSquare = board.getSideToMove() == Side.WHITE ? Square.C1 : Square.C8;
-        } else {
-            targetSquare = sanParseResult.targetSquare;
-        }
+    private static final CastleMoveType[] CASTLE_MOVE_TYPES = CastleMoveType.values();
+    private static final CastleType[] CASTLE_TYPES = CastleType.values();
 
-        final Piece piece = Piece.fromPieceTypeAndSide(sanParseResult.pieceType, board.getSideToMove());
-        final Set<Move> legalMoves = new MoveHelper(board).getLegalMoves(piece, targetSquare);
+    // The result of the last parse
+    private CastleType castleType;
+    // The squares the piece may move from according to the disambiguation
+    private long disambiguationBitboard;
+    private final MoveList moveList = new MoveList(16);
+    private PieceType pieceType;
+    private PieceType promotion;
+    private Square targetSquare;
 
-        if (legalMoves.isEmpty()) {
-            throw new IllegalMoveException("Move " + moveNotation + " is illegal");
-        }
+    public Move convertToMove(final Board board, final NotationMapping notationMapping, final String moveNotation) {
+        return convertToMove(board, notationMapping, moveNotation, 0, moveNotation.length());
+    }
 
-        if (sanParseResult.promotionPiece != null) {
-            legalMoves.removeIf(move -> move.promotion != sanParseResult.promotionPiece);
+    /**
+     * Converts the SAN of the length at the offset of the char sequence, so that a token of a larger text needs no
+     * string of its own.
+     *
+     * @throws IllegalMoveException if the notation is not correct
+     */
+    public Move convertToMove(final Board board, final NotationMapping notationMapping, final CharSequence charSequence,
+                              final int offset, final int length) {
+        if (!parse(notationMapping, charSequence, offset, offset + length)) {
+            throw createIllegalMoveException(charSequence, offset, length);
         }
 
-        if (legalMoves.size() == 1) {
-            return legalMoves.iterator().next();
+        final Side side = board.getSideToMove();
+        long fromBitboard = board.getBitboard(Piece.fromPieceTypeAndSide(pieceType, side));
+        if (castleType != null) {
+            for (final CastleMoveType castleMoveType : CASTLE_MOVE_TYPES) {
+                if (castleMoveType.side == side && castleMoveType.castleType == castleType) {
+                    fromBitboard &= castleMoveType.kingFrom.bitboard;
+                    targetSquare = castleMoveType.kingTo;
+                }
+            }
         }
 
-        if (sanParseResult.disambiguationFile != null) {
-            legalMoves.removeIf(move -> !sanParseResult.disambiguationFile.equals(move.from.file));
+        moveList.clear();
+        new LegalMoveGenerator(board).generate(fromBitboard, targetSquare.bitboard, moveList);
+        Move move = null;
+        int moveCount = 0;
+        Move disambiguatedMove = null;
+        int disambiguatedMoveCount = 0;
+        for (int i = 0; i < moveList.size(); i++) {
+            final Move legalMove = moveList.get(i);
+            if (legalMove.promotion == promotion) {
+                move = legalMove;
+                moveCount++;
+                if ((legalMove.from.bitboard & disambiguationBitboard) != Bitboard.EMPTY) {
+                    disambiguatedMove = legalMove;
+                    disambiguatedMoveCount++;
+                }
+            }
         }
-        if (sanParseResult.disambiguationRow != null) {
-            legalMoves.removeIf(move -> !sanParseResult.disambiguationRow.equals(move.from.row));
+        // The disambiguation is only used when the move is ambiguous without it
+        if (moveCount == 1) {
+            return move;
         }
-
-        if (legalMoves.size() != 1) {
-            throw new IllegalMoveException("Move " + moveNotation + " is illegal");
+        if (disambiguatedMoveCount == 1) {
+            return disambiguatedMove;
         }
-        return legalMoves.iterator().next();
+        throw createIllegalMoveException(charSequence, offset, length);
     }
 
-    private String getPieceString(final NotationMapping notationMapping, final String san) {
-        for (final PieceType pieceType : PieceType.NON_PAWNS) {
-            if (san.startsWith(notationMapping.getNotation(pieceType))) {
-                return notationMapping.getNotation(pieceType);
-            }
-        }
-        return null;
+    private IllegalMoveException createIllegalMoveException(final CharSequence charSequence, final int offset, final int length) {
+        return new IllegalMoveException("Move " + charSequence.subSequence(offset, offset + length) + " is illegal");
     }
 
-    private String getPromotion(final NotationMapping notationMapping, final String san) {
-        if (san.contains("=")) {
-            for (final PieceType pieceType : PieceType.NON_PAWNS) {
-                if (san.endsWith("=" + notationMapping.getNotation(pieceType))) {
-                    return notationMapping.getNotation(pieceType);
-                }
-            }
-        }
-        return null;
+    private boolean isCoordinate(final int coordinate) {
+        return 0 <= coordinate && coordinate < 8;
     }
 
-    private SanParseResult parse(final NotationMapping notationMapping, final String originalSan) {
-        final SanParseResult sanParseResult = new SanParseResult();
-        if (originalSan.length() == 2) {
-            sanParseResult.targetSquare = Square.fromName(originalSan);
-            if (sanParseResult.targetSquare == null) {
-                throw new IllegalMoveException("Move " + originalSan + " is illegal");
-            }
-            sanParseResult.pieceType = PieceType.PAWN;
-        } else {
-            String san = originalSan;
-            if (san.endsWith("+") || san.endsWith("#")) {
-                san = san.substring(0, san.length() - 1);
-            }
-            if (san.equals("O-O")) {
-                sanParseResult.pieceType = PieceType.KING;
-                sanParseResult.isKingSideCastle = true;
-                return sanParseResult;
-            }
-            if (san.equals("O-O-O")) {
-                sanParseResult.pieceType = PieceType.KING;
-                sanParseResult.isQueenSideCastle = true;
-                return sanParseResult;
-            }
-
-            final String pieceString = getPieceString(notationMapping, san);
-            if (pieceString != null) {
-                san = san.substring(pieceString.length());
-            }
-            final String promotion = getPromotion(notationMapping, san);
-            if (promotion != null) {
-                san = san.substring(0, san.length() - promotion.length() - 1);
+    // Scans [piece][file][rank][x]square[=promotion][+|#] or a castle notation, returns false when it doesn't match
+    private boolean parse(final NotationMapping notationMapping, final CharSequence charSequence, final int start, final int end) {
+        castleType = null;
+        disambiguationBitboard = -1L;
+        pieceType = PieceType.PAWN;
+        promotion = null;
+        targetSquare = null;
+
+        int last = end;
+        if (start < last && (charSequence.charAt(last - 1) == '+' || charSequence.charAt(last - 1) == '#')) {
+            last--;
+        }
+        for (final CastleType type : CASTLE_TYPES) {
+            if (type.notation.length() == last - start && regionMatches(charSequence, start, type.notation)) {
+                castleType = type;
+                pieceType = PieceType.KING;
+                return true;
             }
+        }
 
-            final Matcher matcher = Pattern.compile("([a-h])?([1-8])?([x])?([a-h][1-8])").matcher(san);
-            if (!matcher.matches()) {
-                throw new IllegalMoveException("Move " + originalSan + " is illegal");
+        int index = start;
+        final PieceType notatedPieceType = notationMapping.getPieceType(charSequence, index, last);
+        if (notatedPieceType != null) {
+            pieceType = notatedPieceType;
+            index += notationMapping.getNotation(notatedPieceType).length();
+        }
+        for (int i = index; i < last; i++) {
+            if (charSequence.charAt(i) == '=') {
+                promotion = notationMapping.getPieceType(charSequence, i + 1, last);
+                if (promotion == null || i + 1 + notationMapping.getNotation(promotion).length() != last) {
+                    return false;
+                }
+                last = i;
+                break;
             }
+        }
 
-            sanParseResult.pieceType = pieceString == null ? PieceType.PAWN : notationMapping.getPieceType(pieceString);
-            sanParseResult.disambiguationFile = matcher.group(1);
-            sanParseResult.disambiguationRow = matcher.group(2);
-
-            final String targetSquareString = matcher.group(4);
-            sanParseResult.targetSquare = Square.fromName(targetSquareString);
+        // The square part is scanned backwards, from the target square to the optional disambiguation
+        if (last - index < 2) {
+            return false;
+        }
+        targetSquare = Square.fromName(charSequence, last - 2);
+        if (targetSquare == null) {
+            return false;
+        }
+        int i = last - 2;
+        if (index < i && charSequence.charAt(i - 1) == 'x') {
+            i--;
+        }
+        if (index < i && isCoordinate(charSequence.charAt(i - 1) - '1')) {
+            disambiguationBitboard &= Bitboard.rank(charSequence.charAt(i - 1) - '1');
+            i--;
+        }
+        if (index < i && isCoordinate(charSequence.charAt(i - 1) - 'a')) {
+            disambiguationBitboard &= Bitboard.file(charSequence.charAt(i - 1) - 'a');
+            i--;
+        }
+        return i == index;
+    }
 
-            if (promotion != null) {
-                sanParseResult.promotionPiece = notationMapping.getPieceType(promotion);
+    private boolean regionMatches(final CharSequence charSequence, final int index, final String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (charSequence.charAt(index + i) != string.charAt(i)) {
+                return false;
             }
         }
-        return sanParseResult;
+        return true;
     }
 }
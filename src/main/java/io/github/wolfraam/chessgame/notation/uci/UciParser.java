@@ -0,0 +1,61 @@
+package io.github.wolfraam.chessgame.notation.uci;
+
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.IllegalMoveException;
+import io.github.wolfraam.chessgame.move.Move;
+
+/**
+ * Parses UCI moves, like e2e4 and e7e8q.
+ * <p>
+ * The squares are computed from their characters, no strings or map lookups are used. The parser only
+ * checks the notation, whether the move is legal depends on the board.
+ */
+public class UciParser {
+
+    /**
+     * The result of {@link #parse} when the characters are not a UCI move.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * @return the move of the UCI notation, which is not checked for legality
+     * @throws IllegalMoveException if the notation is not correct
+     */
+    public Move convertToMove(final CharSequence uci) {
+        final int encoding = parse(uci, 0, uci.length());
+        if (encoding == NO_MOVE) {
+            throw new IllegalMoveException("Move " + uci + " is illegal");
+        }
+        return Move.decode(encoding);
+    }
+
+    /**
+     * Parses the UCI move of the length at the offset of the char sequence. Nothing is allocated.
+     *
+     * @return the encoding of the move, see {@link Move#encoding}, or {@link #NO_MOVE} when the characters are not a
+     * UCI move
+     */
+    public int parse(final CharSequence charSequence, final int offset, final int length) {
+        if (length != 4 && length != 5) {
+            return NO_MOVE;
+        }
+        final Square from = Square.fromName(charSequence, offset);
+        final Square to = Square.fromName(charSequence, offset + 2);
+        final PieceType promotion = length == 5 ? getPromotion(charSequence.charAt(offset + 4)) : null;
+        if (from == null || to == null || (length == 5 && promotion == null)) {
+            return NO_MOVE;
+        }
+        return Move.encode(from, to, promotion);
+    }
+
+    private PieceType getPromotion(final char c) {
+        return switch (c) {
+            case 'q' -> PieceType.QUEEN;
+            case 'r' -> PieceType.ROOK;
+            case 'b' -> PieceType.BISHOP;
+            case 'n' -> PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
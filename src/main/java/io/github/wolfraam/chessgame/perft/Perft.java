@@ -0,0 +1,162 @@
+package io.github.wolfraam.chessgame.perft;
+
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveHelper;
+import io.github.wolfraam.chessgame.move.MoveList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Counts the leaf nodes of the move tree of a position up to a depth (perft). It is used to verify the move generation
+ * and to measure its speed.
+ * <p>
+ * Optionally the moves at the root are divided over a fork join pool, and the counts of subtrees are stored in a hash
+ * table so transpositions are only counted once.
+ */
+public class Perft {
+
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private final Board board;
+    private ForkJoinPool forkJoinPool;
+    // An entry is stored as key ^ data and data, so an entry torn by concurrent writes does not match
+    private long[] hashTableData;
+    private long[] hashTableKeys;
+    private final MoveHelper moveHelper;
+    private MoveList[] moveLists = new MoveList[0];
+
+    public Perft(final String fen) {
+        this(Board.fromFen(fen));
+    }
+
+    private Perft(final Board board) {
+        this.board = board;
+        moveHelper = new MoveHelper(board);
+    }
+
+    /**
+     * @return the node count of the subtree of every legal move, in the order of move generation
+     */
+    public Map<Move, Long> divide(final int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth should be at least 1");
+        }
+        final MoveList rootMoves = new MoveList();
+        moveHelper.getLegalMoves(rootMoves);
+        final Map<Move, Long> move2NodeCount = new LinkedHashMap<>();
+        if (forkJoinPool != null) {
+            final List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < rootMoves.size(); i++) {
+                final Perft perft = new Perft(board.clone());
+                perft.hashTableData = hashTableData;
+                perft.hashTableKeys = hashTableKeys;
+                perft.board.makeMove(rootMoves.get(i));
+                tasks.add(forkJoinPool.submit(() -> perft.perft(depth - 1)));
+            }
+            for (int i = 0; i < rootMoves.size(); i++) {
+                move2NodeCount.put(rootMoves.get(i), tasks.get(i).join());
+            }
+        } else {
+            for (int i = 0; i < rootMoves.size(); i++) {
+                board.makeMove(rootMoves.get(i));
+                move2NodeCount.put(rootMoves.get(i), perft(depth - 1));
+                board.unmakeMove();
+            }
+        }
+        return move2NodeCount;
+    }
+
+    /**
+     * @return the divide output: a line with the node count for every move in UCI notation and the total node count
+     */
+    public String getDivideOutput(final int depth) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        long nodeCount = 0;
+        for (final Map.Entry<Move, Long> entry : divide(depth).entrySet()) {
+            final Move move = entry.getKey();
+            stringBuilder.append(move.from.name).append(move.to.name);
+            if (move.promotion != null) {
+                stringBuilder.append(Piece.fromPieceTypeAndSide(move.promotion, Side.BLACK).fenCharacter);
+            }
+            stringBuilder.append(": ").append(entry.getValue()).append('\n');
+            nodeCount += entry.getValue();
+        }
+        stringBuilder.append('\n').append("Nodes searched: ").append(nodeCount).append('\n');
+        return stringBuilder.toString();
+    }
+
+    /**
+     * @return the number of leaf nodes of the move tree with the depth
+     */
+    public long perft(final int depth) {
+        if (forkJoinPool != null && 1 < depth) {
+            long nodeCount = 0;
+            for (final long subtreeNodeCount : divide(depth).values()) {
+                nodeCount += subtreeNodeCount;
+            }
+            return nodeCount;
+        }
+        if (moveLists.length < depth) {
+            moveLists = new MoveList[depth];
+            for (int i = 0; i < depth; i++) {
+                moveLists[i] = new MoveList();
+            }
+        }
+        return perft(depth, 0);
+    }
+
+    /**
+     * Divides the moves at the root over the pool, each move is counted on its own copy of the board.
+     */
+    public void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Stores the node counts of subtrees in a hash table with the number of entries, rounded up to a power of 2.
+     */
+    public void setHashTableSize(final int entries) {
+        final int size = Integer.highestOneBit(Math.max(1, entries - 1)) << 1;
+        hashTableData = new long[size];
+        hashTableKeys = new long[size];
+    }
+
+    private long perft(final int depth, final int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            return moveHelper.countLegalMoves();
+        }
+        final long hashKey = board.getHashKey() ^ depth * DEPTH_KEY;
+        int index = 0;
+        if (hashTableKeys != null) {
+            index = (int) hashKey & (hashTableKeys.length - 1);
+            final long data = hashTableData[index];
+            if ((hashTableKeys[index] ^ data) == hashKey) {
+                return data;
+            }
+        }
+        final MoveList moveList = moveLists[ply];
+        moveList.clear();
+        moveHelper.getLegalMoves(moveList);
+        long nodeCount = 0;
+        for (int i = 0; i < moveList.size(); i++) {
+            board.makeMove(moveList.get(i));
+            nodeCount += perft(depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        if (hashTableKeys != null) {
+            hashTableData[index] = nodeCount;
+            hashTableKeys[index] = hashKey ^ nodeCount;
+        }
+        return nodeCount;
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The bytes of a buffer as characters, each byte is one ISO-8859-1 character. Moves are ASCII, so a move in the buffer
+ * can be parsed without decoding it.
+ */
+class ByteCharSequence implements CharSequence {
+    private final ByteBuffer byteBuffer;
+
+    ByteCharSequence(final ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (byteBuffer.get(index) & 0xFF);
+    }
+
+    @Override
+    public int length() {
+        return byteBuffer.limit();
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        final byte[] bytes = new byte[end - start];
+        byteBuffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
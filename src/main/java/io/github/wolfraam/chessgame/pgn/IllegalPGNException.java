@@ -7,4 +7,8 @@ public class IllegalPGNException extends RuntimeException {
     public IllegalPGNException(final String message) {
         super(message);
     }
+
+    public IllegalPGNException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
 }
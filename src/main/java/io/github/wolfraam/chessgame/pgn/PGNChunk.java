@@ -0,0 +1,54 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A part of the PGN with whole games which is imported on its own, see {@link PGNChunkReader}. The games, tags, errors
+ * and warnings are kept in the order of the input, with line numbers relative to the chunk, until they are delivered.
+ */
+class PGNChunk {
+
+    /**
+     * An imported game, the tags of a game, an error or a warning.
+     */
+    static class Event {
+        // Null for the tags, an error or a warning
+        ChessGame chessGame;
+        final RuntimeException exception;
+        final boolean isWarning;
+        final int lineNumber;
+        final String message;
+        // Null for a game, an error or a warning
+        Map<PGNTag, String> pgnTag2Value;
+
+        Event(final ChessGame chessGame, final Map<PGNTag, String> pgnTag2Value, final int lineNumber, final String message,
+              final RuntimeException exception, final boolean isWarning) {
+            this.chessGame = chessGame;
+            this.pgnTag2Value = pgnTag2Value;
+            this.lineNumber = lineNumber;
+            this.message = message;
+            this.exception = exception;
+            this.isWarning = isWarning;
+        }
+    }
+
+    // Released when the chunk is imported
+    ByteBuffer byteBuffer;
+    final List<Event> events = new ArrayList<>();
+    // Set when the import of the chunk failed unexpectedly
+    Throwable failure;
+    // Whether a game follows the chunk, so a game which does not end in the chunk is an error
+    boolean hasNext;
+    final int index;
+    // The number of lines of the chunk, which is the line number offset of the next chunk
+    int lineCount;
+
+    PGNChunk(final int index, final ByteBuffer byteBuffer) {
+        this.index = index;
+        this.byteBuffer = byteBuffer;
+    }
+}
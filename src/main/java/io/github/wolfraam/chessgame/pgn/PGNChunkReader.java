@@ -0,0 +1,151 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Splits PGN into chunks of whole games, so the chunks can be imported in parallel. A chunk ends before a game which
+ * starts after the chunk size. A game starts with a tag, like [Event, at the start of a line after a blank line.
+ * <p>
+ * The chunks of a file are mapped into memory, the chunks of an input stream are copied.
+ */
+class PGNChunkReader {
+
+    /**
+     * @return the number of line feeds of the remaining bytes of the buffer
+     */
+    static int countLines(final ByteBuffer byteBuffer) {
+        int count = 0;
+        for (int i = byteBuffer.position(); i < byteBuffer.limit(); i++) {
+            if (byteBuffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the index of the first game start in the range, -1 when there is none
+     */
+    static int findGameStart(final ByteBuffer byteBuffer, final int from, final int to) {
+        for (int i = Math.max(from, 1); i < to; i++) {
+            if (byteBuffer.get(i) == '[' && byteBuffer.get(i - 1) == '\n' && isBlankLineBefore(byteBuffer, i - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlankLineBefore(final ByteBuffer byteBuffer, final int lineEnd) {
+        for (int i = lineEnd - 1; i >= 0; i--) {
+            final int c = byteBuffer.get(i) & 0xFF;
+            if (c == '\n') {
+                return true;
+            }
+            if (' ' < c) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private final ByteBuffer byteBuffer;
+    private byte[] bytes;
+    private final int chunkSize;
+    private final FileChannel fileChannel;
+    private final InputStream inputStream;
+    private boolean isEndOfInput;
+    // The number of bytes of the input stream which are read but not returned yet
+    private int length;
+    // The offset of the next chunk in the file or the buffer
+    private long position;
+    private final long size;
+
+    PGNChunkReader(final ByteBuffer byteBuffer, final int chunkSize) {
+        this(byteBuffer.slice(), null, null, byteBuffer.remaining(), chunkSize);
+    }
+
+    PGNChunkReader(final FileChannel fileChannel, final int chunkSize) throws IOException {
+        this(null, fileChannel, null, fileChannel.size(), chunkSize);
+    }
+
+    PGNChunkReader(final InputStream inputStream, final int chunkSize) {
+        this(null, null, inputStream, 0, chunkSize);
+        bytes = new byte[2 * chunkSize];
+    }
+
+    private PGNChunkReader(final ByteBuffer byteBuffer, final FileChannel fileChannel, final InputStream inputStream,
+                           final long size, final int chunkSize) {
+        this.byteBuffer = byteBuffer;
+        this.fileChannel = fileChannel;
+        this.inputStream = inputStream;
+        this.size = size;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return whether a game follows the last chunk, which ended before its start
+     */
+    boolean hasNext() {
+        return inputStream == null ? position < size : 0 < length;
+    }
+
+    /**
+     * @return the next chunk, null at the end of the input
+     */
+    ByteBuffer next() throws IOException {
+        return inputStream == null ? nextOfRange() : nextOfInputStream();
+    }
+
+    private ByteBuffer nextOfInputStream() throws IOException {
+        while (true) {
+            while (!isEndOfInput && length < bytes.length) {
+                final int count = inputStream.read(bytes, length, bytes.length - length);
+                if (count < 0) {
+                    isEndOfInput = true;
+                } else {
+                    length += count;
+                }
+            }
+            if (length == 0) {
+                return null;
+            }
+            final int gameStart = findGameStart(ByteBuffer.wrap(bytes), Math.min(chunkSize, length), length);
+            if (gameStart != -1 || isEndOfInput) {
+                final int chunkLength = gameStart == -1 ? length : gameStart;
+                final byte[] chunk = Arrays.copyOf(bytes, chunkLength);
+                System.arraycopy(bytes, chunkLength, bytes, 0, length - chunkLength);
+                length -= chunkLength;
+                return ByteBuffer.wrap(chunk);
+            }
+            // A game longer than the chunk size
+            bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+        }
+    }
+
+    private ByteBuffer nextOfRange() throws IOException {
+        if (size <= position) {
+            return null;
+        }
+        long windowLength = 2L * chunkSize;
+        while (true) {
+            final int length = (int) Math.min(Math.min(windowLength, size - position), Integer.MAX_VALUE);
+            final ByteBuffer window = fileChannel == null
+                    ? byteBuffer.slice((int) position, length)
+                    : fileChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            final int gameStart = findGameStart(window, Math.min(chunkSize, length), length);
+            if (gameStart != -1) {
+                position += gameStart;
+                return window.slice(0, gameStart);
+            }
+            if (position + length == size || length == Integer.MAX_VALUE) {
+                position += length;
+                return window;
+            }
+            windowLength *= 2;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The games of a PGN input, imported one by one when they are requested. The input is read in chunks of whole games,
+ * see {@link PGNChunkReader}. A split hands the current or the next chunk to a new spliterator, so the chunks of a
+ * parallel stream are imported in parallel. The lines of a chunk are counted when it is read, so the errors and
+ * warnings of every chunk are reported with their line numbers in the input.
+ */
+class PGNGameSpliterator implements Spliterator<ChessGame> {
+    // A rough number of bytes per game, for the size estimate of a chunk
+    private static final int BYTES_PER_GAME = 1 << 10;
+
+    private PGNImporter chunkImporter;
+    private PGNLexer chunkLexer;
+    // The number of lines before the current chunk
+    private int chunkLineOffset;
+    // The estimated number of games of the current chunk
+    private long estimatedSize;
+    // The index of the next event of the current chunk
+    private int eventIndex;
+    private final String fileName;
+    // The number of lines before the next chunk of the reader
+    private int lineOffset;
+    private PGNChunk pgnChunk;
+    // Null for the spliterator of a single chunk
+    private final PGNChunkReader pgnChunkReader;
+    private final PGNImporter pgnImporter;
+
+    PGNGameSpliterator(final PGNImporter pgnImporter, final String fileName, final PGNChunkReader pgnChunkReader) {
+        this.pgnImporter = pgnImporter;
+        this.fileName = fileName;
+        this.pgnChunkReader = pgnChunkReader;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    @Override
+    public long estimateSize() {
+        return pgnChunkReader == null ? estimatedSize : Long.MAX_VALUE;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super ChessGame> action) {
+        while (true) {
+            while (pgnChunk != null && eventIndex < pgnChunk.events.size()) {
+                final PGNChunk.Event event = pgnChunk.events.get(eventIndex++);
+                if (event.chessGame != null) {
+                    action.accept(event.chessGame);
+                    return true;
+                }
+                pgnImporter.report(fileName, chunkLineOffset, event);
+            }
+            if (pgnChunk != null) {
+                pgnChunk.events.clear();
+                eventIndex = 0;
+                if (chunkImporter.importGame(chunkLexer)) {
+                    continue;
+                }
+                // The errors and warnings after the last game of the chunk
+                for (final PGNChunk.Event event : pgnChunk.events) {
+                    pgnImporter.report(fileName, chunkLineOffset, event);
+                }
+                pgnChunk = null;
+            }
+            if (pgnChunkReader == null || !readChunk()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<ChessGame> trySplit() {
+        if (pgnChunkReader == null) {
+            return null;
+        }
+        // The games of the current chunk come before the games of the next chunk
+        if (pgnChunk == null && !readChunk()) {
+            return null;
+        }
+        final PGNGameSpliterator prefix = new PGNGameSpliterator(pgnImporter, fileName, null);
+        prefix.chunkImporter = chunkImporter;
+        prefix.chunkLexer = chunkLexer;
+        prefix.chunkLineOffset = chunkLineOffset;
+        prefix.estimatedSize = estimatedSize;
+        prefix.eventIndex = eventIndex;
+        prefix.pgnChunk = pgnChunk;
+        pgnChunk = null;
+        return prefix;
+    }
+
+    private boolean readChunk() {
+        final ByteBuffer byteBuffer;
+        try {
+            byteBuffer = pgnChunkReader.next();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (byteBuffer == null) {
+            return false;
+        }
+        pgnChunk = new PGNChunk(0, null);
+        pgnChunk.hasNext = pgnChunkReader.hasNext();
+        chunkImporter = pgnImporter.createChunkImporter(pgnChunk);
+        chunkLexer = new PGNLexer(byteBuffer);
+        chunkLineOffset = lineOffset;
+        estimatedSize = byteBuffer.remaining() / BYTES_PER_GAME + 1;
+        eventIndex = 0;
+        lineOffset += PGNChunkReader.countLines(byteBuffer);
+        return true;
+    }
+}
@@ -1,57 +1,113 @@
 package io.github.wolfraam.chessgame.pgn;
 
 import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.compact.CompactGame;
+import io.github.wolfraam.chessgame.compact.TagDictionary;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
 import io.github.wolfraam.chessgame.notation.NotationType;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.EnumMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.StringTokenizer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Imports games in PGN format.
+ * <p>
+ * The PGN is split into tokens by a {@link PGNLexer} straight from its bytes, a file is mapped into memory. The moves
+ * are parsed from the bytes without creating strings.
+ * <p>
+ * With an executor the PGN is split into chunks of whole games, which are imported in parallel. The callbacks are
+ * always called on the thread which runs the import, the tags predicate and the FEN function are called on the threads
+ * of the executor.
+ * <p>
+ * The move text of a game which is not accepted by the tags predicate is skipped without parsing it. When only a tags
+ * consumer is set, only the tags of the games are imported.
  */
 public class PGNImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+    private static final String GAME_NOT_ENDED = "Error: Previous Game did not end properly";
+
     private Predicate<Map<PGNTag, String>> acceptTagsPredicate = pgnTagStringMap -> true;
     private ChessGame chessGame;
+    // The chunk which collects the games, errors and warnings of a parallel import
+    private PGNChunk chunk;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private Executor executor;
     private Function<String, ChessGame> fen2NewChessGameFunction = ChessGame::new;
-    private File file;
-    private boolean inMoveLines = false;
-    private int indentLevel = 0;
-    private final List<String> lines = new LinkedList<>();
+    private String fileName;
+    private boolean inMoveText = false;
+    private boolean isBeforeMove = true;
+    private boolean isOrdered = true;
+    // Whether the move text of every game is skipped, because only the tags are delivered
+    private boolean isTagsOnly;
     private BiConsumer<String, RuntimeException> onError;
+    private Consumer<CompactGame> onCompactGame;
     private Consumer<ChessGame> onGame;
+    private Consumer<Map<PGNTag, String>> onTags;
     private Consumer<String> onWarning;
     private final Map<PGNTag, String> pgnTag2Value = new EnumMap<>(PGNTag.class);
+    private TagDictionary tagDictionary;
 
     /**
-     * Imports the game from the InputStream.
+     * Imports the games from the remaining bytes of the ByteBuffer.
+     */
+    public void run(final ByteBuffer byteBuffer) {
+        start(null);
+        if (executor == null) {
+            run(new PGNLexer(byteBuffer));
+        } else {
+            run(new PGNChunkReader(byteBuffer, chunkSize));
+        }
+    }
+
+    /**
+     * Imports the games from the InputStream.
      */
     public void run(final InputStream inputStream) {
-        file = null;
-        runWithInputStream(inputStream);
+        start(null);
+        if (executor == null) {
+            run(new PGNLexer(inputStream));
+        } else {
+            run(new PGNChunkReader(inputStream, chunkSize));
+        }
     }
 
     /**
-     * Imports the game from the File.
+     * Imports the games from the File.
      */
     public void run(final File file) throws FileNotFoundException {
-        this.file = file;
-        final InputStream inputStream = new FileInputStream(file);
-        runWithInputStream(inputStream);
+        final FileInputStream fileInputStream = new FileInputStream(file);
+        try (fileInputStream) {
+            run(file.getName(), fileInputStream.getChannel());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Imports the games from the file, which is mapped into memory.
+     */
+    public void run(final Path path) throws IOException {
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            run(path.getFileName().toString(), fileChannel);
+        }
     }
 
     /**
@@ -61,6 +117,24 @@ public class PGNImporter {
         this.acceptTagsPredicate = acceptTagsPredicate;
     }
 
+    /**
+     * Sets the size in bytes after which a chunk of a parallel import ends at the next game, 4 MiB by default.
+     */
+    public void setChunkSize(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the Executor on which the chunks of the PGN are imported in parallel, like a ForkJoinPool or
+     * Executors.newVirtualThreadPerTaskExecutor(). Null, the default, imports on the calling thread.
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Sets a Function which generates a ChessGame with the given FEN String. Use this when you want to use
      * a subclass of ChessGame.
@@ -70,7 +144,17 @@ public class PGNImporter {
     }
 
     /**
-     * Sets a Consumer which will be called with import errors.
+     * Sets a Consumer which will be called with the imported games in compact form. The tag values are stored in the
+     * dictionary, which can be shared with other importers.
+     */
+    public void setOnCompactGame(final TagDictionary tagDictionary, final Consumer<CompactGame> onCompactGame) {
+        this.tagDictionary = tagDictionary;
+        this.onCompactGame = onCompactGame;
+    }
+
+    /**
+     * Sets a Consumer which will be called with import errors. With an executor it is called on the calling thread, for
+     * a parallel stream it may be called concurrently on the threads of the stream.
      */
     public void setOnError(final BiConsumer<String, RuntimeException> onError) {
         this.onError = onError;
@@ -84,163 +168,376 @@ public class PGNImporter {
     }
 
     /**
-     * Sets a Consumer which will be called with import warnings.
+     * Sets a Consumer which will be called with the tags of every accepted game, as soon as the tags of the game are
+     * read. When no game consumers are set the move text of the games is skipped without parsing it, so the tags of a
+     * large file are read at a fraction of the cost of an import. A stream does not call this Consumer.
+     */
+    public void setOnTags(final Consumer<Map<PGNTag, String>> onTags) {
+        this.onTags = onTags;
+    }
+
+    /**
+     * Sets a Consumer which will be called with import warnings. With an executor it is called on the calling thread,
+     * for a parallel stream it may be called concurrently on the threads of the stream.
      */
     public void setOnWarning(final Consumer<String> onWarning) {
         this.onWarning = onWarning;
     }
 
-    private String getContext(final int lineNumber) {
-        return (file == null ? "" : "File: " + file.getName() + " ") + "Line:" + lineNumber + " ";
+    /**
+     * Sets whether the games of a parallel import are delivered in the order of the input, true by default. Otherwise
+     * the games of a chunk are delivered as soon as the chunk is imported. Errors and warnings are always delivered in
+     * the order of the input, as their line numbers depend on the chunks before them.
+     */
+    public void setOrdered(final boolean isOrdered) {
+        this.isOrdered = isOrdered;
     }
 
-    private boolean isLastLine(final String line) {
-        return line.endsWith("1/2-1/2") || line.endsWith("1-0") || line.endsWith("0-1") || line.endsWith("*");
+    /**
+     * @return the games of the InputStream as a lazily populated stream. The stream is split into chunks of whole
+     * games, so a parallel stream imports the chunks in parallel. Errors and warnings are reported to the error and
+     * warning consumers, for a parallel stream on the threads of the stream.
+     */
+    public Stream<ChessGame> stream(final InputStream inputStream) {
+        return StreamSupport.stream(new PGNGameSpliterator(this, null, new PGNChunkReader(inputStream, chunkSize)), false);
     }
 
-    private void playMoves(String line) {
-        if (line.endsWith("1/2-1/2")) {
-            line = line.substring(0, line.indexOf("1/2-1/2"));
-        } else if (line.endsWith("1-0")) {
-            line = line.substring(0, line.indexOf("1-0"));
-        } else if (line.endsWith("0-1")) {
-            line = line.substring(0, line.indexOf("0-1"));
-        } else if (line.endsWith("*")) {
-            line = line.substring(0, line.indexOf("*"));
+    /**
+     * @return the games of the file as a lazily populated stream, see {@link #stream(InputStream)}. The file is mapped
+     * into memory chunk by chunk and is closed when the stream is closed.
+     */
+    public Stream<ChessGame> stream(final Path path) throws IOException {
+        final FileChannel fileChannel = FileChannel.open(path);
+        try {
+            final PGNChunkReader pgnChunkReader = new PGNChunkReader(fileChannel, chunkSize);
+            return StreamSupport.stream(new PGNGameSpliterator(this, path.getFileName().toString(), pgnChunkReader), false)
+                    .onClose(() -> {
+                        try {
+                            fileChannel.close();
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (final IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
         }
+    }
 
-        final StringBuilder stringBuilderComment = new StringBuilder();
-        boolean isBeforeMove = true;
-        final StringTokenizer stringTokenizer = new StringTokenizer(line, " \t(){}", true);
-        while (stringTokenizer.hasMoreTokens()) {
-            final String token = stringTokenizer.nextToken();
-            switch (token) {
-                case " ":
-                case "\t":
-                    if (indentLevel != 0) {
-                        stringBuilderComment.append(token);
-                    }
-                    break;
-                case "(":
-                case "{":
-                    if (indentLevel != 0) {
-                        stringBuilderComment.append(token);
-                    }
-                    indentLevel++;
-                    break;
-                case ")":
-                case "}":
-                    indentLevel--;
-                    if (indentLevel != 0) {
-                        stringBuilderComment.append(token);
-                    }
-                    if (indentLevel == 0) {
-                        if (!stringBuilderComment.isEmpty()) {
-                            final PGNComment pgnComment;
-                            if (token.equals(")")) {
-                                pgnComment = new PGNVariation(stringBuilderComment.toString());
-                            } else {
-                                pgnComment = new PGNComment(stringBuilderComment.toString());
-                            }
-                            final int index = chessGame.getMoves().size() - (isBeforeMove ? 0 : 1);
-                            if (isBeforeMove) {
-                                chessGame.getPGNData().addPGNCommentBefore(index, pgnComment);
-                            } else {
-                                chessGame.getPGNData().addPGNCommentAfter(index, pgnComment);
-                            }
-                            stringBuilderComment.setLength(0);
-                        }
+    /**
+     * @return an importer with the configuration of this importer, which collects the games, errors and warnings in
+     * the chunk
+     */
+    PGNImporter createChunkImporter(final PGNChunk pgnChunk) {
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.acceptTagsPredicate = acceptTagsPredicate;
+        pgnImporter.fen2NewChessGameFunction = fen2NewChessGameFunction;
+        pgnImporter.chunk = pgnChunk;
+        return pgnImporter;
+    }
+
+    /**
+     * Reads the tokens of the lexer up to the end of the next game.
+     *
+     * @return false at the end of the input
+     */
+    boolean importGame(final PGNLexer pgnLexer) {
+        PGNTokenType pgnTokenType = pgnLexer.next();
+        while (pgnTokenType != PGNTokenType.END_OF_INPUT) {
+            if (pgnTokenType == PGNTokenType.TAG || pgnTokenType == PGNTokenType.UNKNOWN_TAG) {
+                // Without tags the move text of the previous game has been reported already
+                if (inMoveText && !pgnTag2Value.isEmpty()) {
+                    error(pgnLexer.getLineNumber(), GAME_NOT_ENDED, null);
+                }
+                if (inMoveText) {
+                    reset();
+                }
+                if (pgnTokenType == PGNTokenType.TAG) {
+                    pgnTag2Value.put(pgnLexer.getPGNTag(), pgnLexer.getTagValue());
+                } else {
+                    warning(pgnLexer.getLineNumber(), "Unknown Tag, line: " + pgnLexer.getText());
+                }
+            } else {
+                if (!inMoveText) {
+                    startGame(pgnLexer);
+                }
+                if (pgnTokenType == PGNTokenType.RESULT) {
+                    endGame(pgnLexer);
+                    return true;
+                } else if (chessGame == null) {
+                    // The move text of a game which is not imported is only scanned for its end
+                    pgnTokenType = pgnLexer.skipMoveText();
+                    continue;
+                } else {
+                    try {
+                        playToken(pgnLexer, pgnTokenType);
+                    } catch (final IllegalPGNException | IllegalMoveException e) {
+                        error(pgnLexer.getLineNumber(), e.getMessage(), null);
+                        chessGame = null;
+                    } catch (final RuntimeException e) {
+                        error(pgnLexer.getLineNumber(), "Exception", e);
+                        chessGame = null;
                     }
-                    break;
-                default:
-                    if (indentLevel == 0) {
-                        if (token.indexOf('.') != -1) {
-                            final String beforeDot = token.substring(0, token.indexOf('.'));
-                            final String afterDot = token.substring(token.lastIndexOf('.') + 1);
-                            final int processedNumber = Integer.parseInt(beforeDot);
-                            if (processedNumber != chessGame.getFullMoveCount()) {
-                                throw new IllegalPGNException("Invalid move number " + beforeDot + " in line: " + line);
-                            }
-                            isBeforeMove = true;
-                            if (!afterDot.isEmpty()) {
-                                chessGame.playMove(NotationType.SAN, afterDot);
-                                isBeforeMove = false;
-                            }
-                        } else {
-                            chessGame.playMove(NotationType.SAN, token);
-                            isBeforeMove = false;
-                        }
+                }
+            }
+            pgnTokenType = pgnLexer.next();
+        }
+        // The next game of a chunk starts at the first line of the next chunk
+        if (chunk != null && chunk.hasNext && inMoveText && !pgnTag2Value.isEmpty()) {
+            error(pgnLexer.getLineNumber(), GAME_NOT_ENDED, null);
+            reset();
+        }
+        return false;
+    }
+
+    /**
+     * Reports the error or the warning of a chunk, the line number offset is the number of lines before the chunk.
+     */
+    void report(final String fileName, final int lineOffset, final PGNChunk.Event event) {
+        if (event.isWarning) {
+            onWarning.accept(getContext(fileName, lineOffset + event.lineNumber) + event.message);
+        } else {
+            onError.accept(getContext(fileName, lineOffset + event.lineNumber) + event.message, event.exception);
+        }
+    }
+
+    private void addComment(final PGNComment pgnComment) {
+        if (!pgnComment.getText().isEmpty()) {
+            if (isBeforeMove) {
+                chessGame.getPGNData().addPGNCommentBefore(chessGame.getMoves().size(), pgnComment);
+            } else {
+                chessGame.getPGNData().addPGNCommentAfter(chessGame.getMoves().size() - 1, pgnComment);
+            }
+        }
+    }
+
+    // Delivers the games of the chunk, and the errors and warnings when the line number offset of the chunk is known
+    private void deliver(final PGNChunk pgnChunk, final int lineOffset) {
+        for (int i = 0; i < pgnChunk.events.size(); i++) {
+            final PGNChunk.Event event = pgnChunk.events.get(i);
+            if (event.chessGame != null || event.pgnTag2Value != null) {
+                final RuntimeException exception = event.chessGame != null ? deliverGame(event.chessGame) : deliverTags(event.pgnTag2Value);
+                event.chessGame = null;
+                event.pgnTag2Value = null;
+                if (exception != null) {
+                    if (lineOffset < 0) {
+                        // Reported with the errors of the chunk
+                        pgnChunk.events.set(i, new PGNChunk.Event(null, null, event.lineNumber, "Exception", exception, false));
                     } else {
-                        stringBuilderComment.append(token);
+                        onError.accept(getContext(fileName, lineOffset + event.lineNumber) + "Exception", exception);
                     }
-                    break;
+                }
+            } else if (0 <= lineOffset && event.message != null) {
+                report(fileName, lineOffset, event);
+            }
+        }
+    }
+
+    private RuntimeException deliverGame(final ChessGame game) {
+        try {
+            if (onGame != null) {
+                onGame.accept(game);
+            }
+            if (onCompactGame != null) {
+                onCompactGame.accept(CompactGame.fromChessGame(game, tagDictionary));
+            }
+            return null;
+        } catch (final RuntimeException e) {
+            return e;
+        }
+    }
+
+    private RuntimeException deliverTags(final Map<PGNTag, String> pgnTag2Value) {
+        try {
+            onTags.accept(pgnTag2Value);
+            return null;
+        } catch (final RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void endGame(final PGNLexer pgnLexer) {
+        if (chessGame != null) {
+            if (chunk != null) {
+                chunk.events.add(new PGNChunk.Event(chessGame, null, pgnLexer.getLineNumber(), null, null, false));
+            } else {
+                final RuntimeException exception = deliverGame(chessGame);
+                if (exception != null) {
+                    error(pgnLexer.getLineNumber(), "Exception", exception);
+                }
+            }
+        }
+        reset();
+    }
+
+    private void error(final int lineNumber, final String message, final RuntimeException exception) {
+        if (chunk != null) {
+            chunk.events.add(new PGNChunk.Event(null, null, lineNumber, message, exception, false));
+        } else {
+            onError.accept(getContext(fileName, lineNumber) + message, exception);
+        }
+    }
+
+    private String getContext(final String fileName, final int lineNumber) {
+        return (fileName == null ? "" : "File: " + fileName + " ") + "Line:" + lineNumber + " ";
+    }
+
+    // Runs on a thread of the executor
+    private void importChunk(final PGNChunk pgnChunk) {
+        try {
+            final PGNLexer pgnLexer = new PGNLexer(pgnChunk.byteBuffer);
+            final PGNImporter chunkImporter = createChunkImporter(pgnChunk);
+            chunkImporter.isTagsOnly = isTagsOnly;
+            chunkImporter.onTags = onTags;
+            chunkImporter.run(pgnLexer);
+            pgnChunk.lineCount = pgnLexer.getLineNumber() - 1;
+        } catch (final Throwable t) {
+            pgnChunk.failure = t;
+        }
+        pgnChunk.byteBuffer = null;
+    }
+
+    private void playToken(final PGNLexer pgnLexer, final PGNTokenType pgnTokenType) {
+        switch (pgnTokenType) {
+            case MOVE_NUMBER -> {
+                if (pgnLexer.getMoveNumber() != chessGame.getFullMoveCount()) {
+                    throw new IllegalPGNException("Invalid move number " + pgnLexer.getMoveNumber() + " in line: " + pgnLexer.getLine());
+                }
+                isBeforeMove = true;
+            }
+            case SAN -> {
+                chessGame.playMove(NotationType.SAN, pgnLexer.getCharSequence(), pgnLexer.getTokenOffset(), pgnLexer.getTokenLength());
+                isBeforeMove = false;
+            }
+            case COMMENT -> addComment(new PGNComment(pgnLexer.getText()));
+            case VARIATION -> addComment(new PGNVariation(pgnLexer.getText()));
+            default -> {
+                // NAGs are not kept
             }
         }
     }
 
     private void reset() {
         chessGame = null;
-        inMoveLines = false;
-        indentLevel = 0;
+        inMoveText = false;
+        isBeforeMove = true;
         pgnTag2Value.clear();
-        lines.clear();
     }
 
-    private void runWithInputStream(final InputStream inputStream) {
+    private void run(final PGNLexer pgnLexer) {
         reset();
+        while (importGame(pgnLexer)) {
+            // The games are delivered by endGame
+        }
+    }
+
+    private void run(final PGNChunkReader pgnChunkReader) {
+        final BlockingQueue<PGNChunk> importedChunks = new LinkedBlockingQueue<>();
+        // The imported chunks which wait for the chunks before them
+        final Map<Integer, PGNChunk> index2Chunk = new HashMap<>();
+        // Bounds the memory of the chunks which are read but not delivered
+        final int maxChunks = 2 * Runtime.getRuntime().availableProcessors();
+        int chunkCount = 0;
+        int deliveredChunkCount = 0;
+        int importedChunkCount = 0;
+        int lineOffset = 0;
+        boolean isEndOfInput = false;
         try {
-            final BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            int lineNumber = 1;
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    if (line.startsWith("[")) {
-                        if (inMoveLines) {
-                            onError.accept(getContext(lineNumber) + "Error: Previous Game did not end properly", null);
-                            reset();
-                        }
-                        final PGNTagAndValue pgnTagAndValue = PGNTagAndValue.fromLine(line);
-                        if (pgnTagAndValue != null) {
-                            pgnTag2Value.put(pgnTagAndValue.pgnTag, pgnTagAndValue.value);
-                        } else {
-                            onWarning.accept(getContext(lineNumber) + "Unknown Tag, line: " + line);
-                        }
+            while (true) {
+                while (!isEndOfInput && chunkCount - (isOrdered ? deliveredChunkCount : importedChunkCount) < maxChunks) {
+                    final ByteBuffer byteBuffer = pgnChunkReader.next();
+                    if (byteBuffer == null) {
+                        isEndOfInput = true;
                     } else {
-                        inMoveLines = true;
-                        if (pgnTag2Value.isEmpty()) {
-                            onError.accept(getContext(lineNumber) + "Expected PGN Tags", null);
-                            reset();
-                        } else {
-                            lines.add(line);
-                            if (isLastLine(line)) {
-                                String fen = pgnTag2Value.get(PGNTag.FEN);
-                                if (fen == null) {
-                                    fen = ChessGame.STANDARD_INITIAL_FEN;
-                                }
-                                if (acceptTagsPredicate.test(pgnTag2Value)) {
-                                    chessGame = fen2NewChessGameFunction.apply(fen);
-                                    for (final Map.Entry<PGNTag, String> entry : pgnTag2Value.entrySet()) {
-                                        chessGame.getPGNData().setPGNTag(entry.getKey(), entry.getValue());
-                                    }
-                                    try {
-                                        playMoves(String.join(" ", lines));
-                                        onGame.accept(chessGame);
-                                    } catch (final IllegalPGNException | IllegalMoveException e) {
-                                        onError.accept(getContext(lineNumber) + e.getMessage(), null);
-                                    } catch (final RuntimeException e) {
-                                        onError.accept(getContext(lineNumber) + "Exception", e);
-                                    }
-                                }
-                                reset();
-                            }
-                        }
+                        final PGNChunk pgnChunk = new PGNChunk(chunkCount++, byteBuffer);
+                        pgnChunk.hasNext = pgnChunkReader.hasNext();
+                        executor.execute(() -> {
+                            importChunk(pgnChunk);
+                            importedChunks.add(pgnChunk);
+                        });
                     }
                 }
-                lineNumber++;
+                if (deliveredChunkCount == chunkCount) {
+                    break;
+                }
+                PGNChunk pgnChunk = importedChunks.take();
+                importedChunkCount++;
+                if (pgnChunk.failure != null) {
+                    throw new IllegalStateException("Import of chunk " + pgnChunk.index + " failed", pgnChunk.failure);
+                }
+                if (!isOrdered) {
+                    deliver(pgnChunk, -1);
+                }
+                index2Chunk.put(pgnChunk.index, pgnChunk);
+                while ((pgnChunk = index2Chunk.remove(deliveredChunkCount)) != null) {
+                    deliver(pgnChunk, lineOffset);
+                    lineOffset += pgnChunk.lineCount;
+                    deliveredChunkCount++;
+                }
             }
         } catch (final IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing", e);
+        }
+    }
+
+    private void run(final String fileName, final FileChannel fileChannel) throws IOException {
+        start(fileName);
+        if (executor == null) {
+            run(new PGNLexer(fileChannel));
+        } else {
+            run(new PGNChunkReader(fileChannel, chunkSize));
+        }
+    }
+
+    private void start(final String fileName) {
+        this.fileName = fileName;
+        isTagsOnly = onTags != null && onGame == null && onCompactGame == null;
+    }
+
+    // The game is created when its move text starts, the moves of a game which is not accepted are skipped
+    private void startGame(final PGNLexer pgnLexer) {
+        inMoveText = true;
+        if (pgnTag2Value.isEmpty()) {
+            error(pgnLexer.getLineNumber(), "Expected PGN Tags", null);
+        } else if (acceptTagsPredicate.test(pgnTag2Value)) {
+            if (onTags != null) {
+                tags(pgnLexer.getLineNumber(), new EnumMap<>(pgnTag2Value));
+            }
+            if (isTagsOnly) {
+                return;
+            }
+            final String fen = pgnTag2Value.get(PGNTag.FEN);
+            try {
+                chessGame = fen2NewChessGameFunction.apply(fen == null ? ChessGame.STANDARD_INITIAL_FEN : fen);
+                for (final Map.Entry<PGNTag, String> entry : pgnTag2Value.entrySet()) {
+                    chessGame.getPGNData().setPGNTag(entry.getKey(), entry.getValue());
+                }
+            } catch (final RuntimeException e) {
+                error(pgnLexer.getLineNumber(), "Exception", e);
+                chessGame = null;
+            }
+        }
+    }
+
+    private void tags(final int lineNumber, final Map<PGNTag, String> tags) {
+        if (chunk != null) {
+            chunk.events.add(new PGNChunk.Event(null, tags, lineNumber, null, null, false));
+        } else {
+            final RuntimeException exception = deliverTags(tags);
+            if (exception != null) {
+                error(lineNumber, "Exception", exception);
+            }
+        }
+    }
+
+    private void warning(final int lineNumber, final String message) {
+        if (chunk != null) {
+            chunk.events.add(new PGNChunk.Event(null, null, lineNumber, message, null, true));
+        } else {
+            onWarning.accept(getContext(fileName, lineNumber) + message);
         }
     }
 }
@@ -0,0 +1,337 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.compact.DataCodec;
+import io.github.wolfraam.chessgame.compact.TagDictionary;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The byte offset and length of every game of a PGN file and the values of selected tags, so any game can be read by
+ * seeking to it and games can be found by their tags without importing the file.
+ * <p>
+ * The index is created with one scan of the file, in which the move text is skipped without parsing it. The tag
+ * values are stored as columns of codes of a dictionary, which is shared by the columns, so a player is stored once for
+ * the White and the Black column.
+ * <p>
+ * The sidecar layout is: a version byte, the size of the PGN file, the indexed tags, the values of the dictionary, the
+ * game count, the offset of every game relative to the end of the game before it, the length of every game and a
+ * column of codes plus 1 for every tag, 0 when the game does not have the tag. Numbers and values are written by
+ * {@link DataCodec}.
+ */
+public class PGNIndex {
+    private static final int NO_VALUE = -1;
+    private static final PGNTag[] PGN_TAGS = PGNTag.values();
+    private static final int VERSION = 2;
+
+    /**
+     * Creates the index of the PGN file with the values of the tags.
+     */
+    public static PGNIndex create(final Path path, final PGNTag... pgnTags) throws IOException {
+        final PGNIndex pgnIndex = new PGNIndex(pgnTags, new TagDictionary(), 0, new long[1024], new int[1024], new int[pgnTags.length][1024]);
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            pgnIndex.pgnFileSize = fileChannel.size();
+            pgnIndex.scan(new PGNLexer(fileChannel));
+        }
+        return pgnIndex;
+    }
+
+    /**
+     * Reads an index which was written by {@link #write}.
+     *
+     * @throws IOException when the file can't be read or does not contain an index of a known version
+     */
+    public static PGNIndex read(final Path path) throws IOException {
+        try (final DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            final int version = dataInputStream.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unknown version " + version);
+            }
+            final long pgnFileSize = DataCodec.readVarLong(dataInputStream);
+            final PGNTag[] pgnTags = new PGNTag[DataCodec.readCount(dataInputStream)];
+            for (int i = 0; i < pgnTags.length; i++) {
+                final int ordinal = dataInputStream.readUnsignedByte();
+                if (PGN_TAGS.length <= ordinal) {
+                    throw new IOException("Unknown tag " + ordinal);
+                }
+                pgnTags[i] = PGN_TAGS[ordinal];
+            }
+            final TagDictionary tagDictionary = new TagDictionary();
+            final int valueCount = DataCodec.readCount(dataInputStream);
+            for (int code = 0; code < valueCount; code++) {
+                if (tagDictionary.getCode(DataCodec.readString(dataInputStream)) != code) {
+                    throw new IOException("Duplicate value " + code);
+                }
+            }
+
+            final int size = DataCodec.readCount(dataInputStream);
+            final long[] offsets = new long[size];
+            final int[] lengths = new int[size];
+            long end = 0;
+            for (int game = 0; game < size; game++) {
+                offsets[game] = end + DataCodec.readVarLong(dataInputStream);
+                lengths[game] = DataCodec.readCount(dataInputStream);
+                end = offsets[game] + lengths[game];
+            }
+            if (pgnFileSize < end) {
+                throw new IOException("Game after the end of the PGN file");
+            }
+            final int[][] codes = new int[pgnTags.length][size];
+            for (final int[] column : codes) {
+                for (int game = 0; game < size; game++) {
+                    column[game] = DataCodec.readCount(dataInputStream) - 1;
+                    if (valueCount <= column[game]) {
+                        throw new IOException("Unknown code " + column[game]);
+                    }
+                }
+            }
+            final PGNIndex pgnIndex = new PGNIndex(pgnTags, tagDictionary, size, offsets, lengths, codes);
+            pgnIndex.pgnFileSize = pgnFileSize;
+            return pgnIndex;
+        }
+    }
+
+    // The codes of the values of the tags, per tag a column with a code per game
+    private int[][] codes;
+    private int[] lengths;
+    private long[] offsets;
+    private long pgnFileSize;
+    private final PGNTag[] pgnTags;
+    private int size;
+    private final TagDictionary tagDictionary;
+
+    private PGNIndex(final PGNTag[] pgnTags, final TagDictionary tagDictionary, final int size, final long[] offsets,
+                     final int[] lengths, final int[][] codes) {
+        this.pgnTags = pgnTags.clone();
+        this.tagDictionary = tagDictionary;
+        this.size = size;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.codes = codes;
+    }
+
+    /**
+     * @return the indexes of the games of which the value of the tag matches the predicate, in the order of the file.
+     * The predicate is tested once per distinct value.
+     * @throws IllegalArgumentException when the tag is not indexed
+     */
+    public int[] find(final PGNTag pgnTag, final Predicate<String> predicate) {
+        final int[] column = codes[getColumn(pgnTag)];
+        final boolean[] matches = new boolean[tagDictionary.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = predicate.test(tagDictionary.getValue(code));
+        }
+        int count = 0;
+        final int[] games = new int[size];
+        for (int game = 0; game < size; game++) {
+            if (column[game] != NO_VALUE && matches[column[game]]) {
+                games[count++] = game;
+            }
+        }
+        return Arrays.copyOf(games, count);
+    }
+
+    /**
+     * @return the indexes of the games with the value of the tag, in the order of the file
+     * @throws IllegalArgumentException when the tag is not indexed
+     */
+    public int[] find(final PGNTag pgnTag, final String value) {
+        return find(pgnTag, value::equals);
+    }
+
+    /**
+     * @return the length in bytes of the game, from its first tag up to and including its result
+     */
+    public int getLength(final int game) {
+        return lengths[checkGame(game)];
+    }
+
+    /**
+     * @return the offset in the file of the first tag of the game
+     */
+    public long getOffset(final int game) {
+        return offsets[checkGame(game)];
+    }
+
+    /**
+     * @return the indexed tags
+     */
+    public List<PGNTag> getPGNTags() {
+        return List.of(pgnTags);
+    }
+
+    /**
+     * @return the value of the tag of the game, null when the game does not have the tag
+     * @throws IllegalArgumentException when the tag is not indexed
+     */
+    public String getPGNTagValue(final int game, final PGNTag pgnTag) {
+        final int code = codes[getColumn(pgnTag)][checkGame(game)];
+        return code == NO_VALUE ? null : tagDictionary.getValue(code);
+    }
+
+    /**
+     * Reads the game from the PGN file of the index by seeking to it.
+     *
+     * @throws IOException when the file can't be read or is not the file of the index
+     * @throws IllegalPGNException when the game can't be imported
+     */
+    public ChessGame readGame(final FileChannel fileChannel, final int game) throws IOException {
+        return readGames(fileChannel, new int[]{game}).get(0);
+    }
+
+    /**
+     * Reads the games from the PGN file of the index by seeking to them, for example the games of {@link #find}.
+     *
+     * @throws IOException when the file can't be read or is not the file of the index
+     * @throws IllegalPGNException when a game can't be imported
+     */
+    public List<ChessGame> readGames(final FileChannel fileChannel, final int[] games) throws IOException {
+        if (fileChannel.size() != pgnFileSize) {
+            throw new IOException("The index does not belong to the file, its size is " + fileChannel.size() + " instead of " + pgnFileSize);
+        }
+        final List<ChessGame> chessGames = new ArrayList<>(games.length);
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.setOnGame(chessGames::add);
+        pgnImporter.setOnError((message, e) -> {
+            throw new IllegalPGNException(message, e);
+        });
+        pgnImporter.setOnWarning(message -> {
+        });
+        for (final int game : games) {
+            final ByteBuffer byteBuffer = ByteBuffer.allocate(getLength(game));
+            long position = getOffset(game);
+            while (byteBuffer.hasRemaining()) {
+                final int count = fileChannel.read(byteBuffer, position);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of file at " + position);
+                }
+                position += count;
+            }
+            final int gameCount = chessGames.size();
+            pgnImporter.run(byteBuffer.flip());
+            if (chessGames.size() != gameCount + 1) {
+                throw new IllegalPGNException("No game at offset " + getOffset(game));
+            }
+        }
+        return chessGames;
+    }
+
+    /**
+     * @return the number of games
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the index to the sidecar file.
+     */
+    public void write(final Path path) throws IOException {
+        try (final DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            dataOutputStream.writeByte(VERSION);
+            DataCodec.writeVarLong(dataOutputStream, pgnFileSize);
+            DataCodec.writeVarLong(dataOutputStream, pgnTags.length);
+            for (final PGNTag pgnTag : pgnTags) {
+                dataOutputStream.writeByte(pgnTag.ordinal());
+            }
+            final int valueCount = tagDictionary.size();
+            DataCodec.writeVarLong(dataOutputStream, valueCount);
+            for (int code = 0; code < valueCount; code++) {
+                DataCodec.writeString(dataOutputStream, tagDictionary.getValue(code));
+            }
+            DataCodec.writeVarLong(dataOutputStream, size);
+            long end = 0;
+            for (int game = 0; game < size; game++) {
+                DataCodec.writeVarLong(dataOutputStream, offsets[game] - end);
+                DataCodec.writeVarLong(dataOutputStream, lengths[game]);
+                end = offsets[game] + lengths[game];
+            }
+            for (final int[] column : codes) {
+                for (int game = 0; game < size; game++) {
+                    DataCodec.writeVarLong(dataOutputStream, column[game] + 1);
+                }
+            }
+        }
+    }
+
+    private void addGame(final long offset, final long end, final int[] gameCodes) {
+        if (Integer.MAX_VALUE < end - offset) {
+            throw new IllegalPGNException("Game at offset " + offset + " is too long");
+        }
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * size);
+            lengths = Arrays.copyOf(lengths, 2 * size);
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = Arrays.copyOf(codes[i], 2 * size);
+            }
+        }
+        offsets[size] = offset;
+        lengths[size] = (int) (end - offset);
+        for (int i = 0; i < codes.length; i++) {
+            codes[i][size] = gameCodes[i];
+        }
+        size++;
+    }
+
+    private int checkGame(final int game) {
+        if (game < 0 || size <= game) {
+            throw new IndexOutOfBoundsException("Game " + game + " of " + size);
+        }
+        return game;
+    }
+
+    private int getColumn(final PGNTag pgnTag) {
+        for (int i = 0; i < pgnTags.length; i++) {
+            if (pgnTags[i] == pgnTag) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Tag " + pgnTag + " is not indexed");
+    }
+
+    // A game is indexed from its first tag up to its result, its move text is skipped
+    private void scan(final PGNLexer pgnLexer) {
+        final int[] gameCodes = new int[pgnTags.length];
+        long gameOffset = NO_VALUE;
+        PGNTokenType pgnTokenType = pgnLexer.next();
+        while (pgnTokenType != PGNTokenType.END_OF_INPUT) {
+            if (pgnTokenType == PGNTokenType.TAG || pgnTokenType == PGNTokenType.UNKNOWN_TAG) {
+                if (gameOffset == NO_VALUE) {
+                    Arrays.fill(gameCodes, NO_VALUE);
+                    gameOffset = pgnLexer.getTokenPosition();
+                }
+                if (pgnTokenType == PGNTokenType.TAG) {
+                    for (int i = 0; i < pgnTags.length; i++) {
+                        if (pgnTags[i] == pgnLexer.getPGNTag()) {
+                            gameCodes[i] = tagDictionary.getCode(pgnLexer.getTagValue());
+                        }
+                    }
+                }
+                pgnTokenType = pgnLexer.next();
+            } else {
+                if (pgnTokenType != PGNTokenType.RESULT) {
+                    pgnTokenType = pgnLexer.skipMoveText();
+                }
+                if (pgnTokenType == PGNTokenType.RESULT) {
+                    if (gameOffset != NO_VALUE) {
+                        addGame(gameOffset, pgnLexer.getTokenPosition() + pgnLexer.getTokenLength(), gameCodes);
+                    }
+                    pgnTokenType = pgnLexer.next();
+                }
+                // A game without a result is not indexed
+                gameOffset = NO_VALUE;
+            }
+        }
+    }
+}
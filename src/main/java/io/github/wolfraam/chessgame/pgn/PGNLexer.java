@@ -0,0 +1,567 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits PGN into tokens straight from its bytes.
+ * <p>
+ * The input is not decoded into strings: a file is mapped into memory in large windows and an input stream is read
+ * into a large direct buffer. Moves and move numbers are left in the buffer, a move is handed to the parser as a slice
+ * of {@link #getCharSequence()}. Only tag values and comments, which are kept by the game, are decoded, as UTF-8.
+ * <p>
+ * The lines of a comment or a variation are trimmed and joined with a space. Lines starting with '%' are skipped.
+ * <p>
+ * The move text of a game which is not needed is skipped by {@link #skipMoveText()}, which only looks for the result.
+ */
+public class PGNLexer {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAP_SIZE = 1L << 30;
+    // The number of bytes of the line before a token which are kept in the buffer for error messages
+    private static final int MAX_LINE_CONTEXT = 1 << 12;
+    private static final PGNTag[] PGN_TAGS = PGNTag.values();
+    private static final byte[][] TAG_NAMES = createTagNames();
+
+    private static byte[][] createTagNames() {
+        final byte[][] tagNames = new byte[PGN_TAGS.length][];
+        for (final PGNTag pgnTag : PGN_TAGS) {
+            tagNames[pgnTag.ordinal()] = pgnTag.getTag().getBytes(StandardCharsets.US_ASCII);
+        }
+        return tagNames;
+    }
+
+    private static boolean isDelimiter(final int c) {
+        // The end of the input is -1
+        return c <= ' ' || c == '(' || c == ')' || c == '{' || c == '}' || c == ';';
+    }
+
+    private static boolean isDigit(final int c) {
+        return '0' <= c && c <= '9';
+    }
+
+    private ByteBuffer buffer;
+    // The offset in the input of the first byte of the buffer
+    private long bufferOffset;
+    private ByteCharSequence charSequence;
+    private final ReadableByteChannel channel;
+    private final FileChannel fileChannel;
+    private final long fileSize;
+    // Whether the bytes of the current token must stay in the buffer when it is refilled
+    private boolean keepToken;
+    private int limit;
+    private boolean lineHasContent;
+    private int lineNumber = 1;
+    // The index of the first byte of the current line, -1 when it is no longer in the buffer
+    private int lineStart;
+    private int moveNumber;
+    private PGNTag pgnTag;
+    private int position;
+    private String tagValue;
+    private byte[] text = new byte[256];
+    private int textLength;
+    private int tokenEnd;
+    private int tokenLineNumber;
+    private int tokenStart;
+    private PGNTokenType tokenType;
+
+    /**
+     * Lexes the remaining bytes of the buffer.
+     */
+    public PGNLexer(final ByteBuffer byteBuffer) {
+        this(byteBuffer.slice(), null, null, 0);
+    }
+
+    /**
+     * Lexes the file, which is mapped into memory window by window.
+     */
+    public PGNLexer(final FileChannel fileChannel) throws IOException {
+        this(ByteBuffer.allocate(0), null, fileChannel, fileChannel.size());
+    }
+
+    /**
+     * Lexes the input stream, which is read into a direct buffer.
+     */
+    public PGNLexer(final InputStream inputStream) {
+        this(ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0), Channels.newChannel(inputStream), null, 0);
+    }
+
+    private PGNLexer(final ByteBuffer buffer, final ReadableByteChannel channel, final FileChannel fileChannel, final long fileSize) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.fileChannel = fileChannel;
+        this.fileSize = fileSize;
+        charSequence = new ByteCharSequence(buffer);
+        limit = buffer.limit();
+    }
+
+    /**
+     * @return the bytes of the buffer as characters. A SAN, move number or result token is at
+     * {@link #getTokenOffset()}, until the next token is read.
+     */
+    public CharSequence getCharSequence() {
+        return charSequence;
+    }
+
+    /**
+     * @return the trimmed line of the current token, or the part of it which is still in the buffer. For a comment or
+     * a variation this is its last line.
+     */
+    public String getLine() {
+        final int start = lineStart < 0 ? tokenStart : lineStart;
+        int end = start;
+        while (end < limit && buffer.get(end) != '\n') {
+            end++;
+        }
+        return decode(start, end).trim();
+    }
+
+    /**
+     * @return the line number of the start of the current token
+     */
+    public int getLineNumber() {
+        return tokenLineNumber;
+    }
+
+    /**
+     * @return the number of a MOVE_NUMBER token
+     */
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    /**
+     * @return the tag of a TAG token
+     */
+    public PGNTag getPGNTag() {
+        return pgnTag;
+    }
+
+    /**
+     * @return the unescaped value of a TAG token
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    /**
+     * @return the text of a COMMENT or VARIATION token without its delimiters, or the text of any other token
+     */
+    public String getText() {
+        if (tokenType == PGNTokenType.COMMENT || tokenType == PGNTokenType.VARIATION) {
+            return new String(text, 0, textLength, StandardCharsets.UTF_8);
+        }
+        return decode(tokenStart, tokenEnd);
+    }
+
+    /**
+     * @return the length of the current token, a SAN without its '!' and '?' annotations
+     */
+    public int getTokenLength() {
+        return tokenEnd - tokenStart;
+    }
+
+    /**
+     * @return the index of the current token in {@link #getCharSequence()}
+     */
+    public int getTokenOffset() {
+        return tokenStart;
+    }
+
+    /**
+     * @return the offset in the input of the first byte of the current token
+     */
+    public long getTokenPosition() {
+        return bufferOffset + tokenStart;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return the type of the token, END_OF_INPUT at the end of the input
+     * @throws UncheckedIOException if the input can't be read
+     */
+    public PGNTokenType next() {
+        keepToken = false;
+        final int c = skipBlanks();
+        if (c == -1) {
+            return endOfInput();
+        }
+        final boolean isFirstOnLine = !lineHasContent;
+        lineHasContent = true;
+        tokenStart = position;
+        tokenLineNumber = lineNumber;
+        tokenType = switch (c) {
+            case '{' -> scanComment();
+            case '(' -> scanVariation();
+            case ';' -> scanLineComment();
+            case '$' -> scanNag();
+            case '[' -> isFirstOnLine ? scanTag() : scanSymbol();
+            default -> scanSymbol();
+        };
+        return tokenType;
+    }
+
+    /**
+     * Skips the move text of a game up to the next RESULT or tag token, without decoding comments and variations.
+     *
+     * @return the type of the token at which the skip stopped: RESULT, TAG, UNKNOWN_TAG or END_OF_INPUT
+     * @throws UncheckedIOException if the input can't be read
+     */
+    public PGNTokenType skipMoveText() {
+        while (true) {
+            keepToken = false;
+            final int c = skipBlanks();
+            if (c == -1) {
+                return endOfInput();
+            }
+            final boolean isFirstOnLine = !lineHasContent;
+            lineHasContent = true;
+            tokenStart = position;
+            tokenLineNumber = lineNumber;
+            switch (c) {
+                case '{' -> skipComment();
+                case '(' -> skipVariation();
+                case ';' -> skipLine();
+                default -> {
+                    tokenType = c == '[' && isFirstOnLine ? scanTag() : scanSymbol();
+                    if (tokenType == PGNTokenType.RESULT || tokenType == PGNTokenType.TAG || tokenType == PGNTokenType.UNKNOWN_TAG) {
+                        return tokenType;
+                    }
+                }
+            }
+        }
+    }
+
+    private void advance(final int c) {
+        position++;
+        if (c == '\n') {
+            lineNumber++;
+            lineStart = position;
+            lineHasContent = false;
+        }
+    }
+
+    private void appendText(final int c) {
+        if (c == '\n' || c == '\r') {
+            // The lines are trimmed and joined with a space
+            while (textLength > 0 && (text[textLength - 1] & 0xFF) <= ' ') {
+                textLength--;
+            }
+            int next;
+            while ((next = peek()) != -1 && next <= ' ') {
+                advance(next);
+            }
+            appendTextByte(' ');
+        } else {
+            appendTextByte(c);
+            position++;
+        }
+    }
+
+    private void appendTextByte(final int c) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, 2 * textLength);
+        }
+        text[textLength++] = (byte) c;
+    }
+
+    private int byteAt(final int index) {
+        return buffer.get(index) & 0xFF;
+    }
+
+    private String decode(final int start, final int end) {
+        final byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private PGNTokenType endOfInput() {
+        tokenStart = position;
+        tokenEnd = position;
+        tokenLineNumber = lineNumber;
+        tokenType = PGNTokenType.END_OF_INPUT;
+        return tokenType;
+    }
+
+    private PGNTag findPGNTag(final int start, final int end) {
+        for (final PGNTag tag : PGN_TAGS) {
+            final byte[] tagName = TAG_NAMES[tag.ordinal()];
+            if (tagName.length == end - start) {
+                int i = 0;
+                while (i < tagName.length && tagName[i] == buffer.get(start + i)) {
+                    i++;
+                }
+                if (i == tagName.length) {
+                    return tag;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isResult() {
+        return switch (tokenEnd - tokenStart) {
+            case 1 -> byteAt(tokenStart) == '*';
+            case 3 -> regionMatches("1-0") || regionMatches("0-1");
+            case 7 -> regionMatches("1/2-1/2");
+            default -> false;
+        };
+    }
+
+    // Parses [Tag "value"], like PGNTagAndValue.fromLine
+    private boolean parseTag() {
+        pgnTag = null;
+        tagValue = null;
+        int nameEnd = tokenStart + 1;
+        while (nameEnd < tokenEnd && byteAt(nameEnd) != ' ') {
+            nameEnd++;
+        }
+        final PGNTag tag = findPGNTag(tokenStart + 1, nameEnd);
+        if (tag == null || nameEnd == tokenEnd) {
+            return false;
+        }
+        int valueStart = nameEnd + 1;
+        while (valueStart < tokenEnd && byteAt(valueStart) != '"') {
+            valueStart++;
+        }
+        final int valueEnd = tokenEnd - 2;
+        if (valueEnd <= valueStart || byteAt(valueEnd) != '"' || byteAt(valueEnd + 1) != ']') {
+            return false;
+        }
+        pgnTag = tag;
+        tagValue = PGNTagAndValue.unescape(decode(valueStart + 1, valueEnd).trim());
+        return true;
+    }
+
+    // The byte at the position, -1 at the end of the input
+    private int peek() {
+        if (position == limit && !refill()) {
+            return -1;
+        }
+        return byteAt(position);
+    }
+
+    private boolean refill() {
+        final int needed = keepToken ? tokenStart : position;
+        final int keepFrom;
+        if (0 <= lineStart && needed - lineStart <= MAX_LINE_CONTEXT) {
+            keepFrom = lineStart;
+        } else {
+            keepFrom = needed;
+            lineStart = -1;
+        }
+        try {
+            if (fileChannel != null) {
+                final long start = bufferOffset + keepFrom;
+                final long end = bufferOffset + limit;
+                if (fileSize <= end) {
+                    return false;
+                }
+                final long size = Math.min(Math.min(Math.max(MAP_SIZE, 2 * (end - start)), fileSize - start), Integer.MAX_VALUE);
+                buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            } else if (channel != null) {
+                if (keepFrom == 0 && limit == buffer.capacity()) {
+                    final ByteBuffer grownBuffer = ByteBuffer.allocateDirect(2 * buffer.capacity());
+                    grownBuffer.put(buffer.position(0));
+                    buffer = grownBuffer;
+                } else {
+                    buffer.position(keepFrom).limit(limit);
+                    buffer.compact();
+                }
+                int count;
+                do {
+                    count = channel.read(buffer);
+                } while (count == 0);
+                buffer.flip();
+            } else {
+                return false;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bufferOffset += keepFrom;
+        position -= keepFrom;
+        tokenStart -= keepFrom;
+        tokenEnd -= keepFrom;
+        if (0 <= lineStart) {
+            lineStart -= keepFrom;
+        }
+        charSequence = new ByteCharSequence(buffer);
+        limit = buffer.limit();
+        return position < limit;
+    }
+
+    private boolean regionMatches(final String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (byteAt(tokenStart + i) != string.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PGNTokenType scanComment() {
+        position++;
+        textLength = 0;
+        int c;
+        while ((c = peek()) != -1 && c != '}') {
+            appendText(c);
+        }
+        if (c == '}') {
+            position++;
+        }
+        lineHasContent = true;
+        return PGNTokenType.COMMENT;
+    }
+
+    private PGNTokenType scanLineComment() {
+        position++;
+        textLength = 0;
+        int c;
+        while ((c = peek()) != -1 && c != '\n' && c != '\r') {
+            appendText(c);
+        }
+        return PGNTokenType.COMMENT;
+    }
+
+    private PGNTokenType scanNag() {
+        keepToken = true;
+        position++;
+        while (isDigit(peek())) {
+            position++;
+        }
+        tokenEnd = position;
+        return PGNTokenType.NAG;
+    }
+
+    private PGNTokenType scanSymbol() {
+        keepToken = true;
+        int c = peek();
+        position++;
+        if (isDigit(c)) {
+            long number = c - '0';
+            while (isDigit(c = peek())) {
+                number = Math.min(10 * number + c - '0', Integer.MAX_VALUE);
+                position++;
+            }
+            if (c == '.') {
+                while (peek() == '.') {
+                    position++;
+                }
+                moveNumber = (int) number;
+                tokenEnd = position;
+                return PGNTokenType.MOVE_NUMBER;
+            }
+        }
+        while (!isDelimiter(peek())) {
+            position++;
+        }
+        tokenEnd = position;
+        if (isResult()) {
+            return PGNTokenType.RESULT;
+        }
+        // The annotations of a move, like e4!?
+        while (tokenStart < tokenEnd && (byteAt(tokenEnd - 1) == '!' || byteAt(tokenEnd - 1) == '?')) {
+            tokenEnd--;
+        }
+        return tokenStart == tokenEnd ? PGNTokenType.NAG : PGNTokenType.SAN;
+    }
+
+    private PGNTokenType scanTag() {
+        keepToken = true;
+        int c;
+        while ((c = peek()) != -1 && c != '\n') {
+            position++;
+        }
+        tokenEnd = position;
+        while (tokenStart < tokenEnd && byteAt(tokenEnd - 1) <= ' ') {
+            tokenEnd--;
+        }
+        return parseTag() ? PGNTokenType.TAG : PGNTokenType.UNKNOWN_TAG;
+    }
+
+    private PGNTokenType scanVariation() {
+        position++;
+        textLength = 0;
+        int depth = 1;
+        boolean isInComment = false;
+        int c;
+        while ((c = peek()) != -1) {
+            if (isInComment) {
+                isInComment = c != '}';
+            } else if (c == '{') {
+                isInComment = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                position++;
+                break;
+            }
+            appendText(c);
+        }
+        lineHasContent = true;
+        return PGNTokenType.VARIATION;
+    }
+
+    // Skips blanks and escaped lines, returns the next byte, -1 at the end of the input
+    private int skipBlanks() {
+        int c;
+        while ((c = peek()) != -1) {
+            if (c <= ' ') {
+                advance(c);
+            } else if (c == '%' && !lineHasContent) {
+                skipLine();
+            } else {
+                break;
+            }
+        }
+        return c;
+    }
+
+    private void skipComment() {
+        position++;
+        int c;
+        while ((c = peek()) != -1 && c != '}') {
+            advance(c);
+        }
+        if (c == '}') {
+            position++;
+        }
+        lineHasContent = true;
+    }
+
+    private void skipLine() {
+        int c;
+        while ((c = peek()) != -1 && c != '\n') {
+            position++;
+        }
+    }
+
+    private void skipVariation() {
+        position++;
+        int depth = 1;
+        boolean isInComment = false;
+        int c;
+        while ((c = peek()) != -1) {
+            if (isInComment) {
+                isInComment = c != '}';
+            } else if (c == '{') {
+                isInComment = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                position++;
+                break;
+            }
+            advance(c);
+        }
+        lineHasContent = true;
+    }
+}
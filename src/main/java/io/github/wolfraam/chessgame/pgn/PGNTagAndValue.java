@@ -14,14 +14,7 @@ public class PGNTagAndValue {
         String restOfLine = line.substring(pgnTag.getTag().length() + 1);
         restOfLine = restOfLine.substring(restOfLine.indexOf('"') + 1);
         if (restOfLine.endsWith("\"]")) {
-            String value = restOfLine.substring(0, restOfLine.lastIndexOf("\"]")).trim();
-            while (value.contains("\\\"")) {
-                value = value.replace("\\\"", "\"");
-            }
-            while (value.contains("\\\\")) {
-                value = value.replace("\\\\", "\\");
-            }
-            return new PGNTagAndValue(pgnTag, value);
+            return new PGNTagAndValue(pgnTag, unescape(restOfLine.substring(0, restOfLine.lastIndexOf("\"]")).trim()));
         } else {
             return null;
         }
@@ -36,6 +29,16 @@ public class PGNTagAndValue {
         return null;
     }
 
+    static String unescape(String value) {
+        while (value.contains("\\\"")) {
+            value = value.replace("\\\"", "\"");
+        }
+        while (value.contains("\\\\")) {
+            value = value.replace("\\\\", "\\");
+        }
+        return value;
+    }
+
     public final PGNTag pgnTag;
 
     public final String value;
@@ -0,0 +1,8 @@
+package io.github.wolfraam.chessgame.pgn;
+
+/**
+ * The types of the tokens of the {@link PGNLexer}.
+ */
+public enum PGNTokenType {
+    COMMENT, END_OF_INPUT, MOVE_NUMBER, NAG, RESULT, SAN, TAG, UNKNOWN_TAG, VARIATION
+}
@@ -2,7 +2,9 @@ package io.github.wolfraam.chessgame;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.wolfraam.chessgame.board.Piece;
@@ -55,6 +57,24 @@ class ChessGameTest {
         assertEquals(chessGame2.getFen(), chessGame.getFen());
         assertEquals(chessGame2.getMoves(), chessGame.getMoves());
         assertEquals(chessGame2.getPGNData().getAvailablePGNTags(), chessGame.getPGNData().getAvailablePGNTags());
+        assertEquals("Site", chessGame2.getPGNData().getPGNTagValue(PGNTag.SITE));
+        // The game is written in the form of toBytes, not as its board
+        assertTrue(byteArrayOutputStream.size() < 200);
+        chessGame2.playMoves(NotationType.SAN, "d4");
+        assertEquals(3, chessGame2.getMoves().size());
+    }
+
+    @Test
+    void testToBytes() {
+        final ChessGame chessGame = new ChessGame("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        chessGame.playMoves(NotationType.SAN, "e4 Kd7 e5");
+        final byte[] bytes = chessGame.toBytes();
+        final ChessGame chessGame2 = ChessGame.fromBytes(bytes);
+        assertEquals(chessGame.getInitialFen(), chessGame2.getInitialFen());
+        assertEquals(chessGame.getFen(), chessGame2.getFen());
+        assertEquals(chessGame.getMoves(), chessGame2.getMoves());
+        chessGame2.undoMove();
+        assertEquals("8/3k4/8/8/4P3/8/8/4K3 w - - 1 2", chessGame2.getFen());
     }
 
     @Test
@@ -193,6 +213,38 @@ class ChessGameTest {
         assertEquals(List.of("Ne4-c5+", "d6xc5", "Nb5xd4+", "c5xd4", "Qh1-e4#"), chessGame.getNotationList(NotationType.LAN));
     }
 
+    @Test
+    void testGetNotationListCached() {
+        final ChessGame chessGame = new ChessGame();
+        // Over disambiguated and without the mate suffix, the cached SAN is the canonical notation
+        chessGame.playMoves(NotationType.SAN, "e4 e5 Qh5 Nc6 Bc4 Ngf6 Qxf7");
+        assertEquals(List.of("e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6", "Qxf7#"), chessGame.getNotationList(NotationType.SAN));
+
+        chessGame.undoMove();
+        chessGame.playMove(NotationType.SAN, "Qf3");
+        assertEquals(List.of("e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6", "Qf3"), chessGame.getNotationList(NotationType.SAN));
+        assertEquals(List.of("e2-e4", "e7-e5", "Qd1-h5", "Nb8-c6", "Bf1-c4", "Ng8-f6", "Qh5-f3"), chessGame.getNotationList(NotationType.LAN));
+        assertEquals(List.of("e4", "e5", "Dh5", "Sc6", "Lc4", "Sf6", "Df3"), chessGame.getNotationList(NotationType.SAN, "de"));
+
+        final ChessGame subset = chessGame.getSubset(2);
+        subset.playMove(NotationType.SAN, "Nf3");
+        assertEquals(List.of("e4", "e5", "Nf3"), subset.getNotationList(NotationType.SAN));
+        assertEquals("Qf3", chessGame.getNotationList(NotationType.SAN).get(6));
+    }
+
+    @Test
+    void testGetNotationListFromCharSequence() {
+        final ChessGame chessGame = new ChessGame();
+        final String text = "e4 e5 Qh5 Nc6 Bc4 Ngf6 Qxf7";
+        int offset = 0;
+        for (final String move : text.split(" ")) {
+            chessGame.playMove(NotationType.SAN, new StringBuilder(text), offset, move.length());
+            offset += move.length() + 1;
+        }
+        // The notations are not cached while playing, they are computed when they are requested
+        assertEquals(List.of("e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6", "Qxf7#"), chessGame.getNotationList(NotationType.SAN));
+    }
+
     @Test
     void testGetOccupiedSquares() {
         final ChessGame chessGame = new ChessGame();
@@ -209,6 +261,23 @@ class ChessGameTest {
         assertNull(chessGame.getPiece(Square.E2));
     }
 
+    @Test
+    void testGetPositionHash() {
+        final ChessGame chessGame = new ChessGame();
+        final long initialHash = chessGame.getPositionHash();
+        chessGame.playMoves(NotationType.SAN, "Nf3 Nf6 Ng1");
+        assertNotEquals(initialHash, chessGame.getPositionHash());
+        chessGame.playMoves(NotationType.SAN, "Ng8");
+        assertEquals(initialHash, chessGame.getPositionHash());
+
+        final String sanGame = "a4 h5 a5 h4 a6 h3 axb7 hxg2 bxa8=Q gxh1=R Nc3 Nf6 b3 g6 Bb2 Bg7 e3 O-O Qh5 Rxg1 O-O-O Rxf1 Qh7+ Kxh7 d4 c5 d5 e5 dxe6";
+        final ChessGame chessGame2 = new ChessGame();
+        for (final String san : sanGame.split(" ")) {
+            chessGame2.playMove(NotationType.SAN, san);
+            assertEquals(new ChessGame(chessGame2.getFen()).getPositionHash(), chessGame2.getPositionHash(), "After move " + san);
+        }
+    }
+
     @Test
     void testGetScore() {
         final ChessGame chessGame = new ChessGame();
@@ -319,6 +388,27 @@ class ChessGameTest {
         assertTrue(chessGame.getChessOpening().isEndOfVariation());
     }
 
+    @Test
+    void testUndoMove() {
+        final ChessGame chessGame = new ChessGame();
+        final String initialFen = chessGame.getFen();
+        chessGame.playMoves(NotationType.SAN, "e4 d5 exd5 Qxd5 Nc3 Qa5 Nf3 Nf6 Bc4 Bf5 O-O");
+        final String fen = chessGame.getFen();
+        final long positionHash = chessGame.getPositionHash();
+
+        chessGame.playMove(NotationType.SAN, "e6");
+        assertEquals(new Move(Square.E7, Square.E6), chessGame.undoMove());
+        assertEquals(fen, chessGame.getFen());
+        assertEquals(positionHash, chessGame.getPositionHash());
+        assertEquals(List.of(Piece.BLACK_PAWN, Piece.WHITE_PAWN), chessGame.getCapturedPieces());
+
+        chessGame.undoMoves(11);
+        assertEquals(initialFen, chessGame.getFen());
+        assertTrue(chessGame.getMoves().isEmpty());
+        assertThrows(IllegalStateException.class, chessGame::undoMove);
+        assertThrows(IllegalArgumentException.class, () -> chessGame.undoMoves(1));
+    }
+
     @Test
     void testPlayMoves() {
         final ChessGame chessGame = new ChessGame();
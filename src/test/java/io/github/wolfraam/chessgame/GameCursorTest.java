@@ -0,0 +1,93 @@
+package io.github.wolfraam.chessgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GameCursorTest {
+
+    private static final String GAME = "e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O h3 Nb8 d4 Nbd7 "
+            + "c4 c6 cxb5 axb5 Nc3 Bb7 Bg5 b4 Nb1 h6 Bh4 c5 dxe5 Nxe4 Bxe7 Qxe7 exd6 Qf6 Nbd2 Nxd6";
+
+    private List<String> getFens(final ChessGame chessGame) {
+        final List<String> fens = new ArrayList<>();
+        for (int ply = 0; ply <= chessGame.getMoves().size(); ply++) {
+            fens.add(chessGame.getSubset(ply).getFen());
+        }
+        return fens;
+    }
+
+    @Test
+    void testIllegalArguments() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, "e4 e5");
+        assertThrows(IllegalArgumentException.class, () -> chessGame.getCursor(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> chessGame.getCursor().seek(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> chessGame.getCursor().seek(-1));
+    }
+
+    @Test
+    void testNextAndPrevious() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, GAME);
+        final List<String> fens = getFens(chessGame);
+        final GameCursor gameCursor = chessGame.getCursor(4);
+        assertEquals(chessGame.getMoves().size(), gameCursor.getPly());
+        assertEquals(chessGame.getFen(), gameCursor.getFen());
+        assertFalse(gameCursor.next());
+
+        for (int ply = fens.size() - 1; ply > 0; ply--) {
+            assertEquals(chessGame.getMoves().get(ply - 1), gameCursor.getMove());
+            assertTrue(gameCursor.previous());
+            assertEquals(fens.get(ply - 1), gameCursor.getFen());
+        }
+        assertFalse(gameCursor.previous());
+        assertNull(gameCursor.getMove());
+        assertEquals(Piece.WHITE_KING, gameCursor.getPiece(Square.E1));
+
+        for (int ply = 1; ply < fens.size(); ply++) {
+            assertTrue(gameCursor.next());
+            assertEquals(fens.get(ply), gameCursor.getFen());
+        }
+    }
+
+    @Test
+    void testSeek() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, GAME);
+        final List<String> fens = getFens(chessGame);
+        final Random random = new Random(1);
+        for (final int snapshotInterval : new int[]{1, 3, 16, 100}) {
+            final GameCursor gameCursor = chessGame.getCursor(snapshotInterval);
+            for (int i = 0; i < 200; i++) {
+                final int ply = random.nextInt(fens.size());
+                gameCursor.seek(ply);
+                assertEquals(ply, gameCursor.getPly());
+                assertEquals(fens.get(ply), gameCursor.getFen());
+            }
+        }
+    }
+
+    @Test
+    void testSeekWithInitialFen() {
+        final ChessGame chessGame = new ChessGame("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        chessGame.playMoves(NotationType.SAN, "e4 Kd7 e5 Ke6 Ke2 Kxe5");
+        final GameCursor gameCursor = chessGame.getCursor(2);
+        gameCursor.seek(0);
+        assertEquals("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1", gameCursor.getFen());
+        gameCursor.seek(5);
+        assertEquals(Move.of(Square.E1, Square.E2), gameCursor.getMove());
+        assertEquals(chessGame.getSubset(5).getPositionHash(), gameCursor.getPositionHash());
+    }
+}
@@ -1,13 +1,42 @@
 package io.github.wolfraam.chessgame.board;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.github.wolfraam.chessgame.move.Move;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 class BoardTest {
 
+    @Test
+    void testBitboards() {
+        final Board board = Board.fromInitialPosition();
+        assertEquals(32, Long.bitCount(board.getOccupancy()));
+        assertEquals(16, Long.bitCount(board.getOccupancy(Side.WHITE)));
+        assertEquals(Square.E1.bitboard, board.getBitboard(Piece.WHITE_KING));
+        assertEquals(Square.A8.bitboard | Square.H8.bitboard, board.getBitboard(Piece.BLACK_ROOK));
+        assertEquals(8, board.getSquares(Piece.BLACK_PAWN).size());
+        assertTrue(board.getSquares(Piece.BLACK_PAWN).contains(Square.E7));
+        assertEquals(Square.A2, board.getSquares(Piece.WHITE_PAWN).iterator().next());
+    }
+
+    @Test
+    void testClone() {
+        final Board board = Board.fromInitialPosition();
+        final Board clone = board.clone();
+        board.playMove(Square.E2, Square.E4, null, true);
+        assertEquals(Piece.WHITE_PAWN, clone.getPiece(Square.E2));
+        assertNull(clone.getPiece(Square.E4));
+        assertEquals(Square.E4.bitboard, board.getBitboard(Piece.WHITE_PAWN) & Square.E4.bitboard);
+        assertEquals(0L, clone.getBitboard(Piece.WHITE_PAWN) & Square.E4.bitboard);
+    }
+
     @Test
     void testEnPassant() {
         final String testFen = "r1bqkbnr/ppp1pppp/2n5/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3";
@@ -20,9 +49,92 @@ class BoardTest {
         assertEquals(testFen, Board.fromFen(testFen).getFen());
     }
 
+    @Test
+    void testMakeAndUnmakeMove() {
+        final String testFen = "r3k2r/1P4pp/8/3pP3/8/8/8/R3K2R w KQkq d6 3 20";
+        final Move[] moves = {
+                new Move(Square.E5, Square.D6, null),
+                new Move(Square.E8, Square.C8, null),
+                new Move(Square.B7, Square.A8, PieceType.QUEEN),
+                new Move(Square.H8, Square.H1, null),
+                new Move(Square.E1, Square.D2, null)
+        };
+        final Board board = Board.fromFen(testFen);
+        final String[] fens = new String[moves.length];
+        final long[] hashKeys = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            fens[i] = board.getFen();
+            hashKeys[i] = board.getHashKey();
+            board.makeMove(moves[i]);
+        }
+        assertEquals("Q1kr4/6pp/3P4/8/8/8/3K4/R6r b - - 1 22", board.getFen());
+        for (int i = moves.length - 1; i >= 0; i--) {
+            board.unmakeMove();
+            assertEquals(fens[i], board.getFen());
+            assertEquals(hashKeys[i], board.getHashKey());
+        }
+        Assertions.assertThrows(IllegalStateException.class, board::unmakeMove);
+    }
+
+    @Test
+    void testSnapshot() {
+        final String testFen = "r3k2r/1P4pp/8/3pP3/8/8/8/R3K2R w KQkq d6 3 20";
+        final Board board = Board.fromFen(testFen);
+        final long[] snapshot = new long[Board.SNAPSHOT_SIZE + 1];
+        board.writeSnapshot(snapshot, 1);
+        final long hashKey = board.getHashKey();
+        board.makeMove(new Move(Square.E5, Square.D6, null));
+        board.makeMove(new Move(Square.E8, Square.C8, null));
+        board.restoreSnapshot(snapshot, 1);
+        assertEquals(testFen, board.getFen());
+        assertEquals(hashKey, board.getHashKey());
+        assertEquals(Piece.WHITE_PAWN, board.getPiece(Square.E5));
+        assertNull(board.getPiece(Square.D6));
+        Assertions.assertThrows(IllegalStateException.class, board::unmakeMove);
+        board.makeMove(new Move(Square.E1, Square.G1, null));
+        assertEquals("r3k2r/1P4pp/8/3pP3/8/8/8/R4RK1 b kq - 4 20", board.getFen());
+    }
+
+    @Test
+    void testFenCache() {
+        final Board board = Board.fromInitialPosition();
+        final String fen = board.getFen();
+        assertSame(fen, board.getFen());
+        board.makeMove(new Move(Square.E2, Square.E4));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", board.getFen());
+        assertEquals(fen, board.getInitialFen());
+        board.unmakeMove();
+        assertEquals(fen, board.getFen());
+    }
+
+    @Test
+    void testFenFromBytes() {
+        final byte[] bytes = "[8/8/4k3/8/2R5/4K3/4P3/8 w - - 12 60]".getBytes(StandardCharsets.US_ASCII);
+        final Board board = Board.fromFen(bytes, 1, bytes.length - 2);
+        assertEquals("8/8/4k3/8/2R5/4K3/4P3/8 w - - 12 60", board.getFen());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> Board.fromFen(bytes, 1, bytes.length));
+    }
+
+    @Test
+    void testFenWriters() throws IOException {
+        final String testFen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        final StringBuilder stringBuilder = new StringBuilder("fen: ");
+        Board.fromFen(testFen).writeFen(stringBuilder);
+        assertEquals("fen: " + testFen, stringBuilder.toString());
+
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(128);
+        Board.fromFen(testFen).writeFen(byteBuffer);
+        assertEquals(testFen, new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII));
+    }
+
     @Test
     void testIllegalFen() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("bla"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("8/8/8/8/8/8/8/8 w - - 0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("8/8/8/8/8/8/8/8 w - - x 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("8/8/8/8/8/8/8/8 w - - 0 1 extra"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("88888888p w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Board.fromFen("4k3/8/8/8/8/8/8/3PK3 w - - 0 1"));
     }
 
     @Test
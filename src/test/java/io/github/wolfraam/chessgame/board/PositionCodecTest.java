@@ -0,0 +1,91 @@
+package io.github.wolfraam.chessgame.board;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.wolfraam.chessgame.move.LegalMoveGenerator;
+import io.github.wolfraam.chessgame.move.MoveList;
+import io.github.wolfraam.chessgame.perft.PerftPosition;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PositionCodecTest {
+
+    private void assertRoundTrip(final Board board) {
+        final byte[] bytes = PositionCodec.encode(board);
+        assertEquals(PositionCodec.SIZE, bytes.length);
+        final Board decoded = PositionCodec.decode(bytes);
+        assertEquals(board.getFen(), decoded.getFen());
+        assertEquals(board.getHashKey(), decoded.getHashKey());
+
+        final ByteBuffer littleEndian = ByteBuffer.allocateDirect(PositionCodec.SIZE + 3).order(ByteOrder.LITTLE_ENDIAN);
+        littleEndian.position(3);
+        PositionCodec.encode(board, littleEndian);
+        assertEquals(PositionCodec.SIZE + 3, littleEndian.position());
+        littleEndian.position(3);
+        final ByteBuffer bigEndian = ByteBuffer.wrap(bytes);
+        assertEquals(0, PositionCodec.compare(littleEndian, bigEndian));
+        assertEquals(PositionCodec.hash(bigEndian), PositionCodec.hash(littleEndian));
+        assertEquals(board.getFen(), PositionCodec.decode(littleEndian).getFen());
+    }
+
+    @Test
+    void testCompareAndHash() {
+        final ByteBuffer initial = ByteBuffer.wrap(PositionCodec.encode(Board.fromInitialPosition()));
+        final ByteBuffer afterE4 = ByteBuffer.wrap(PositionCodec.encode(Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")));
+        assertNotEquals(PositionCodec.hash(initial), PositionCodec.hash(afterE4));
+        final int result = PositionCodec.compare(initial, afterE4);
+        assertNotEquals(0, result);
+        assertEquals(-Integer.signum(result), Integer.signum(PositionCodec.compare(afterE4, initial)));
+        assertEquals(0, initial.position());
+    }
+
+    @Test
+    void testIllegalPositions() {
+        final Board board = Board.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 70000 1");
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.encode(board));
+        final byte[] bytes = PositionCodec.encode(Board.fromInitialPosition());
+        bytes[8] = (byte) 0xF0;
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.decode(bytes));
+    }
+
+    @Test
+    void testLayout() {
+        // The kings on e1 and e8 have the square ordinals 32 and 39
+        assertArrayEquals(new byte[]{
+                        0, 0, 0, (byte) 0x81, 0, 0, 0, 0,
+                        0x5B, 0, 0, 0, 0, 0, 0, 0,
+                        0, 0, 0, 0, 0, 0, 0, 0,
+                        0x10, 0, 0, 3, 0, 0, 0, 42},
+                PositionCodec.encode(Board.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 3 42")));
+    }
+
+    @Test
+    void testPerftPositions() {
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            assertRoundTrip(Board.fromFen(perftPosition.fen));
+        }
+    }
+
+    @Test
+    void testRandomGames() {
+        final Random random = new Random(1);
+        final MoveList moveList = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            final Board board = Board.fromInitialPosition();
+            for (int ply = 0; ply < 150; ply++) {
+                assertRoundTrip(board);
+                moveList.clear();
+                new LegalMoveGenerator(board).generate(-1L, -1L, moveList);
+                if (moveList.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moveList.get(random.nextInt(moveList.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.wolfraam.chessgame.compact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.pgn.PGNExporter;
+import io.github.wolfraam.chessgame.pgn.PGNImporter;
+import io.github.wolfraam.chessgame.pgn.PGNTag;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompactGameTest {
+
+    private String export(final ChessGame chessGame) {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        new PGNExporter(byteArrayOutputStream).write(chessGame);
+        return byteArrayOutputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private void importGames(final InputStream inputStream, final TagDictionary tagDictionary, final List<ChessGame> chessGames,
+                             final List<CompactGame> compactGames) {
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.setOnGame(chessGames::add);
+        pgnImporter.setOnCompactGame(tagDictionary, compactGames::add);
+        pgnImporter.setOnError((string, e) -> System.out.println(string));
+        pgnImporter.setOnWarning(System.out::println);
+        pgnImporter.run(inputStream);
+    }
+
+    @Test
+    void testCommentsAndInitialFen() {
+        final String pgn = """
+                [Event "Event"]
+                [White "White"]
+                [Black "Black"]
+                [Result "1-0"]
+                [FEN "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"]
+
+                1. {before} e4 {after} (1. e3) 1... Kd7 2. e5 {[%clk 1:40:41]} 1-0""";
+        final List<ChessGame> chessGames = new ArrayList<>();
+        final List<CompactGame> compactGames = new ArrayList<>();
+        importGames(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)), new TagDictionary(), chessGames, compactGames);
+
+        final CompactGame compactGame = compactGames.get(0);
+        assertEquals("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1", compactGame.getInitialFen());
+        assertEquals(3, compactGame.getMoveCount());
+        assertEquals("White", compactGame.getPGNTagValue(PGNTag.WHITE));
+        assertNull(compactGame.getPGNTagValue(PGNTag.SITE));
+        assertEquals(-1, compactGame.getPGNTagValueCode(PGNTag.SITE));
+
+        final ChessGame chessGame = compactGame.toChessGame();
+        assertEquals(chessGames.get(0).getFen(), chessGame.getFen());
+        assertEquals(export(chessGames.get(0)), export(chessGame));
+    }
+
+    @Test
+    void testOpeningBook() throws IOException {
+        final TagDictionary tagDictionary = new TagDictionary();
+        final List<ChessGame> chessGames = new ArrayList<>();
+        final List<CompactGame> compactGames = new ArrayList<>();
+        try (final InputStream inputStream = CompactGameTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            importGames(inputStream, tagDictionary, chessGames, compactGames);
+        }
+        assertTrue(1000 < compactGames.size());
+        assertEquals(chessGames.size(), compactGames.size());
+
+        int tagCount = 0;
+        for (int i = 0; i < chessGames.size(); i++) {
+            final ChessGame expected = chessGames.get(i);
+            final CompactGame compactGame = compactGames.get(i);
+            final ChessGame actual = compactGame.toChessGame();
+            assertEquals(expected.getMoves(), actual.getMoves());
+            assertEquals(expected.getFen(), actual.getFen());
+            assertEquals(expected.getAvailablePGNTags(), actual.getAvailablePGNTags());
+            for (final PGNTag pgnTag : expected.getAvailablePGNTags()) {
+                assertEquals(expected.getPGNData().getPGNTagValue(pgnTag), compactGame.getPGNTagValue(pgnTag));
+                tagCount++;
+            }
+        }
+        // The ECO codes and opening names repeat across the games
+        assertTrue(tagDictionary.size() < tagCount);
+        assertEquals(compactGames.get(0).getPGNTagValueCode(PGNTag.ECO), compactGames.get(1).getPGNTagValueCode(PGNTag.ECO));
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.wolfraam.chessgame.compact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.pgn.PGNComment;
+import io.github.wolfraam.chessgame.pgn.PGNExporter;
+import io.github.wolfraam.chessgame.pgn.PGNImporter;
+import io.github.wolfraam.chessgame.pgn.PGNTag;
+import io.github.wolfraam.chessgame.pgn.PGNVariation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GameCodecTest {
+
+    private static byte[] replaceMove(final byte[] bytes, final Move move, final Move replacement) {
+        final byte[] replaced = bytes.clone();
+        for (int i = 0; i + 1 < replaced.length; i++) {
+            if (replaced[i] == (byte) (move.encoding >> 8) && replaced[i + 1] == (byte) move.encoding) {
+                replaced[i] = (byte) (replacement.encoding >> 8);
+                replaced[i + 1] = (byte) replacement.encoding;
+                return replaced;
+            }
+        }
+        throw new IllegalArgumentException("Move " + move + " not found");
+    }
+
+    private String export(final ChessGame chessGame) {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        new PGNExporter(byteArrayOutputStream).write(chessGame);
+        return byteArrayOutputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCommentsAndInitialFen() {
+        final String pgn = """
+                [Event "Event"]
+                [White "White"]
+                [Black "Black"]
+                [Result "1-0"]
+                [FEN "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"]
+
+                1. {before} e4 {after} (1. e3) 1... Kd7 2. e5 {[%clk 1:40:41]} 1-0""";
+        final List<ChessGame> chessGames = new ArrayList<>();
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.setOnGame(chessGames::add);
+        pgnImporter.run(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+
+        final ChessGame expected = chessGames.get(0);
+        final ChessGame actual = ChessGame.fromBytes(expected.toBytes());
+        assertEquals(expected.getInitialFen(), actual.getInitialFen());
+        assertEquals(expected.getFen(), actual.getFen());
+        assertEquals(export(expected), export(actual));
+    }
+
+    @Test
+    void testInvalidBytes() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, "e4 e5 Nf3");
+        chessGame.getPGNData().setPGNTag(PGNTag.WHITE, "White");
+        final byte[] bytes = chessGame.toBytes();
+
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(Arrays.copyOf(bytes, bytes.length + 1)));
+
+        final byte[] unknownVersion = bytes.clone();
+        unknownVersion[0] = 3;
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(unknownVersion));
+
+        // The second move is changed into e2-e4, from the square which is empty after the first move
+        final byte[] emptySquare = bytes.clone();
+        emptySquare[6] = emptySquare[4];
+        emptySquare[5] = emptySquare[3];
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(emptySquare));
+    }
+
+    @Test
+    void testIllegalMove() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, "e4 e5");
+        final byte[] nullMove = replaceMove(chessGame.toBytes(), new Move(Square.E2, Square.E4), new Move(Square.E2, Square.E2));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(nullMove));
+
+        // Castling without a rook on h1
+        final ChessGame noRook = new ChessGame("4k3/8/8/8/8/8/8/4K3 w K - 0 1");
+        noRook.playMoves(NotationType.SAN, "Kf1");
+        final byte[] castling = replaceMove(noRook.toBytes(), new Move(Square.E1, Square.F1), new Move(Square.E1, Square.G1));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(castling));
+    }
+
+    @Test
+    void testLongComment() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, "e4 e5");
+        // Longer than the 65535 bytes of DataOutput.writeUTF, with characters of 2 bytes in UTF-8
+        final String text = "é".repeat(40000);
+        chessGame.getPGNData().addPGNCommentAfter(0, new PGNComment(text));
+        chessGame.getPGNData().addPGNCommentAfter(1, new PGNVariation("2. d4 " + text));
+        chessGame.getPGNData().setPGNTag(PGNTag.EVENT, "Ä");
+        chessGame.getPGNData().setPGNTag(PGNTag.RESULT, "*");
+
+        final ChessGame actual = ChessGame.fromBytes(chessGame.toBytes());
+        assertEquals(text, actual.getPGNData().getPGNCommentsAfter(0).get(0).getText());
+        assertTrue(actual.getPGNData().getPGNCommentsAfter(1).get(0) instanceof PGNVariation);
+        assertEquals("Ä", actual.getPGNData().getPGNTagValue(PGNTag.EVENT));
+        assertEquals(export(chessGame), export(actual));
+    }
+
+    @Test
+    void testOpeningBook() throws IOException {
+        final List<ChessGame> chessGames = new ArrayList<>();
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.setOnGame(chessGames::add);
+        try (final InputStream inputStream = GameCodecTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            pgnImporter.run(inputStream);
+        }
+        assertTrue(1000 < chessGames.size());
+
+        long moveCount = 0;
+        long byteCount = 0;
+        for (final ChessGame expected : chessGames) {
+            final byte[] bytes = expected.toBytes();
+            final ChessGame actual = ChessGame.fromBytes(bytes);
+            assertEquals(expected.getMoves(), actual.getMoves());
+            assertEquals(expected.getFen(), actual.getFen());
+            assertEquals(expected.getPositionHash(), actual.getPositionHash());
+            assertEquals(expected.getAvailablePGNTags(), actual.getAvailablePGNTags());
+            for (final PGNTag pgnTag : expected.getAvailablePGNTags()) {
+                assertEquals(expected.getPGNData().getPGNTagValue(pgnTag), actual.getPGNData().getPGNTagValue(pgnTag));
+            }
+            moveCount += expected.getMoves().size();
+            byteCount += bytes.length;
+        }
+        // Two bytes per move plus the tags
+        assertTrue(byteCount < 2 * moveCount + 100L * chessGames.size());
+    }
+}
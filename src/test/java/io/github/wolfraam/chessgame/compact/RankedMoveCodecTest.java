@@ -0,0 +1,117 @@
+package io.github.wolfraam.chessgame.compact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveList;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import io.github.wolfraam.chessgame.pgn.PGNImporter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RankedMoveCodecTest {
+
+    private void assertRoundTrip(final List<ChessGame> chessGames) {
+        final RankedMoveCodec rankedMoveCodec = new RankedMoveCodec();
+        final BitWriter bitWriter = new BitWriter();
+        for (final ChessGame chessGame : chessGames) {
+            final ChessGame decoded = rankedMoveCodec.decode(chessGame.getInitialFen(), rankedMoveCodec.encode(chessGame));
+            assertEquals(chessGame.getMoves(), decoded.getMoves());
+            assertEquals(chessGame.getFen(), decoded.getFen());
+            rankedMoveCodec.write(chessGame, bitWriter);
+        }
+        // The games can be streamed one after the other
+        final BitReader bitReader = new BitReader(bitWriter.toByteArray());
+        for (final ChessGame chessGame : chessGames) {
+            assertEquals(chessGame.getMoves(), rankedMoveCodec.read(chessGame.getInitialFen(), bitReader).getMoves());
+        }
+        assertTrue(bitReader.getRemainingBitCount() < 8);
+    }
+
+    @Test
+    void testBitWriterAndReader() {
+        final BitWriter bitWriter = new BitWriter(1);
+        bitWriter.writeBit(true);
+        bitWriter.writeBits(0x5, 3);
+        bitWriter.writeBits(0xDEADBEEF, 32);
+        bitWriter.writeBits(0, 0);
+        for (int value = 0; value < 1000; value += 7) {
+            bitWriter.writeExpGolomb(value, value % 4);
+        }
+        bitWriter.writeExpGolomb(Integer.MAX_VALUE, 0);
+        assertThrows(IllegalArgumentException.class, () -> bitWriter.writeExpGolomb(-1, 0));
+
+        final byte[] bytes = bitWriter.toByteArray();
+        assertEquals((bitWriter.getBitCount() + 7) / 8, bytes.length);
+        final BitReader bitReader = new BitReader(bytes);
+        assertTrue(bitReader.readBit());
+        assertEquals(0x5, bitReader.readBits(3));
+        assertEquals(0xDEADBEEF, bitReader.readBits(32));
+        for (int value = 0; value < 1000; value += 7) {
+            assertEquals(value, bitReader.readExpGolomb(value % 4));
+        }
+        assertEquals(Integer.MAX_VALUE, bitReader.readExpGolomb(0));
+        assertThrows(IllegalStateException.class, () -> bitReader.readBits(8));
+
+    }
+
+    @Test
+    void testIllegalMove() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMove(new Move(Square.E2, Square.E5));
+        assertThrows(IllegalArgumentException.class, () -> new RankedMoveCodec().encode(chessGame));
+    }
+
+    @Test
+    void testOpeningBook() throws IOException {
+        final List<ChessGame> chessGames = new ArrayList<>();
+        try (final InputStream inputStream = RankedMoveCodecTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            final PGNImporter pgnImporter = new PGNImporter();
+            pgnImporter.setOnGame(chessGames::add);
+            pgnImporter.setOnError((string, e) -> System.out.println(string));
+            pgnImporter.setOnWarning(System.out::println);
+            pgnImporter.run(inputStream);
+        }
+        assertRoundTrip(chessGames);
+
+        final RankedMoveCodec rankedMoveCodec = new RankedMoveCodec();
+        long bitCount = 0;
+        long moveCount = 0;
+        for (final ChessGame chessGame : chessGames) {
+            final BitWriter bitWriter = new BitWriter();
+            rankedMoveCodec.write(chessGame, bitWriter);
+            bitCount += bitWriter.getBitCount();
+            moveCount += chessGame.getMoves().size();
+        }
+        // About 5.5 bits per move
+        assertTrue(bitCount < 6 * moveCount);
+    }
+
+    @Test
+    void testRandomGames() {
+        final Random random = new Random(1);
+        final List<ChessGame> chessGames = new ArrayList<>();
+        chessGames.add(new ChessGame());
+        chessGames.add(new ChessGame("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1"));
+        for (int game = 0; game < 50; game++) {
+            final ChessGame chessGame = new ChessGame();
+            final MoveList moveList = new MoveList();
+            for (int ply = 0; ply < 300 && chessGame.getGameResult() == null; ply++) {
+                moveList.clear();
+                chessGame.getLegalMoves(moveList);
+                chessGame.playMove(moveList.get(random.nextInt(moveList.size())));
+            }
+            chessGames.add(chessGame);
+        }
+        chessGames.get(1).playMoves(NotationType.SAN, "b8=N Kf7 Nc6");
+        assertRoundTrip(chessGames);
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.wolfraam.chessgame.move;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Piece;
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.castle.CastleMoveType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LegalMoveGeneratorTest {
+
+    private Set<Move> generate(final Board board) {
+        final Set<Move> moves = new HashSet<>();
+        new LegalMoveGenerator(board).generate(-1L, -1L, moves::add);
+        return moves;
+    }
+
+    private boolean isAttacked(final Board board, final Square square, final Side side) {
+        final TargetHelper targetHelper = new TargetHelper(board);
+        targetHelper.setTo(square);
+        targetHelper.setAttackOnly();
+        return targetHelper.hasTargets(side);
+    }
+
+    // Plays every pseudo legal move and checks whether the king is attacked afterwards
+    private Set<Move> generateByPlaying(final Board board) {
+        final Set<Move> moves = new HashSet<>();
+        final Side side = board.getSideToMove();
+        for (final Square from : board.getOccupiedSquares()) {
+            final Piece piece = board.getPiece(from);
+            if (piece.side != side) {
+                continue;
+            }
+            for (final Square to : new TargetHelper(board).getTargets(from)) {
+                final CastleMoveType castleMoveType = CastleMoveType.determine(from, to, piece);
+                if (castleMoveType != null
+                        && (isAttacked(board, from, side.flip()) || isAttacked(board, castleMoveType.rookTo, side.flip()))) {
+                    continue;
+                }
+                final List<Move> candidates = new ArrayList<>();
+                if (piece.pieceType == PieceType.PAWN && (to.y == 0 || to.y == 7)) {
+                    for (final PieceType promotion : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
+                        candidates.add(new Move(from, to, promotion));
+                    }
+                } else {
+                    candidates.add(new Move(from, to));
+                }
+                for (final Move move : candidates) {
+                    board.makeMove(move);
+                    final Square kingSquare = board.getSquares(Piece.fromPieceTypeAndSide(PieceType.KING, side)).iterator().next();
+                    if (!isAttacked(board, kingSquare, side.flip())) {
+                        moves.add(move);
+                    }
+                    board.unmakeMove();
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Test
+    void testDoubleCheck() {
+        // The bishop could capture the knight, but the rook gives check too
+        final Board board = Board.fromFen("4k3/8/8/8/8/4n3/3B4/R2K3r w - - 0 1");
+        assertEquals(Set.of(new Move(Square.D1, Square.E2)), generate(board));
+    }
+
+    @Test
+    void testEnPassantDiscoveredCheck() {
+        // The capture would remove both pawns from the rank of the king and the rook
+        final Board board = Board.fromFen("8/8/8/KPp4r/8/8/8/4k3 w - c6 0 2");
+        assertFalse(generate(board).contains(new Move(Square.B5, Square.C6)));
+    }
+
+    @Test
+    void testEnPassantResolvesCheck() {
+        final Board board = Board.fromFen("8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1");
+        assertTrue(generate(board).contains(new Move(Square.E4, Square.D3)));
+    }
+
+    @Test
+    void testMoveCounts() {
+        assertEquals(20, generate(Board.fromInitialPosition()).size());
+        assertEquals(48, generate(Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1")).size());
+        assertEquals(14, generate(Board.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1")).size());
+        assertEquals(6, generate(Board.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1")).size());
+        assertEquals(44, generate(Board.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8")).size());
+        assertEquals(46, generate(Board.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10")).size());
+    }
+
+    @Test
+    void testPinnedPiece() {
+        final Board board = Board.fromFen("4k3/4r3/8/8/8/8/4B3/4K3 w - - 0 1");
+        assertEquals(Set.of(), new MoveHelper(board).getLegalMoves(Square.E2));
+    }
+
+    @Test
+    void testRandomGames() {
+        final Random random = new Random(1);
+        for (int game = 0; game < 100; game++) {
+            final Board board = Board.fromInitialPosition();
+            for (int ply = 0; ply < 200; ply++) {
+                final Set<Move> moves = generate(board);
+                assertEquals(generateByPlaying(board), moves, board.getFen());
+                assertEquals(moves.size(), new LegalMoveGenerator(board).count(-1L, -1L), board.getFen());
+                if (moves.isEmpty()) {
+                    break;
+                }
+                final List<Move> moveList = new ArrayList<>(moves);
+                moveList.sort((move1, move2) -> move1.toString().compareTo(move2.toString()));
+                board.makeMove(moveList.get(random.nextInt(moveList.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.wolfraam.chessgame.move;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.Square;
+import org.junit.jupiter.api.Test;
+
+class MoveListTest {
+
+    @Test
+    void testGrowAndClear() {
+        final MoveList moveList = new MoveList(1);
+        moveList.accept(Move.of(Square.E2, Square.E4));
+        moveList.accept(Move.of(Square.D2, Square.D4));
+        moveList.add(Move.encode(Square.G1, Square.F3, null));
+        assertEquals(3, moveList.size());
+        assertSame(Move.of(Square.D2, Square.D4), moveList.get(1));
+        assertTrue(moveList.contains(Move.of(Square.G1, Square.F3)));
+        assertThrows(IndexOutOfBoundsException.class, () -> moveList.get(3));
+
+        moveList.clear();
+        assertTrue(moveList.isEmpty());
+        assertFalse(moveList.contains(Move.of(Square.E2, Square.E4)));
+    }
+
+    @Test
+    void testLegalMoves() {
+        final MoveHelper moveHelper = new MoveHelper(Board.fromInitialPosition());
+        final MoveList moveList = new MoveList();
+        moveHelper.getLegalMoves(moveList);
+        assertEquals(20, moveList.size());
+        assertEquals(20, moveHelper.countLegalMoves());
+
+        moveList.clear();
+        moveHelper.getLegalMoves(Square.G1, moveList);
+        assertEquals(2, moveList.size());
+    }
+}
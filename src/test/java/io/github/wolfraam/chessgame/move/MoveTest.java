@@ -3,6 +3,8 @@ package io.github.wolfraam.chessgame.move;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.wolfraam.chessgame.board.PieceType;
@@ -11,6 +13,20 @@ import org.junit.jupiter.api.Test;
 
 class MoveTest {
 
+    @Test
+    void testEncoding() {
+        final int encoding = Move.encode(Square.B7, Square.A8, PieceType.KNIGHT);
+        assertEquals(Square.B7, Move.getFrom(encoding));
+        assertEquals(Square.A8, Move.getTo(encoding));
+        assertEquals(PieceType.KNIGHT, Move.getPromotion(encoding));
+        assertNull(Move.getPromotion(Move.encode(Square.E2, Square.E4, null)));
+        assertEquals(encoding, new Move(Square.B7, Square.A8, PieceType.KNIGHT).encoding);
+
+        assertSame(Move.of(Square.B7, Square.A8, PieceType.KNIGHT), Move.decode(encoding));
+        assertSame(Move.of(Square.E2, Square.E4), Move.of(Square.E2, Square.E4, null));
+        assertEquals(new Move(Square.E2, Square.E4), Move.of(Square.E2, Square.E4));
+    }
+
     @Test
     void testEquals() {
         assertEquals(new Move(Square.A1, Square.A2, PieceType.KNIGHT), new Move(Square.A1, Square.A2, PieceType.KNIGHT));
@@ -29,6 +45,4 @@ class MoveTest {
         assertNotEquals(new Move(Square.A1, Square.A2), new Move(Square.A1, Square.A2, PieceType.BISHOP));
         assertNotEquals(new Move(Square.A1, Square.A2), new Move(Square.A1, Square.A3));
     }
-
-
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package io.github.wolfraam.chessgame.move;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.wolfraam.chessgame.board.Side;
+import io.github.wolfraam.chessgame.board.Square;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TargetDataTest {
+
+    private static final TargetData TARGET_DATA = new TargetData().init();
+
+    private long walk(final Square square, final long occupancy, final int[][] directions) {
+        long targets = 0L;
+        for (final int[] direction : directions) {
+            int x = square.x + direction[0];
+            int y = square.y + direction[1];
+            while (0 <= x && x < 8 && 0 <= y && y < 8) {
+                final Square target = Square.fromCoordinates(x, y);
+                targets |= target.bitboard;
+                if ((occupancy & target.bitboard) != 0) {
+                    break;
+                }
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return targets;
+    }
+
+    @Test
+    void testKnightAndKing() {
+        assertEquals(Square.B3.bitboard | Square.C2.bitboard, TARGET_DATA.getKnightTargets(Square.A1));
+        assertEquals(Square.D1.bitboard | Square.D2.bitboard | Square.E2.bitboard | Square.F2.bitboard | Square.F1.bitboard,
+                TARGET_DATA.getKingTargets(Square.E1));
+    }
+
+    @Test
+    void testPawnAttacks() {
+        assertEquals(Square.D5.bitboard | Square.F5.bitboard, TARGET_DATA.getPawnAttacks(Square.E4, Side.WHITE));
+        assertEquals(Square.B3.bitboard, TARGET_DATA.getPawnAttacks(Square.A4, Side.BLACK));
+    }
+
+    @Test
+    void testSlidingTargets() {
+        final int[][] bishopDirections = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+        final int[][] rookDirections = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        final Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            final long occupancy = random.nextLong() & random.nextLong();
+            for (final Square square : Square.values()) {
+                assertEquals(walk(square, occupancy, bishopDirections), TARGET_DATA.getBishopTargets(square, occupancy));
+                assertEquals(walk(square, occupancy, rookDirections), TARGET_DATA.getRookTargets(square, occupancy));
+            }
+        }
+    }
+}
@@ -72,6 +72,18 @@ class LanTest {
         checkIllegal("e2-e5");
         checkIllegal("Qd1-d2");
         checkIllegal("Nb1-c0");
+        checkIllegal("Nb1c3");
+        checkIllegal("Nb1-c3=Q");
+        checkIllegal("e2-e4=");
+        checkIllegal("Ke1-g1");
+        checkIllegal("O-O");
+    }
+
+    @Test
+    void testMultiCharacterPieceNotation() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.LAN, "ru", "e2-e4 e7-e5 Крe1-e2");
+        assertEquals("e4 e5 Ke2", String.join(" ", chessGame.getNotationList(NotationType.SAN)));
     }
 
     @Test
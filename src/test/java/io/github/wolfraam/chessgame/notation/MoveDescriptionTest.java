@@ -0,0 +1,67 @@
+package io.github.wolfraam.chessgame.notation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.IllegalMoveException;
+import io.github.wolfraam.chessgame.move.KingState;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.castle.CastleType;
+import org.junit.jupiter.api.Test;
+
+class MoveDescriptionTest {
+
+    private void checkAllNotations(final ChessGame chessGame) {
+        for (final Move move : chessGame.getLegalMoves()) {
+            final MoveDescription moveDescription = chessGame.describeMove(move);
+            for (final NotationType notationType : NotationType.values()) {
+                for (final String languageCode : new String[]{"en", "de", "ru"}) {
+                    final String notation = moveDescription.getNotation(notationType, languageCode);
+                    assertEquals(chessGame.getNotation(notationType, languageCode, move), notation);
+                    assertEquals(move, chessGame.getMove(notationType, languageCode, notation));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDescription() {
+        final ChessGame chessGame = new ChessGame("r3k2r/1P6/8/8/8/8/8/R3K1NR w KQkq - 0 1");
+        final MoveDescription castle = chessGame.describeMove(Move.of(Square.E1, Square.C1));
+        assertEquals(CastleType.QUEEN_SIDE, castle.castleType);
+        assertEquals("O-O-O", castle.getNotation(NotationType.SAN));
+
+        final MoveDescription promotion = chessGame.describeMove(Move.of(Square.B7, Square.A8, PieceType.QUEEN));
+        assertTrue(promotion.capture);
+        assertTrue(promotion.fileDisambiguation);
+        assertFalse(promotion.rankDisambiguation);
+        assertNull(promotion.castleType);
+        assertEquals(KingState.CHECK, promotion.kingState);
+        assertEquals("bxa8=Q+", promotion.getNotation(NotationType.SAN));
+        assertEquals("bxa8=D+", promotion.getNotation(NotationType.SAN, "de"));
+        assertEquals("bxa8=♛+", promotion.getNotation(NotationType.FAN));
+        assertEquals("b7xa8=Q+", promotion.getNotation(NotationType.LAN));
+        assertEquals("b7a8q", promotion.getNotation(NotationType.UCI));
+        assertEquals("bxa8=Q+", promotion.getNotation(NotationType.SAN, "xx"));
+
+        assertThrows(IllegalMoveException.class, () -> chessGame.describeMove(Move.of(Square.B7, Square.B8)));
+    }
+
+    @Test
+    void testParseNotations() {
+        final ChessGame chessGame = new ChessGame();
+        checkAllNotations(chessGame);
+        for (final String san : "e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O h3 Nb8 d4 Nbd7 Nbd2 Bb7 Bc2 Re8 Nf1".split(" ")) {
+            chessGame.playMove(NotationType.SAN, san);
+            checkAllNotations(chessGame);
+        }
+        checkAllNotations(new ChessGame("4k3/8/8/1N6/8/1N3N2/8/4K3 w - - 0 1"));
+        checkAllNotations(new ChessGame("6k1/5ppp/8/8/8/8/8/R3K2R w KQ - 0 1"));
+    }
+}
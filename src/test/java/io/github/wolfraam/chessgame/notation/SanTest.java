@@ -1,9 +1,12 @@
 package io.github.wolfraam.chessgame.notation;
 
 import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.Board;
+import io.github.wolfraam.chessgame.board.PieceType;
 import io.github.wolfraam.chessgame.board.Square;
 import io.github.wolfraam.chessgame.move.IllegalMoveException;
 import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.notation.san.SanParser;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -31,5 +34,65 @@ class SanTest {
         checkPlayMovesIllegal("Qa0");
         checkPlayMovesIllegal("Nb3");
         checkPlayMovesIllegal("Nc3 e6 e3 Nf6 Ne2");
+        checkPlayMovesIllegal("O-O");
+        checkPlayMovesIllegal("e4 e5 Ke2 Ke7 Kf1 Kd8 O-O");
+        checkPlayMovesIllegal("Ne4");
+        checkPlayMovesIllegal("Nc3=Q");
+        checkPlayMovesIllegal("e4=");
+        checkPlayMovesIllegal("Na1b3");
+        checkPlayMovesIllegal("e4+#");
+    }
+
+    @Test
+    void testCharSequence() {
+        final SanParser sanParser = new SanParser();
+        final Board board = Board.fromInitialPosition();
+        final NotationMapping notationMapping = LanguageSettings.getNotationMapping("en");
+        final StringBuilder stringBuilder = new StringBuilder("1. e4 Nf3 ");
+        Assertions.assertEquals(Move.of(Square.E2, Square.E4), sanParser.convertToMove(board, notationMapping, stringBuilder, 3, 2));
+        Assertions.assertEquals(Move.of(Square.G1, Square.F3), sanParser.convertToMove(board, notationMapping, stringBuilder, 6, 3));
+        final IllegalMoveException illegalMoveException = Assertions.assertThrows(IllegalMoveException.class,
+                () -> sanParser.convertToMove(board, notationMapping, stringBuilder, 0, 5));
+        Assertions.assertEquals("Move 1. e4 is illegal", illegalMoveException.getMessage());
+        Assertions.assertThrows(IllegalMoveException.class, () -> sanParser.convertToMove(board, notationMapping, stringBuilder, 3, 0));
+    }
+
+    @Test
+    void testDisambiguation() {
+        final ChessGame chessGame = new ChessGame("4k3/8/8/1N6/8/1N3N2/8/4K3 w - - 0 1");
+        chessGame.playMove(NotationType.SAN, "Nfd4");
+        Assertions.assertEquals(Move.of(Square.F3, Square.D4), chessGame.getLastMove());
+        chessGame.undoMove();
+        chessGame.playMove(NotationType.SAN, "N5d4");
+        Assertions.assertEquals(Move.of(Square.B5, Square.D4), chessGame.getLastMove());
+        chessGame.undoMove();
+        chessGame.playMove(NotationType.SAN, "Nb3xd4");
+        Assertions.assertEquals(Move.of(Square.B3, Square.D4), chessGame.getLastMove());
+        Assertions.assertThrows(IllegalMoveException.class, () -> new ChessGame(chessGame.getInitialFen()).playMove(NotationType.SAN, "Nd4"));
+        Assertions.assertThrows(IllegalMoveException.class, () -> new ChessGame(chessGame.getInitialFen()).playMove(NotationType.SAN, "Nbd4+"));
+        // A disambiguation which is not needed is ignored, like before
+        final ChessGame chessGame2 = new ChessGame();
+        chessGame2.playMove(NotationType.SAN, "Nbc3");
+        Assertions.assertEquals(Move.of(Square.B1, Square.C3), chessGame2.getLastMove());
+    }
+
+    @Test
+    void testMultiCharacterPieceNotation() {
+        final ChessGame chessGame = new ChessGame();
+        chessGame.playMoves(NotationType.SAN, "ru", "e4 e5 Крe2 Кf6 Кf3");
+        Assertions.assertEquals(Move.of(Square.E1, Square.E2), chessGame.getMoves().get(2));
+        Assertions.assertEquals("e4 e5 Ke2 Nf6 Nf3", String.join(" ", chessGame.getNotationList(NotationType.SAN)));
+    }
+
+    @Test
+    void testPromotion() {
+        final ChessGame chessGame = new ChessGame("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        chessGame.playMove(NotationType.SAN, "axb8=N");
+        Assertions.assertEquals(Move.of(Square.A7, Square.B8, PieceType.KNIGHT), chessGame.getLastMove());
+        Assertions.assertThrows(IllegalMoveException.class, () -> new ChessGame(chessGame.getInitialFen()).playMove(NotationType.SAN, "axb8"));
+        Assertions.assertThrows(IllegalMoveException.class, () -> new ChessGame(chessGame.getInitialFen()).playMove(NotationType.SAN, "a8=K"));
+        final ChessGame chessGame2 = new ChessGame(chessGame.getInitialFen());
+        chessGame2.playMove(NotationType.SAN, "de", "a8=D+");
+        Assertions.assertEquals(Move.of(Square.A7, Square.A8, PieceType.QUEEN), chessGame2.getLastMove());
     }
 }
\ No newline at end of file
@@ -1,8 +1,15 @@
 package io.github.wolfraam.chessgame.notation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.board.PieceType;
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.IllegalMoveException;
+import io.github.wolfraam.chessgame.move.Move;
+import io.github.wolfraam.chessgame.move.MoveStatus;
+import io.github.wolfraam.chessgame.notation.uci.UciParser;
 import org.junit.jupiter.api.Test;
 
 class UciTest {
@@ -31,6 +38,51 @@ class UciTest {
         check(sanGame, uciGame);
     }
 
+    @Test
+    void testParse() {
+        final UciParser uciParser = new UciParser();
+        assertEquals(Move.of(Square.E2, Square.E4).encoding, uciParser.parse("bestmove e2e4 ponder e7e5", 9, 4));
+        assertEquals(Move.of(Square.E7, Square.E8, PieceType.QUEEN).encoding, uciParser.parse("e7e8q", 0, 5));
+        assertEquals(Move.of(Square.H2, Square.A1, PieceType.KNIGHT).encoding, uciParser.parse("h2a1n", 0, 5));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("e7e8k", 0, 5));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("e7e8Q", 0, 5));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("e2e9", 0, 4));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("i2e4", 0, 4));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("e2e", 0, 3));
+        assertEquals(UciParser.NO_MOVE, uciParser.parse("e2-e4", 0, 5));
+        assertThrows(IllegalMoveException.class, () -> new ChessGame().playMove(NotationType.UCI, "e2e"));
+    }
+
+    @Test
+    void testPlayIllegalMove() {
+        final ChessGame chessGame = new ChessGame("4k3/8/8/8/8/8/8/4K3 w K - 0 1");
+        final String fen = chessGame.getFen();
+        assertThrows(IllegalMoveException.class, () -> chessGame.playMove(NotationType.UCI, "e1g1"));
+        assertThrows(IllegalMoveException.class, () -> chessGame.playMove(NotationType.UCI, "en", "e1g1"));
+        assertThrows(IllegalMoveException.class, () -> chessGame.playMove(NotationType.UCI, "e2e4"));
+        assertThrows(IllegalMoveException.class, () -> chessGame.playMove(NotationType.UCI, "e1g1", 0, 4));
+        assertThrows(IllegalMoveException.class, () -> chessGame.playMove(NotationType.LAN, "Ke1-g1"));
+        assertEquals(fen, chessGame.getFen());
+        assertEquals(0, chessGame.getMoves().size());
+    }
+
+    @Test
+    void testTryPlayUci() {
+        final ChessGame chessGame = new ChessGame();
+        assertEquals(MoveStatus.PLAYED, chessGame.tryPlayUci("e2e4"));
+        assertEquals(MoveStatus.ILLEGAL_MOVE, chessGame.tryPlayUci("e2e4"));
+        assertEquals(MoveStatus.ILLEGAL_MOVE, chessGame.tryPlayUci("e4e5"));
+        assertEquals(MoveStatus.INVALID_NOTATION, chessGame.tryPlayUci("e7-e5"));
+        assertEquals(MoveStatus.PLAYED, chessGame.tryPlayUci("bestmove e7e5", 9, 4));
+        assertEquals(2, chessGame.getMoves().size());
+
+        final ChessGame promotionGame = new ChessGame("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals(MoveStatus.ILLEGAL_MOVE, promotionGame.tryPlayUci("a7a8"));
+        assertEquals(MoveStatus.PLAYED, promotionGame.tryPlayUci("a7a8r"));
+        assertEquals(Move.of(Square.A7, Square.A8, PieceType.ROOK), promotionGame.getLastMove());
+        assertEquals(MoveStatus.ILLEGAL_MOVE, promotionGame.tryPlayUci("e1e2q"));
+    }
+
     private void check(final String sanGame, final String uciGame) {
         final ChessGame chessGame1 = new ChessGame();
         chessGame1.playMoves(NotationType.SAN, sanGame);
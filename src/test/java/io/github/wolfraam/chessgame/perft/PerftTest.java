@@ -0,0 +1,62 @@
+package io.github.wolfraam.chessgame.perft;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.board.Square;
+import io.github.wolfraam.chessgame.move.Move;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+    // Keeps the test fast, the higher depths are for benchmarking
+    private static final long MAX_NODE_COUNT = 500_000L;
+
+    @Test
+    void testDivide() {
+        final Perft perft = new Perft(PerftPosition.INITIAL.fen);
+        final Map<Move, Long> divide = perft.divide(3);
+        assertEquals(20, divide.size());
+        assertEquals(600L, (long) divide.get(Move.of(Square.E2, Square.E4)));
+        assertEquals(8902L, divide.values().stream().mapToLong(Long::longValue).sum());
+
+        final String divideOutput = perft.getDivideOutput(2);
+        assertTrue(divideOutput.contains("g1f3: 20\n"));
+        assertTrue(divideOutput.endsWith("Nodes searched: 400\n"));
+        assertThrows(IllegalArgumentException.class, () -> perft.divide(0));
+    }
+
+    @Test
+    void testForkJoinPoolAndHashTable() {
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for (final PerftPosition perftPosition : PerftPosition.values()) {
+                final Perft perft = new Perft(perftPosition.fen);
+                perft.setForkJoinPool(forkJoinPool);
+                perft.setHashTableSize(1 << 16);
+                assertEquals(perftPosition.getNodeCount(3), perft.perft(3), perftPosition.name());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void testPromotionsInDivideOutput() {
+        final Perft perft = new Perft(PerftPosition.POSITION_5.fen);
+        assertTrue(perft.getDivideOutput(1).contains("d7c8n: 1\n"));
+    }
+
+    @Test
+    void testReferencePositions() {
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            final Perft perft = new Perft(perftPosition.fen);
+            for (int depth = 1; depth <= perftPosition.getMaxDepth() && perftPosition.getNodeCount(depth) <= MAX_NODE_COUNT; depth++) {
+                assertEquals(perftPosition.getNodeCount(depth), perft.perft(depth), perftPosition.name() + " depth " + depth);
+            }
+        }
+    }
+}
@@ -8,13 +8,59 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 class PGNImporterTest {
 
+    // The opening book with invalid games at the start, in the middle and at the end
+    private String createPgnWithErrors() throws IOException {
+        final String invalidGames = """
+                [Event "Invalid move"]
+                [Asd "?"]
+
+                1. e4 e5 2. Ke3 *
+
+                [Event "Invalid move number"]
+
+                1. e4 e5 3. Nf3 *
+
+                """;
+        final byte[] openingBook;
+        try (final InputStream inputStream = PGNImporterTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            openingBook = inputStream.readAllBytes();
+        }
+        final String book = new String(openingBook, StandardCharsets.UTF_8);
+        final String pgn = invalidGames + book + "\n" + invalidGames + book + "\n" + invalidGames;
+        return pgn;
+    }
+
+    private List<String> describe(final List<ChessGame> chessGames) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final ChessGame chessGame : chessGames) {
+            final StringBuilder stringBuilder = new StringBuilder();
+            for (final PGNTag pgnTag : chessGame.getAvailablePGNTags()) {
+                stringBuilder.append(pgnTag).append('=').append(chessGame.getPGNData().getPGNTagValue(pgnTag)).append(' ');
+            }
+            descriptions.add(stringBuilder.append(chessGame.getMoves()).toString());
+        }
+        return descriptions;
+    }
+
     private ChessGame test(final String pgn, final String lastMove) {
         final Set<ChessGame> chessGameSet = new HashSet<>();
         try (final InputStream inputStream = new ByteArrayInputStream(pgn.getBytes())) {
@@ -92,6 +138,20 @@ class PGNImporterTest {
 
     }
 
+    @Test
+    void testAnnotations() {
+        final String pgn = """
+                [Event "?"]
+
+                1. e4! $1 e5?! ; line comment
+                2. Nf3!! {comment
+                  over lines} 2... Nc6?? *""";
+
+        final ChessGame chessGame = test(pgn, "Nc6");
+        assertEquals(" line comment", chessGame.getPGNData().getPGNCommentsAfter(1).get(0).getText());
+        assertEquals("comment over lines", chessGame.getPGNData().getPGNCommentsAfter(2).get(0).getText());
+    }
+
     @Test
     void testDontAcceptSetup() {
         final String pgn = """
@@ -194,7 +254,7 @@ class PGNImporterTest {
 
                 1. d4 f5 3. Nc3 0-1""";
 
-        assertEquals("Line:5 Invalid move number 3 in line: 1. d4 f5 3. Nc3 ", testErrors(pgn).iterator().next());
+        assertEquals("Line:5 Invalid move number 3 in line: 1. d4 f5 3. Nc3 0-1", testErrors(pgn).iterator().next());
     }
 
     @Test
@@ -287,6 +347,234 @@ class PGNImporterTest {
                 }));
     }
 
+    @Test
+    void testParallel() throws IOException {
+        final String pgn = createPgnWithErrors();
+        final Path path = Files.createTempFile("parallel", ".pgn");
+        final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Files.writeString(path, pgn);
+            final List<ChessGame> expectedGames = new ArrayList<>();
+            final List<String> expectedMessages = new ArrayList<>();
+            final PGNImporter pgnImporter = new PGNImporter();
+            pgnImporter.setOnGame(expectedGames::add);
+            pgnImporter.setOnError((message, e) -> expectedMessages.add(message));
+            pgnImporter.setOnWarning(expectedMessages::add);
+            pgnImporter.run(path);
+            assertEquals(9, expectedMessages.size());
+            assertEquals("File: " + path.getFileName() + " Line:2 Unknown Tag, line: [Asd \"?\"]", expectedMessages.get(0));
+
+            pgnImporter.setChunkSize(4096);
+            for (final ForkJoinPool forkJoinPool : List.of(new ForkJoinPool(4), ForkJoinPool.commonPool())) {
+                pgnImporter.setExecutor(forkJoinPool);
+                final List<ChessGame> games = new ArrayList<>();
+                final List<String> messages = new ArrayList<>();
+                pgnImporter.setOnGame(games::add);
+                pgnImporter.setOnError((message, e) -> messages.add(message));
+                pgnImporter.setOnWarning(messages::add);
+                pgnImporter.run(path);
+                assertEquals(describe(expectedGames), describe(games));
+                assertEquals(expectedMessages, messages);
+
+                games.clear();
+                messages.clear();
+                pgnImporter.run(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+                assertEquals(describe(expectedGames), describe(games));
+                assertEquals(expectedMessages.size(), messages.size());
+                // The common pool is not shut down
+                forkJoinPool.shutdown();
+            }
+
+            pgnImporter.setExecutor(executorService);
+            pgnImporter.setOrdered(false);
+            final List<ChessGame> games = new ArrayList<>();
+            final List<String> messages = new ArrayList<>();
+            pgnImporter.setOnGame(games::add);
+            pgnImporter.setOnError((message, e) -> messages.add(message));
+            pgnImporter.setOnWarning(messages::add);
+            pgnImporter.run(ByteBuffer.wrap(pgn.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(new HashSet<>(describe(expectedGames)), new HashSet<>(describe(games)));
+            assertEquals(expectedGames.size(), games.size());
+            assertEquals(expectedMessages.size(), messages.size());
+            assertEquals("Line:2 Unknown Tag, line: [Asd \"?\"]", messages.get(0));
+        } finally {
+            executorService.close();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testParallelGameNotEnded() throws IOException {
+        final String pgn = """
+                [Event "1"]
+
+                1. e4 *
+
+                [Event "2"]
+
+                1. d4
+
+                [Event "3"]
+
+                1. c4 *
+
+                [Event "4"]
+
+                1. Nf3
+                """;
+        final Path path = Files.createTempFile("not-ended", ".pgn");
+        try {
+            Files.writeString(path, pgn);
+            final List<String> expectedMessages = new ArrayList<>();
+            final PGNImporter pgnImporter = new PGNImporter();
+            final List<ChessGame> games = new ArrayList<>();
+            pgnImporter.setOnGame(games::add);
+            pgnImporter.setOnError((message, e) -> expectedMessages.add(message));
+            pgnImporter.run(path);
+            assertEquals(List.of("File: " + path.getFileName() + " Line:9 Error: Previous Game did not end properly"), expectedMessages);
+            assertEquals(2, games.size());
+
+            // Every game is a chunk of its own
+            pgnImporter.setChunkSize(10);
+            pgnImporter.setExecutor(ForkJoinPool.commonPool());
+            // A parallel stream calls the error consumer on the threads of the stream
+            final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+            pgnImporter.setOnError((message, e) -> messages.add(message));
+            pgnImporter.run(path);
+            assertEquals(expectedMessages, messages);
+
+            messages.clear();
+            pgnImporter.run(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(List.of("Line:9 Error: Previous Game did not end properly"), messages);
+
+            for (final boolean isParallel : List.of(false, true)) {
+                messages.clear();
+                try (final Stream<ChessGame> stream = pgnImporter.stream(path)) {
+                    assertEquals(2, (isParallel ? stream.parallel() : stream).count());
+                }
+                assertEquals(expectedMessages.size(), messages.size());
+                assertEquals(new HashSet<>(expectedMessages), new HashSet<>(messages));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testPathByteBufferAndInputStream() throws IOException {
+        final byte[] bytes;
+        try (final InputStream inputStream = PGNImporterTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            bytes = inputStream.readAllBytes();
+        }
+        final Path path = Files.createTempFile("opening-book", ".pgn");
+        try {
+            Files.write(path, bytes);
+            final List<ChessGame> fromPath = new ArrayList<>();
+            final PGNImporter pgnImporter = new PGNImporter();
+            pgnImporter.setOnGame(fromPath::add);
+            pgnImporter.run(path);
+
+            final List<ChessGame> fromByteBuffer = new ArrayList<>();
+            pgnImporter.setOnGame(fromByteBuffer::add);
+            pgnImporter.run(ByteBuffer.wrap(bytes));
+
+            final List<ChessGame> fromInputStream = new ArrayList<>();
+            pgnImporter.setOnGame(fromInputStream::add);
+            pgnImporter.run(new ByteArrayInputStream(bytes));
+
+            assertEquals(new String(bytes, StandardCharsets.UTF_8).split("\\[ECO ").length - 1, fromPath.size());
+            assertEquals(describe(fromPath), describe(fromByteBuffer));
+            assertEquals(describe(fromPath), describe(fromInputStream));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testStream() throws IOException {
+        final String pgn = createPgnWithErrors();
+        final Path path = Files.createTempFile("stream", ".pgn");
+        try {
+            Files.writeString(path, pgn);
+            final List<ChessGame> expectedGames = new ArrayList<>();
+            final List<String> expectedMessages = new ArrayList<>();
+            final PGNImporter pgnImporter = new PGNImporter();
+            pgnImporter.setOnGame(expectedGames::add);
+            pgnImporter.setOnError((message, e) -> expectedMessages.add(message));
+            pgnImporter.setOnWarning(expectedMessages::add);
+            pgnImporter.run(path);
+
+            final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+            pgnImporter.setOnError((message, e) -> messages.add(message));
+            pgnImporter.setOnWarning(messages::add);
+            pgnImporter.setChunkSize(4096);
+            try (final Stream<ChessGame> stream = pgnImporter.stream(path)) {
+                assertEquals(describe(expectedGames), describe(stream.toList()));
+            }
+            assertEquals(expectedMessages, messages);
+
+            messages.clear();
+            try (final Stream<ChessGame> stream = pgnImporter.stream(path)) {
+                assertEquals(describe(expectedGames), describe(stream.parallel().toList()));
+            }
+            assertEquals(new HashSet<>(expectedMessages), new HashSet<>(messages));
+
+            messages.clear();
+            final long count = pgnImporter.stream(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))).parallel()
+                    .filter(chessGame -> chessGame.getMoves().size() == 3)
+                    .count();
+            assertEquals(expectedGames.stream().filter(chessGame -> chessGame.getMoves().size() == 3).count(), count);
+            assertEquals(new HashSet<>(expectedMessages), new HashSet<>(messages.stream().map(message -> "File: " + path.getFileName() + " " + message).toList()));
+
+            // The games after the first games are not imported
+            messages.clear();
+            try (final Stream<ChessGame> stream = pgnImporter.stream(path)) {
+                assertEquals(describe(expectedGames.subList(0, 2)), describe(stream.limit(2).toList()));
+            }
+            assertEquals(expectedMessages.subList(0, 3), messages);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testTagsOnly() throws IOException {
+        final String pgn = createPgnWithErrors();
+        final List<ChessGame> games = new ArrayList<>();
+        final List<Map<PGNTag, String>> expectedTags = new ArrayList<>();
+        final List<String> messages = new ArrayList<>();
+        final PGNImporter pgnImporter = new PGNImporter();
+        pgnImporter.setOnGame(games::add);
+        pgnImporter.setOnTags(expectedTags::add);
+        pgnImporter.setOnError((message, e) -> messages.add(message));
+        pgnImporter.setOnWarning(messages::add);
+        pgnImporter.run(ByteBuffer.wrap(pgn.getBytes(StandardCharsets.UTF_8)));
+        // The tags of the invalid games are delivered before their moves are played
+        assertEquals(games.size() + 6, expectedTags.size());
+        assertEquals(Map.of(PGNTag.EVENT, "Invalid move"), expectedTags.get(0));
+        assertEquals(games.get(0).getPGNData().getPGNTagValue(PGNTag.OPENING), expectedTags.get(2).get(PGNTag.OPENING));
+        assertEquals(9, messages.size());
+
+        // Without a game consumer the move text is skipped, so the invalid moves are not reported
+        final List<Map<PGNTag, String>> tags = new ArrayList<>();
+        messages.clear();
+        pgnImporter.setOnGame(null);
+        pgnImporter.setOnTags(tags::add);
+        pgnImporter.run(ByteBuffer.wrap(pgn.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expectedTags, tags);
+        assertEquals(List.of("Line:2 Unknown Tag, line: [Asd \"?\"]"), messages.subList(0, 1));
+        assertEquals(3, messages.size());
+
+        tags.clear();
+        messages.clear();
+        pgnImporter.setAcceptTagsPredicate(pgnTagStringMap -> "B20".equals(pgnTagStringMap.get(PGNTag.ECO)));
+        pgnImporter.setExecutor(ForkJoinPool.commonPool());
+        pgnImporter.setChunkSize(4096);
+        pgnImporter.run(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expectedTags.stream().filter(pgnTagStringMap -> "B20".equals(pgnTagStringMap.get(PGNTag.ECO))).toList(), tags);
+        assertEquals(3, messages.size());
+    }
+
     @Test
     void testRuntimeException() {
         final String pgn = """
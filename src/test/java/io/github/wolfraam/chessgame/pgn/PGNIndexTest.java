@@ -0,0 +1,149 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.wolfraam.chessgame.ChessGame;
+import io.github.wolfraam.chessgame.notation.NotationType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PGNIndexTest {
+
+    private static Path createPgnFile(final String prefix) throws IOException {
+        final Path path = Files.createTempFile("index", ".pgn");
+        try (final InputStream inputStream = PGNIndexTest.class.getResourceAsStream("/io/github/wolfraam/chessgame/opening/opening-book.pgn")) {
+            Files.writeString(path, prefix);
+            Files.write(path, inputStream.readAllBytes(), StandardOpenOption.APPEND);
+        }
+        return path;
+    }
+
+    private static String describe(final ChessGame chessGame) {
+        return chessGame.getPGNData().getPGNTagValue(PGNTag.ECO) + " " + chessGame.getPGNData().getPGNTagValue(PGNTag.OPENING)
+                + " " + chessGame.getPGNData().getPGNTagValue(PGNTag.VARIATION) + " " + chessGame.getNotationList(NotationType.SAN);
+    }
+
+    @Test
+    void testCreateAndReadGames() throws IOException {
+        final Path path = createPgnFile("");
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            final List<ChessGame> chessGames = new ArrayList<>();
+            final PGNImporter pgnImporter = new PGNImporter();
+            pgnImporter.setOnGame(chessGames::add);
+            pgnImporter.run(path);
+
+            final PGNIndex pgnIndex = PGNIndex.create(path, PGNTag.ECO, PGNTag.OPENING, PGNTag.VARIATION);
+            assertEquals(chessGames.size(), pgnIndex.size());
+            assertEquals(List.of(PGNTag.ECO, PGNTag.OPENING, PGNTag.VARIATION), pgnIndex.getPGNTags());
+            assertEquals(0, pgnIndex.getOffset(0));
+            assertEquals("[ECO \"A00\"]\n[Opening \"Polish (Sokolsky) opening\"]\n\n1. b4 *".length(), pgnIndex.getLength(0));
+            assertEquals("Polish (Sokolsky) opening", pgnIndex.getPGNTagValue(0, PGNTag.OPENING));
+            assertNull(pgnIndex.getPGNTagValue(0, PGNTag.VARIATION));
+            assertEquals("Tuebingen variation", pgnIndex.getPGNTagValue(1, PGNTag.VARIATION));
+            assertThrows(IllegalArgumentException.class, () -> pgnIndex.getPGNTagValue(0, PGNTag.WHITE));
+            assertThrows(IndexOutOfBoundsException.class, () -> pgnIndex.getOffset(pgnIndex.size()));
+
+            final int last = pgnIndex.size() - 1;
+            assertEquals(describe(chessGames.get(last)), describe(pgnIndex.readGame(fileChannel, last)));
+            assertEquals(describe(chessGames.get(1)), describe(pgnIndex.readGame(fileChannel, 1)));
+
+            final int[] games = pgnIndex.find(PGNTag.ECO, "B20");
+            final List<String> expected = new ArrayList<>();
+            for (final ChessGame chessGame : chessGames) {
+                if ("B20".equals(chessGame.getPGNData().getPGNTagValue(PGNTag.ECO))) {
+                    expected.add(describe(chessGame));
+                }
+            }
+            assertEquals(expected, pgnIndex.readGames(fileChannel, games).stream().map(PGNIndexTest::describe).toList());
+            assertArrayEquals(games, pgnIndex.find(PGNTag.ECO, "B20"::equalsIgnoreCase));
+            assertEquals(0, pgnIndex.find(PGNTag.ECO, "Z99").length);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testLongValue() throws IOException {
+        final Path path = Files.createTempFile("index", ".pgn");
+        final Path indexPath = Files.createTempFile("index", ".idx");
+        try {
+            // Longer than the 65535 bytes of DataOutput.writeUTF, with characters of 2 bytes in UTF-8
+            final String event = "é".repeat(40000);
+            Files.writeString(path, "[Event \"" + event + "\"]\n\n1. e4 *\n");
+            PGNIndex.create(path, PGNTag.EVENT).write(indexPath);
+            assertEquals(event, PGNIndex.read(indexPath).getPGNTagValue(0, PGNTag.EVENT));
+        } finally {
+            Files.delete(path);
+            Files.delete(indexPath);
+        }
+    }
+
+    @Test
+    void testReadInvalidGame() throws IOException {
+        final Path path = Files.createTempFile("index", ".pgn");
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            Files.writeString(path, "[FEN \"invalid\"]\n\n1. e4 *\n\n[Event \"Illegal\"]\n\n1. e5 *\n");
+            final PGNIndex pgnIndex = PGNIndex.create(path, PGNTag.EVENT);
+            assertEquals(2, pgnIndex.size());
+            final IllegalPGNException invalidFen = assertThrows(IllegalPGNException.class, () -> pgnIndex.readGame(fileChannel, 0));
+            assertTrue(invalidFen.getCause() instanceof IllegalArgumentException);
+            final IllegalPGNException illegalMove = assertThrows(IllegalPGNException.class, () -> pgnIndex.readGame(fileChannel, 1));
+            assertNull(illegalMove.getCause());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        final Path path = createPgnFile("Some text before the games\n\n");
+        final Path indexPath = Files.createTempFile("index", ".idx");
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            final PGNIndex pgnIndex = PGNIndex.create(path, PGNTag.ECO, PGNTag.VARIATION);
+            assertEquals("Some text before the games\n\n".length(), pgnIndex.getOffset(0));
+            pgnIndex.write(indexPath);
+
+            final PGNIndex readIndex = PGNIndex.read(indexPath);
+            assertEquals(pgnIndex.size(), readIndex.size());
+            assertEquals(pgnIndex.getPGNTags(), readIndex.getPGNTags());
+            for (int game = 0; game < pgnIndex.size(); game++) {
+                assertEquals(pgnIndex.getOffset(game), readIndex.getOffset(game));
+                assertEquals(pgnIndex.getLength(game), readIndex.getLength(game));
+                assertEquals(pgnIndex.getPGNTagValue(game, PGNTag.ECO), readIndex.getPGNTagValue(game, PGNTag.ECO));
+                assertEquals(pgnIndex.getPGNTagValue(game, PGNTag.VARIATION), readIndex.getPGNTagValue(game, PGNTag.VARIATION));
+            }
+            assertArrayEquals(pgnIndex.find(PGNTag.VARIATION, "Tuebingen variation"), readIndex.find(PGNTag.VARIATION, "Tuebingen variation"));
+            assertEquals(describe(pgnIndex.readGame(fileChannel, 5)), describe(readIndex.readGame(fileChannel, 5)));
+        } finally {
+            Files.delete(path);
+        }
+
+        Files.writeString(path, "[ECO \"A00\"]\n\n1. b4 *\n");
+        try (final FileChannel fileChannel = FileChannel.open(path)) {
+            final IOException ioException = assertThrows(IOException.class, () -> PGNIndex.read(indexPath).readGame(fileChannel, 0));
+            assertEquals(true, ioException.getMessage().startsWith("The index does not belong to the file"));
+        } finally {
+            Files.delete(path);
+            Files.delete(indexPath);
+        }
+
+        Files.write(indexPath, "not an index".getBytes(StandardCharsets.UTF_8));
+        try {
+            assertThrows(IOException.class, () -> PGNIndex.read(indexPath));
+        } finally {
+            Files.delete(indexPath);
+        }
+    }
+}
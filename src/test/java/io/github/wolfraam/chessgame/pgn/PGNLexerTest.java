@@ -0,0 +1,96 @@
+package io.github.wolfraam.chessgame.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PGNLexerTest {
+
+    private static final String PGN = """
+            [Event "Event \\"1\\""]
+            [Asd "?"]
+            % escaped line
+            [White "Müller"]
+
+            1.e4! {a comment
+               over two lines  } e5?! 2. Nf3 $1 (2. Nc3 {(} Nc6 (2... Nf6)) ; a line comment
+            2... Nc6 1/2-1/2
+            """;
+
+    private List<String> lex(final PGNLexer pgnLexer) {
+        final List<String> tokens = new ArrayList<>();
+        PGNTokenType pgnTokenType;
+        while ((pgnTokenType = pgnLexer.next()) != PGNTokenType.END_OF_INPUT) {
+            final String value = switch (pgnTokenType) {
+                case TAG -> pgnLexer.getPGNTag() + "=" + pgnLexer.getTagValue();
+                case MOVE_NUMBER -> String.valueOf(pgnLexer.getMoveNumber());
+                case SAN, RESULT -> pgnLexer.getCharSequence().subSequence(pgnLexer.getTokenOffset(),
+                        pgnLexer.getTokenOffset() + pgnLexer.getTokenLength()).toString();
+                default -> pgnLexer.getText();
+            };
+            tokens.add(pgnLexer.getLineNumber() + " " + pgnTokenType + " " + value);
+        }
+        return tokens;
+    }
+
+    @Test
+    void testBufferRefills() {
+        final byte[] bytes = PGN.getBytes(StandardCharsets.UTF_8);
+        // Returns at most 3 bytes per read, so tokens are split over refills of the buffer
+        final InputStream inputStream = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        assertEquals(lex(new PGNLexer(ByteBuffer.wrap(bytes))), lex(new PGNLexer(inputStream)));
+    }
+
+    @Test
+    void testSkipMoveText() {
+        final PGNLexer pgnLexer = new PGNLexer(ByteBuffer.wrap((PGN + "1. e4 {\n[Event \"in a comment\"]} (1. d4\n[Event \"in a variation\"])\n[Event \"2\"]\n\n*\n").getBytes(StandardCharsets.UTF_8)));
+        PGNTokenType pgnTokenType;
+        while ((pgnTokenType = pgnLexer.next()) != PGNTokenType.MOVE_NUMBER) {
+            assertEquals(true, pgnTokenType == PGNTokenType.TAG || pgnTokenType == PGNTokenType.UNKNOWN_TAG);
+        }
+        assertEquals(PGNTokenType.RESULT, pgnLexer.skipMoveText());
+        assertEquals(8, pgnLexer.getLineNumber());
+        assertEquals("1/2-1/2", pgnLexer.getText());
+        // Müller is one byte longer in UTF-8
+        assertEquals(PGN.indexOf("1/2-1/2") + 1, pgnLexer.getTokenPosition());
+
+        assertEquals(PGNTokenType.MOVE_NUMBER, pgnLexer.next());
+        assertEquals(PGNTokenType.TAG, pgnLexer.skipMoveText());
+        assertEquals(12, pgnLexer.getLineNumber());
+        assertEquals("2", pgnLexer.getTagValue());
+        assertEquals(PGNTokenType.RESULT, pgnLexer.skipMoveText());
+        assertEquals(PGNTokenType.END_OF_INPUT, pgnLexer.skipMoveText());
+    }
+
+    @Test
+    void testTokens() {
+        final List<String> expected = List.of(
+                "1 TAG EVENT=Event \"1\"",
+                "2 UNKNOWN_TAG [Asd \"?\"]",
+                "4 TAG WHITE=Müller",
+                "6 MOVE_NUMBER 1",
+                "6 SAN e4",
+                "6 COMMENT a comment over two lines  ",
+                "7 SAN e5",
+                "7 MOVE_NUMBER 2",
+                "7 SAN Nf3",
+                "7 NAG $1",
+                "7 VARIATION 2. Nc3 {(} Nc6 (2... Nf6)",
+                "7 COMMENT  a line comment",
+                "8 MOVE_NUMBER 2",
+                "8 SAN Nc6",
+                "8 RESULT 1/2-1/2");
+        assertEquals(expected, lex(new PGNLexer(new ByteArrayInputStream(PGN.getBytes(StandardCharsets.UTF_8)))));
+    }
+}